@@ -0,0 +1,61 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import com.bugabuga.e_commerce.model.dto.CarritoDTO;
+import com.bugabuga.e_commerce.model.entity.Carrito;
+import com.bugabuga.e_commerce.service.CarritoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo del total del carrito y su conversión a CarritoDTO, con los productos ya cargados.
+ * convertirADTO es privado: se invoca con un MethodHandle, cuyo coste es despreciable frente al mapeo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarritoBenchmark {
+
+    @Param({"3", "30"})
+    public int items;
+
+    private Carrito carrito;
+    private CarritoService carritoService;
+    private MethodHandle convertirADTO;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        carrito = DatosBenchmark.carrito(items);
+        carritoService = new CarritoService();
+        convertirADTO = MethodHandles.privateLookupIn(CarritoService.class, MethodHandles.lookup())
+                .findVirtual(CarritoService.class, "convertirADTO", MethodType.methodType(CarritoDTO.class, Carrito.class));
+    }
+
+    @Benchmark
+    public BigDecimal calcularTotal() {
+        carrito.calcularTotal();
+        return carrito.getTotal();
+    }
+
+    @Benchmark
+    public CarritoDTO convertirADTO() throws Throwable {
+        return (CarritoDTO) convertirADTO.invokeExact(carritoService, carrito);
+    }
+}
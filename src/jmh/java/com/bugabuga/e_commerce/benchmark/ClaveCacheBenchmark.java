@@ -0,0 +1,68 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import com.bugabuga.e_commerce.config.ClaveCatalogo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de la clave de caché de productosPorTienda en cada llamada a ProductoService.
+ * {@code spel} evalúa la misma expresión que la anotación @Cacheable, ya parseada como hace Spring,
+ * con un contexto nuevo por invocación; {@code directa} construye la clave en Java.
+ * {@code hashClave} mide el hashCode que calcula Caffeine al buscarla, dominado por el Pageable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClaveCacheBenchmark {
+
+    private static final String EXPRESION =
+            "T(com.bugabuga.e_commerce.config.ClaveCatalogo).deTienda(#tiendaId, #pageable)";
+
+    private Expression expresion;
+    private Long tiendaId;
+    private Pageable pageable;
+
+    @Setup
+    public void setup() {
+        expresion = new SpelExpressionParser().parseExpression(EXPRESION);
+        tiendaId = 7L;
+        pageable = PageRequest.of(2, 20, Sort.by("nombre"));
+    }
+
+    @Benchmark
+    public Object spel() {
+        StandardEvaluationContext contexto = new StandardEvaluationContext();
+        contexto.setVariable("tiendaId", tiendaId);
+        contexto.setVariable("pageable", pageable);
+        return expresion.getValue(contexto);
+    }
+
+    @Benchmark
+    public ClaveCatalogo directa() {
+        return ClaveCatalogo.deTienda(tiendaId, pageable);
+    }
+
+    @Benchmark
+    public int hashClave() {
+        return ClaveCatalogo.deTienda(tiendaId, pageable).hashCode();
+    }
+}
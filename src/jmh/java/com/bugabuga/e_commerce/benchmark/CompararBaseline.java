@@ -0,0 +1,81 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara un resultado JSON de JMH con una línea base guardada y termina con código 1 si algún
+ * benchmark empeora más que el umbral. En los modos de tiempo (avgt, sample, ss) empeorar es subir;
+ * en throughput (thrpt), bajar.
+ * <p>
+ * Argumentos: {@code <baseline.json> <resultado.json> [umbral en %, 10 por defecto]}
+ */
+public final class CompararBaseline {
+
+    private CompararBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararBaseline <baseline.json> <resultado.json> [umbral %]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Resultado> baseline = leer(new File(args[0]));
+        Map<String, Resultado> actual = leer(new File(args[1]));
+
+        int regresiones = 0;
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Actual", "Cambio");
+        for (Map.Entry<String, Resultado> entrada : new TreeMap<>(actual).entrySet()) {
+            Resultado nuevo = entrada.getValue();
+            Resultado anterior = baseline.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("%-80s %14s %14.3f %9s%n", entrada.getKey(), "-", nuevo.score(), "nuevo");
+                continue;
+            }
+
+            double cambio = (nuevo.score() - anterior.score()) / anterior.score() * 100;
+            double empeora = nuevo.mayorEsMejor() ? -cambio : cambio;
+            boolean regresion = empeora > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %s %s%n", entrada.getKey(), anterior.score(),
+                    nuevo.score(), cambio, nuevo.unidad(), regresion ? "REGRESIÓN" : "");
+        }
+
+        if (regresiones > 0) {
+            System.out.printf("%d benchmark(s) empeoran más de un %.1f%% respecto a la línea base%n", regresiones, umbral);
+            System.exit(1);
+        }
+        System.out.printf("Sin regresiones por encima del %.1f%%%n", umbral);
+    }
+
+    private static Map<String, Resultado> leer(File archivo) throws IOException {
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(archivo)) {
+            StringBuilder clave = new StringBuilder(benchmark.get("benchmark").asText()
+                    .replace("com.bugabuga.e_commerce.benchmark.", ""));
+            JsonNode params = benchmark.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(param ->
+                        clave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            }
+
+            JsonNode metrica = benchmark.get("primaryMetric");
+            resultados.put(clave.toString(), new Resultado(metrica.get("score").asDouble(),
+                    metrica.get("scoreUnit").asText(), "thrpt".equals(benchmark.get("mode").asText())));
+        }
+        return resultados;
+    }
+
+    private record Resultado(double score, String unidad, boolean mayorEsMejor) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import com.bugabuga.e_commerce.model.dto.ProductoResumen;
+import com.bugabuga.e_commerce.model.entity.Carrito;
+import com.bugabuga.e_commerce.model.entity.Categoria;
+import com.bugabuga.e_commerce.model.entity.ItemCarrito;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.model.entity.Tienda;
+import com.bugabuga.e_commerce.model.entity.Usuario;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidades en memoria, sin base de datos, con tamaños parecidos a los del catálogo real
+ */
+final class DatosBenchmark {
+
+    private DatosBenchmark() {
+    }
+
+    static Producto producto(long id) {
+        Tienda tienda = new Tienda();
+        tienda.setId(id % 10 + 1);
+        tienda.setNombre("Tienda " + tienda.getId());
+
+        Categoria categoria = new Categoria();
+        categoria.setId(id % 5 + 1);
+        categoria.setNombre("Categoría " + categoria.getId());
+
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setNombre("Producto " + id);
+        producto.setDescripcion("Descripción del producto " + id + " con algo de texto para acercarse al tamaño habitual");
+        producto.setPrecio(new BigDecimal("19.99").add(BigDecimal.valueOf(id % 100)));
+        producto.setStock((int) (id % 50));
+        producto.setImagenUrl("https://cdn.example.com/productos/" + id + ".jpg");
+        producto.setTienda(tienda);
+        producto.setCategoria(categoria);
+        producto.setSumaCalificaciones(id % 5 * 10 + 35);
+        producto.setCantidadCalificaciones(10);
+        return producto;
+    }
+
+    static List<Producto> productos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (long id = 1; id <= cantidad; id++) {
+            productos.add(producto(id));
+        }
+        return productos;
+    }
+
+    static ProductoResumen resumen(long id) {
+        Producto producto = producto(id);
+        return new ProductoResumen(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), producto.getStock(), producto.getImagenUrl(),
+                producto.getTienda().getId(), producto.getTienda().getNombre(),
+                producto.getCategoria().getId(), producto.getCategoria().getNombre(),
+                producto.getSumaCalificaciones(), producto.getCantidadCalificaciones());
+    }
+
+    static Carrito carrito(int items) {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+
+        Carrito carrito = new Carrito();
+        carrito.setId(1L);
+        carrito.setUsuario(usuario);
+        for (long id = 1; id <= items; id++) {
+            ItemCarrito item = new ItemCarrito();
+            item.setId(id);
+            item.setCarrito(carrito);
+            item.setProducto(producto(id));
+            item.setCantidad((int) (id % 3 + 1));
+            carrito.getItems().add(item);
+        }
+        carrito.calcularTotal();
+        return carrito;
+    }
+}
@@ -0,0 +1,85 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import com.bugabuga.e_commerce.security.JwtProperties;
+import com.bugabuga.e_commerce.security.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de validar el JWT en JwtAuthenticationFilter.
+ * {@code porPeticionAnterior} reproduce el camino previo: clave y parser construidos en cada
+ * llamada y tres parseos con verificación HMAC (extractUsername + validateToken).
+ * {@code porPeticion} es el camino actual: un único parseo con clave y parser reutilizados.
+ * {@code generar} es el coste de emitir el token en el login, con id y roles como claims.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenUtilBenchmark {
+
+    private JwtProperties jwtProperties;
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setSecretKey("claveSecretaSuperSeguraQueDeberiaSerMasLargaEnProduccion123456789");
+        jwtProperties.setExpirationMs(TimeUnit.HOURS.toMillis(1));
+
+        jwtTokenUtil = new JwtTokenUtil(jwtProperties);
+        userDetails = new User("cliente@example.com", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENTE")));
+        token = jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generar() {
+        return jwtTokenUtil.generateToken(userDetails, 42L);
+    }
+
+    @Benchmark
+    public boolean porPeticion() {
+        Claims claims = jwtTokenUtil.validarToken(token);
+        return jwtTokenUtil.validateToken(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean porPeticionAnterior() {
+        String username = claimsAnterior(token).getSubject();
+        boolean mismoUsuario = claimsAnterior(token).getSubject().equals(userDetails.getUsername());
+        boolean expirado = claimsAnterior(token).getExpiration().before(new Date());
+        return username != null && mismoUsuario && !expirado;
+    }
+
+    // Implementación previa de JwtTokenUtil.extractAllClaims
+    private Claims claimsAnterior(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(jwtProperties.getSecretKey().getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
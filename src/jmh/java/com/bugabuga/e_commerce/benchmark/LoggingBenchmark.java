@@ -0,0 +1,143 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.bugabuga.e_commerce.config.AsyncLogAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste en el hilo de la petición de registrar un evento INFO con el requestId en el MDC.
+ * {@code sincrono} reproduce la configuración anterior de producción: RollingFileAppender con
+ * encoder de patrón escribiendo en el propio hilo. {@code asincrono} es la actual: AsyncLogAppender
+ * que solo encola delante de un archivo JSON (ECS). {@code ninguno} es la línea base con el logger
+ * desactivado: el coste del log es la diferencia con ella.
+ * <p>
+ * Entre evento y evento se simula el trabajo de la petición ({@code trabajo}, en unidades de
+ * {@link Blackhole#consumeCPU}) para que el consumidor de la cola asíncrona dé abasto, como en producción.
+ * Sin esa pausa la cola se llena enseguida y se mediría el descarte, no el encolado; por eso una ejecución
+ * en la que la cola descarte algún evento falla en lugar de dar un resultado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggingBenchmark {
+
+    private static final String FILE_LOG_PATTERN =
+            "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%t] %-40.40logger{39} : %X{requestId:-} %m%n%ex";
+
+    @Param({"ninguno", "sincrono", "asincrono"})
+    public String modo;
+
+    @Param({"2000"})
+    public long trabajo;
+
+    private LoggerContext contexto;
+    private Logger logger;
+    private Path directorio;
+    private long descartadosAlInicio;
+
+    @Setup
+    public void setup() throws IOException {
+        directorio = Files.createTempDirectory("logging-benchmark");
+        contexto = new LoggerContext();
+        // StructuredLogEncoder toma el Environment de Spring del contexto de Logback
+        contexto.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        logger = contexto.getLogger("com.bugabuga.e_commerce.benchmark");
+        logger.setAdditive(false);
+        if ("ninguno".equals(modo)) {
+            logger.setLevel(Level.OFF);
+        } else {
+            logger.setLevel(Level.INFO);
+            logger.addAppender("sincrono".equals(modo)
+                    ? archivo("app.log", encoderPatron())
+                    : asincrono(archivo("app.log.json", encoderJson())));
+        }
+
+        // El benchmark corre en este mismo hilo (Scope.Thread), como el MDC de RequestIdFilter
+        contexto.getMDCAdapter().put("requestId", "4f3c2a1b9e8d7c6b5a4f3e2d1c0b9a88");
+        descartadosAlInicio = AsyncLogAppender.getDescartados();
+    }
+
+    @Benchmark
+    public void registrarEvento() {
+        Blackhole.consumeCPU(trabajo);
+        logger.info("Pedido {} creado para el usuario {} con {} items", 1234L, 56L, 3);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        long descartados = AsyncLogAppender.getDescartados() - descartadosAlInicio;
+        contexto.stop();
+        try (var archivos = Files.walk(directorio)) {
+            archivos.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+        if (descartados > 0) {
+            throw new IllegalStateException("La cola descartó " + descartados
+                    + " eventos: el resultado mide el descarte; aumente el parámetro trabajo");
+        }
+    }
+
+    private Appender<ILoggingEvent> archivo(String nombre, Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(contexto);
+        appender.setFile(directorio.resolve(nombre).toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private Appender<ILoggingEvent> asincrono(Appender<ILoggingEvent> destino) {
+        AsyncLogAppender appender = new AsyncLogAppender();
+        appender.setContext(contexto);
+        appender.setQueueSize(8192);
+        appender.addAppender(destino);
+        appender.start();
+        return appender;
+    }
+
+    private Encoder<ILoggingEvent> encoderPatron() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(contexto);
+        encoder.setPattern(FILE_LOG_PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> encoderJson() {
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(contexto);
+        encoder.setFormat("ecs");
+        encoder.start();
+        return encoder;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bugabuga.e_commerce.benchmark;
+
+import com.bugabuga.e_commerce.model.dto.ProductoDTO;
+import com.bugabuga.e_commerce.model.dto.ProductoResumen;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.service.MappingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo de productos a ProductoDTO: desde la entidad, desde la proyección ProductoResumen
+ * y una página completa con mapToProductoDTOList
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingServiceBenchmark {
+
+    @Param({"10", "100"})
+    public int tamanoPagina;
+
+    private MappingService mappingService;
+    private Producto producto;
+    private ProductoResumen resumen;
+    private List<Producto> pagina;
+
+    @Setup
+    public void setup() {
+        mappingService = new MappingService();
+        producto = DatosBenchmark.producto(42);
+        resumen = DatosBenchmark.resumen(42);
+        pagina = DatosBenchmark.productos(tamanoPagina);
+    }
+
+    @Benchmark
+    public ProductoDTO desdeEntidad() {
+        return mappingService.mapToProductoDTO(producto);
+    }
+
+    @Benchmark
+    public ProductoDTO desdeResumen() {
+        return mappingService.mapToProductoDTO(resumen);
+    }
+
+    @Benchmark
+    public List<ProductoDTO> pagina() {
+        return mappingService.mapToProductoDTOList(pagina);
+    }
+}
@@ -0,0 +1,79 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Cliente HTTP compartido por todas las peticiones de la prueba.
+ * Las respuestas se leen como texto y sólo se parsean cuando la preparación necesita datos de ellas.
+ */
+public class ClienteCarga {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String url;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ClienteCarga(String url) {
+        this.url = url;
+        // HTTP/1.1 explícito: sobre http:// el cliente intentaría un upgrade a h2c en cada conexión nueva
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public HttpRequest get(String ruta, String token) {
+        return peticion(ruta, token).GET().build();
+    }
+
+    public HttpRequest post(String ruta, String token, Object cuerpo) {
+        if (cuerpo == null) {
+            return peticion(ruta, token).POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return peticion(ruta, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(cuerpo)))
+                .build();
+    }
+
+    public HttpResponse<String> enviar(HttpRequest peticion) throws IOException, InterruptedException {
+        return httpClient.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    public JsonNode leer(HttpResponse<String> respuesta) throws IOException {
+        return objectMapper.readTree(respuesta.body());
+    }
+
+    public static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    private HttpRequest.Builder peticion(String ruta, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + ruta)).timeout(TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private String json(Object cuerpo) {
+        try {
+            return objectMapper.writeValueAsString(cuerpo);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo serializar el cuerpo de la petición", e);
+        }
+    }
+}
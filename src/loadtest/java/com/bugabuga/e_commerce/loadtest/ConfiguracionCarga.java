@@ -0,0 +1,70 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades del sistema {@code loadtest.*}.
+ * Las duraciones admiten el formato corto de las propiedades de Spring ({@code 90s}, {@code 2m}).
+ */
+public record ConfiguracionCarga(
+        String url,
+        int tasa,
+        Duration duracion,
+        Duration calentamiento,
+        int usuarios,
+        int productos,
+        int pedidosPorUsuario,
+        int maxEnVuelo,
+        Map<Operacion, Integer> pesos,
+        Map<Operacion, Slo> slos,
+        String jdbcUrl,
+        String jdbcUsuario,
+        String jdbcPassword,
+        String informe) {
+
+    /**
+     * Umbrales de latencia (ms) y porcentaje de errores que debe cumplir una operación.
+     */
+    public record Slo(long p95Ms, long p99Ms, double erroresPct) {
+    }
+
+    public static ConfiguracionCarga desdePropiedades() {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        Map<Operacion, Slo> slos = new EnumMap<>(Operacion.class);
+        long p95 = Long.getLong("loadtest.slo.p95", 200);
+        long p99 = Long.getLong("loadtest.slo.p99", 500);
+        double errores = Double.parseDouble(System.getProperty("loadtest.slo.errores", "1"));
+
+        for (Operacion operacion : Operacion.values()) {
+            String prefijo = "loadtest." + operacion.clave();
+            pesos.put(operacion, Integer.getInteger(prefijo + ".peso", operacion.getPesoPorDefecto()));
+            slos.put(operacion, new Slo(
+                    Long.getLong("loadtest.slo." + operacion.clave() + ".p95", p95),
+                    Long.getLong("loadtest.slo." + operacion.clave() + ".p99", p99),
+                    Double.parseDouble(System.getProperty("loadtest.slo." + operacion.clave() + ".errores", String.valueOf(errores)))));
+        }
+
+        return new ConfiguracionCarga(
+                System.getProperty("loadtest.url", "http://localhost:8080"),
+                Integer.getInteger("loadtest.tasa", 100),
+                duracion("loadtest.duracion", "60s"),
+                duracion("loadtest.calentamiento", "15s"),
+                Integer.getInteger("loadtest.usuarios", 200),
+                Integer.getInteger("loadtest.productos", 500),
+                Integer.getInteger("loadtest.pedidos-por-usuario", 50),
+                Integer.getInteger("loadtest.max-en-vuelo", 2000),
+                pesos,
+                slos,
+                System.getProperty("loadtest.jdbc.url", "jdbc:postgresql://localhost:5432/ecommerce_db"),
+                System.getProperty("loadtest.jdbc.usuario", "postgres"),
+                System.getProperty("loadtest.jdbc.password", "123456"),
+                System.getProperty("loadtest.informe", "target/loadtest"));
+    }
+
+    private static Duration duracion(String propiedad, String porDefecto) {
+        return Duration.parse("PT" + System.getProperty(propiedad, porDefecto).toUpperCase(Locale.ROOT));
+    }
+}
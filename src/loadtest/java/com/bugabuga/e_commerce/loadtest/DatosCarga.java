@@ -0,0 +1,19 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Datos preparados antes de medir: usuarios con sesión iniciada, productos del catálogo
+ * y palabras para las búsquedas.
+ */
+public record DatosCarga(List<Sesion> sesiones, List<Long> productos, List<String> palabras) {
+
+    /**
+     * Usuario de la prueba. Varias peticiones concurrentes pueden usar la misma sesión, por eso
+     * los pedidos pendientes y los productos ya reseñados son colecciones concurrentes.
+     */
+    public record Sesion(long usuarioId, String token, Queue<Long> pedidosPendientes, Set<Long> reseñados) {
+    }
+}
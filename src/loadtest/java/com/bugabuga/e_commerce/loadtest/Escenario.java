@@ -0,0 +1,103 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import com.bugabuga.e_commerce.loadtest.DatosCarga.Sesion;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Elige la siguiente operación según los pesos configurados y construye su petición
+ * para un usuario al azar de la prueba.
+ */
+public class Escenario {
+
+    private static final String RUTA_RESENAS = "/api/rese%C3%B1as";
+    private static final int PAGINAS_CATALOGO = 20;
+
+    private final ClienteCarga cliente;
+    private final DatosCarga datos;
+    private final Operacion[] operaciones = Operacion.values();
+    // Peso acumulado por operación, en el mismo orden que operaciones
+    private final int[] acumulados = new int[operaciones.length];
+
+    public Escenario(ConfiguracionCarga configuracion, ClienteCarga cliente, DatosCarga datos) {
+        this.cliente = cliente;
+        this.datos = datos;
+
+        int total = 0;
+        for (int i = 0; i < operaciones.length; i++) {
+            total += configuracion.pesos().get(operaciones[i]);
+            acumulados[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("La suma de los pesos de las operaciones debe ser positiva");
+        }
+    }
+
+    public record Peticion(Operacion operacion, HttpRequest request) {
+    }
+
+    public Peticion siguiente() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Sesion sesion = elegir(datos.sesiones(), random);
+        Operacion operacion = elegirOperacion(random);
+
+        HttpRequest request = switch (operacion) {
+            case CATALOGO -> cliente.get("/api/catalogo/productos?size=10&page=" + random.nextInt(PAGINAS_CATALOGO), sesion.token());
+            case BUSQUEDA -> cliente.get("/api/catalogo/productos/buscar?keyword="
+                    + ClienteCarga.codificar(elegir(datos.palabras(), random)), sesion.token());
+            case PRODUCTO -> verProducto(sesion, random);
+            case CARRITO -> cliente.post("/api/carrito/agregar?usuarioId=" + sesion.usuarioId()
+                    + "&productoId=" + elegir(datos.productos(), random) + "&cantidad=1", sesion.token(), null);
+            case PAGO -> pagar(sesion);
+            case RESENA -> reseñar(sesion, random);
+        };
+
+        // Sin pedidos pendientes o sin productos por reseñar la sesión navega en su lugar
+        return request != null ? new Peticion(operacion, request) : new Peticion(Operacion.PRODUCTO, verProducto(sesion, random));
+    }
+
+    private Operacion elegirOperacion(ThreadLocalRandom random) {
+        int valor = random.nextInt(acumulados[acumulados.length - 1]);
+        for (int i = 0; i < acumulados.length; i++) {
+            if (valor < acumulados[i]) {
+                return operaciones[i];
+            }
+        }
+        throw new IllegalStateException("Peso fuera de rango: " + valor);
+    }
+
+    private HttpRequest verProducto(Sesion sesion, ThreadLocalRandom random) {
+        return cliente.get("/api/catalogo/productos/" + elegir(datos.productos(), random), sesion.token());
+    }
+
+    private HttpRequest pagar(Sesion sesion) {
+        Long pedidoId = sesion.pedidosPendientes().poll();
+        if (pedidoId == null) {
+            return null;
+        }
+        return cliente.post("/api/pagos/procesar?usuarioId=" + sesion.usuarioId() + "&pedidoId=" + pedidoId
+                + "&metodoPago=TARJETA_CREDITO", sesion.token(), Map.of("numeroTarjeta", "4111111111111111", "cvv", "123"));
+    }
+
+    private HttpRequest reseñar(Sesion sesion, ThreadLocalRandom random) {
+        // Una reseña por usuario y producto: se busca un producto que la sesión aún no haya reseñado
+        for (int intento = 0; intento < 5; intento++) {
+            Long productoId = elegir(datos.productos(), random);
+            if (sesion.reseñados().add(productoId)) {
+                return cliente.post(RUTA_RESENAS, sesion.token(), Map.of(
+                        "calificacion", 1 + random.nextInt(5),
+                        "comentario", "Reseña de la prueba de carga",
+                        "usuario", Map.of("id", sesion.usuarioId()),
+                        "producto", Map.of("id", productoId)));
+            }
+        }
+        return null;
+    }
+
+    private static <T> T elegir(List<T> valores, ThreadLocalRandom random) {
+        return valores.get(random.nextInt(valores.size()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y errores por operación durante la fase medida.
+ * La latencia se registra en microsegundos desde el instante en que la petición estaba programada,
+ * no desde que se envió: si el servidor se atasca, la espera acumulada cuenta (sin omisión coordinada).
+ */
+public class Estadisticas {
+
+    /** Código de estado usado para fallos de red y timeouts, que no tienen respuesta HTTP. */
+    public static final int SIN_RESPUESTA = 0;
+
+    private static final long MAXIMO_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<Operacion, Registro> registros = new EnumMap<>(Operacion.class);
+    private final LongAdder descartadas = new LongAdder();
+
+    public Estadisticas() {
+        for (Operacion operacion : Operacion.values()) {
+            registros.put(operacion, new Registro());
+        }
+    }
+
+    public void registrar(Operacion operacion, long latenciaNanos, int estado) {
+        Registro registro = registros.get(operacion);
+        registro.latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latenciaNanos), MAXIMO_MICROS));
+        if (estado == SIN_RESPUESTA || estado >= 400) {
+            registro.errores.computeIfAbsent(estado, e -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Petición que no llegó a enviarse porque ya había {@code loadtest.max-en-vuelo} sin responder.
+     */
+    public void descartar() {
+        descartadas.increment();
+    }
+
+    public Histogram latencias(Operacion operacion) {
+        return registros.get(operacion).latencias;
+    }
+
+    public long errores(Operacion operacion) {
+        return registros.get(operacion).errores.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public Map<Integer, LongAdder> erroresPorEstado(Operacion operacion) {
+        return registros.get(operacion).errores;
+    }
+
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    private static final class Registro {
+        private final Histogram latencias = new ConcurrentHistogram(MAXIMO_MICROS, 3);
+        private final Map<Integer, LongAdder> errores = new ConcurrentHashMap<>();
+    }
+}
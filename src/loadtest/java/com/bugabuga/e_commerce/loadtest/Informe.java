@@ -0,0 +1,107 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import com.bugabuga.e_commerce.loadtest.ConfiguracionCarga.Slo;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Resumen por operación (percentiles, rendimiento y errores) y comprobación de los SLO.
+ * Además escribe la distribución completa de cada operación en {@code <informe>/<operacion>.hgrm},
+ * el formato que leen las herramientas de HdrHistogram para dibujar percentiles.
+ */
+public class Informe {
+
+    private static final String FORMATO = "%-10s %10s %9s %8s %9s %9s %9s %9s %9s  %s%n";
+
+    private final ConfiguracionCarga configuracion;
+
+    public Informe(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    /**
+     * @return {@code true} si todas las operaciones cumplen su SLO
+     */
+    public boolean imprimir(Estadisticas estadisticas, double segundos, PrintStream salida) throws Exception {
+        List<String> incumplidos = new ArrayList<>();
+        Path directorio = Files.createDirectories(Path.of(configuracion.informe()));
+
+        salida.printf(Locale.ROOT, "%nFase medida: %.1f s a %d req/s programadas%n%n", segundos, configuracion.tasa());
+        salida.printf(Locale.ROOT, FORMATO, "Operación", "Peticiones", "req/s", "Errores",
+                "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "SLO");
+
+        for (Operacion operacion : Operacion.values()) {
+            Histogram latencias = estadisticas.latencias(operacion);
+            long total = latencias.getTotalCount();
+            if (total == 0) {
+                continue;
+            }
+
+            long errores = estadisticas.errores(operacion);
+            double erroresPct = 100.0 * errores / total;
+            long p95 = latencias.getValueAtPercentile(95);
+            long p99 = latencias.getValueAtPercentile(99);
+
+            Slo slo = configuracion.slos().get(operacion);
+            List<String> fallos = new ArrayList<>();
+            if (p95 > TimeUnit.MILLISECONDS.toMicros(slo.p95Ms())) {
+                fallos.add("p95 " + milisDecimal(p95) + " > " + slo.p95Ms() + " ms");
+            }
+            if (p99 > TimeUnit.MILLISECONDS.toMicros(slo.p99Ms())) {
+                fallos.add("p99 " + milisDecimal(p99) + " > " + slo.p99Ms() + " ms");
+            }
+            if (erroresPct > slo.erroresPct()) {
+                fallos.add(String.format(Locale.ROOT, "errores %.2f %% > %.2f %%", erroresPct, slo.erroresPct()));
+            }
+            fallos.forEach(fallo -> incumplidos.add(operacion.clave() + ": " + fallo));
+
+            salida.printf(Locale.ROOT, FORMATO, operacion.clave(), total,
+                    String.format(Locale.ROOT, "%.1f", total / segundos), errores,
+                    milisDecimal(latencias.getValueAtPercentile(50)), milisDecimal(p95),
+                    milisDecimal(p99), milisDecimal(latencias.getValueAtPercentile(99.9)),
+                    milisDecimal(latencias.getMaxValue()), fallos.isEmpty() ? "OK" : "FALLA");
+
+            if (errores > 0) {
+                salida.println("           estados: " + estadisticas.erroresPorEstado(operacion).entrySet().stream()
+                        .map(e -> (e.getKey() == Estadisticas.SIN_RESPUESTA ? "sin respuesta" : e.getKey()) + "×" + e.getValue().sum())
+                        .collect(Collectors.joining(", ")));
+            }
+            escribirDistribucion(directorio.resolve(operacion.clave() + ".hgrm"), latencias);
+        }
+
+        if (estadisticas.getDescartadas() > 0) {
+            incumplidos.add(estadisticas.getDescartadas() + " peticiones descartadas por superar loadtest.max-en-vuelo: " +
+                    "el generador no sostuvo la tasa y las latencias no son fiables");
+        }
+
+        salida.println();
+        if (incumplidos.isEmpty()) {
+            salida.println("SLO: OK");
+        } else {
+            salida.println("SLO: FALLA");
+            incumplidos.forEach(incumplido -> salida.println("  - " + incumplido));
+        }
+        salida.println("Distribuciones en " + directorio.toAbsolutePath());
+        return incumplidos.isEmpty();
+    }
+
+    private static void escribirDistribucion(Path fichero, Histogram latencias) throws FileNotFoundException {
+        try (PrintStream salida = new PrintStream(fichero.toFile())) {
+            // Valores en microsegundos; el factor 1000 deja la distribución en milisegundos
+            latencias.outputPercentileDistribution(salida, 1000.0);
+        }
+    }
+
+    private static String milisDecimal(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+}
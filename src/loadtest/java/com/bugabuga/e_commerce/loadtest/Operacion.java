@@ -0,0 +1,34 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Operaciones de la mezcla de carga. El peso por defecto aproxima una sesión de compra:
+ * mucha navegación y búsqueda, menos carrito y una fracción pequeña de pagos y reseñas.
+ */
+@Getter
+public enum Operacion {
+    CATALOGO("GET /api/catalogo/productos", 30),
+    BUSQUEDA("GET /api/catalogo/productos/buscar", 20),
+    PRODUCTO("GET /api/catalogo/productos/{id}", 25),
+    CARRITO("POST /api/carrito/agregar", 13),
+    PAGO("POST /api/pagos/procesar", 7),
+    RESENA("POST /api/reseñas", 5);
+
+    private final String endpoint;
+    private final int pesoPorDefecto;
+
+    Operacion(String endpoint, int pesoPorDefecto) {
+        this.endpoint = endpoint;
+        this.pesoPorDefecto = pesoPorDefecto;
+    }
+
+    /**
+     * Nombre usado en las propiedades ({@code loadtest.<clave>.peso}, {@code loadtest.slo.<clave>.p99}).
+     */
+    public String clave() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,219 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import com.bugabuga.e_commerce.loadtest.DatosCarga.Sesion;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Deja la aplicación lista para la prueba: usuarios registrados, un catálogo con al menos
+ * {@code loadtest.productos} productos y pedidos pendientes para que los pagos tengan qué pagar.
+ * Usuarios, tienda y productos se crean por la API; las categorías, que no tienen endpoint de alta,
+ * y los pedidos se insertan por JDBC en la misma base de datos que usa la aplicación.
+ * Sus ids salen de las secuencias de Hibernate: cada nextval reserva un bloque propio, así que no
+ * chocan con los ids que la aplicación tiene reservados en memoria.
+ */
+public class Preparacion {
+
+    static final List<String> PALABRAS = List.of(
+            "camiseta", "zapatillas", "mochila", "reloj", "auriculares",
+            "lampara", "taza", "libro", "bicicleta", "teclado");
+
+    private static final List<String> ADJETIVOS = List.of("azul", "clasico", "deportivo", "compacto", "premium");
+    private static final String PASSWORD = "carga123";
+    // El registro cifra con BCrypt en un pool pequeño; más concurrencia sólo llena su cola
+    private static final int REGISTROS_CONCURRENTES = 8;
+
+    private final ConfiguracionCarga configuracion;
+    private final ClienteCarga cliente;
+    // Sufijo de la ejecución para que emails y nombre de tienda no choquen con ejecuciones anteriores
+    private final String ejecucion = Long.toString(System.currentTimeMillis(), 36);
+
+    public Preparacion(ConfiguracionCarga configuracion, ClienteCarga cliente) {
+        this.configuracion = configuracion;
+        this.cliente = cliente;
+    }
+
+    public DatosCarga preparar() throws Exception {
+        Sesion admin = registrar("admin", Set.of("ADMIN"));
+        completarCatalogo(admin);
+        List<Long> productos = productosDelCatalogo();
+        if (productos.isEmpty()) {
+            throw new IllegalStateException("El catálogo está vacío");
+        }
+
+        List<Sesion> sesiones = registrarUsuarios();
+        crearPedidosPendientes(sesiones);
+        return new DatosCarga(sesiones, productos, PALABRAS);
+    }
+
+    private List<Sesion> registrarUsuarios() throws Exception {
+        try (ExecutorService hilos = Executors.newFixedThreadPool(REGISTROS_CONCURRENTES, Thread.ofVirtual().factory())) {
+            List<Future<Sesion>> registros = new ArrayList<>();
+            for (int i = 0; i < configuracion.usuarios(); i++) {
+                String alias = "cliente" + i;
+                registros.add(hilos.submit(() -> registrar(alias, Set.of())));
+            }
+
+            List<Sesion> sesiones = new ArrayList<>(registros.size());
+            for (Future<Sesion> registro : registros) {
+                sesiones.add(registro.get());
+            }
+            return sesiones;
+        }
+    }
+
+    private Sesion registrar(String alias, Set<String> roles) throws Exception {
+        Map<String, Object> usuario = new HashMap<>();
+        usuario.put("email", "carga-" + ejecucion + "-" + alias + "@loadtest.local");
+        usuario.put("nombre", "Carga");
+        usuario.put("apellido", "Usuario");
+        usuario.put("password", PASSWORD);
+        usuario.put("roles", roles);
+
+        while (true) {
+            HttpResponse<String> respuesta = cliente.enviar(cliente.post("/api/auth/registro", null, usuario));
+            if (respuesta.statusCode() == 503) {
+                // Pool de hashing saturado: reintentar en lugar de abortar la preparación
+                Thread.sleep(200);
+                continue;
+            }
+            comprobar(respuesta, 201, "registrar " + alias);
+
+            JsonNode data = cliente.leer(respuesta).path("data");
+            return new Sesion(data.path("usuario").path("id").asLong(), data.path("token").asText(),
+                    new ConcurrentLinkedQueue<>(), ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    private void completarCatalogo(Sesion admin) throws Exception {
+        HttpResponse<String> respuesta = cliente.enviar(cliente.get("/api/catalogo/productos?size=1", null));
+        comprobar(respuesta, 200, "consultar el catálogo");
+        long faltan = configuracion.productos() - cliente.leer(respuesta).path("data").path("totalItems").asLong();
+        if (faltan <= 0) {
+            return;
+        }
+
+        Map<String, Long> categorias = crearCategorias();
+        long tiendaId = crearTienda(admin);
+        System.out.printf("Creando %d productos en la tienda %d%n", faltan, tiendaId);
+
+        try (ExecutorService hilos = Executors.newFixedThreadPool(16, Thread.ofVirtual().factory())) {
+            List<Future<?>> altas = new ArrayList<>();
+            for (int i = 0; i < faltan; i++) {
+                String palabra = PALABRAS.get(i % PALABRAS.size());
+                Map<String, Object> producto = new HashMap<>();
+                producto.put("nombre", palabra + " " + ADJETIVOS.get(i / PALABRAS.size() % ADJETIVOS.size()) + " " + i);
+                producto.put("descripcion", "Producto generado para la prueba de carga");
+                producto.put("precio", BigDecimal.valueOf(5 + i % 200, 0));
+                // Stock holgado: los carritos de la prueba no deben agotarlo
+                producto.put("stock", 1_000_000);
+                producto.put("tiendaId", tiendaId);
+                producto.put("categoriaId", categorias.get(palabra));
+
+                altas.add(hilos.submit(() -> {
+                    comprobar(cliente.enviar(cliente.post("/api/productos", admin.token(), producto)), 201, "crear producto");
+                    return null;
+                }));
+            }
+            for (Future<?> alta : altas) {
+                alta.get();
+            }
+        }
+    }
+
+    private long crearTienda(Sesion admin) throws Exception {
+        Map<String, Object> tienda = new HashMap<>();
+        tienda.put("nombre", "Tienda carga " + ejecucion);
+        tienda.put("descripcion", "Tienda generada para la prueba de carga");
+        tienda.put("propietario", Map.of("id", admin.usuarioId()));
+
+        HttpResponse<String> respuesta = cliente.enviar(cliente.post("/api/admin/tiendas", admin.token(), tienda));
+        comprobar(respuesta, 201, "crear la tienda");
+        return cliente.leer(respuesta).path("id").asLong();
+    }
+
+    private List<Long> productosDelCatalogo() throws Exception {
+        List<Long> productos = new ArrayList<>();
+        for (int pagina = 0; productos.size() < configuracion.productos(); pagina++) {
+            HttpResponse<String> respuesta = cliente.enviar(cliente.get("/api/catalogo/productos?size=100&page=" + pagina, null));
+            comprobar(respuesta, 200, "listar el catálogo");
+
+            JsonNode data = cliente.leer(respuesta).path("data");
+            data.path("productos").forEach(producto -> productos.add(producto.path("id").asLong()));
+            if (pagina + 1 >= data.path("totalPages").asInt()) {
+                break;
+            }
+        }
+        return productos;
+    }
+
+    private Map<String, Long> crearCategorias() throws SQLException {
+        Map<String, Long> categorias = new HashMap<>();
+        try (Connection conexion = conectar();
+             PreparedStatement insercion = conexion.prepareStatement(
+                     "INSERT INTO categorias (id, nombre, descripcion) VALUES (nextval('categorias_seq'), ?, ?) " +
+                     "ON CONFLICT (nombre) DO UPDATE SET nombre = EXCLUDED.nombre RETURNING id")) {
+            for (String palabra : PALABRAS) {
+                insercion.setString(1, "Carga " + palabra);
+                insercion.setString(2, "Categoría de la prueba de carga");
+                try (ResultSet rs = insercion.executeQuery()) {
+                    rs.next();
+                    categorias.put(palabra, rs.getLong(1));
+                }
+            }
+        }
+        return categorias;
+    }
+
+    /**
+     * El pago necesita pedidos PENDIENTE del propio usuario. Se insertan por JDBC y no con
+     * {@code POST /api/pedidos/checkout} porque cada uno costaría dos peticiones (carrito y checkout).
+     */
+    private void crearPedidosPendientes(List<Sesion> sesiones) throws SQLException {
+        if (configuracion.pedidosPorUsuario() <= 0) {
+            return;
+        }
+        try (Connection conexion = conectar();
+             PreparedStatement insercion = conexion.prepareStatement(
+                     "INSERT INTO pedidos (id, usuario_id, total, fecha_creacion, estado) " +
+                     "SELECT nextval('pedidos_seq'), ?, ?, now(), 'PENDIENTE' FROM generate_series(1, ?) RETURNING id")) {
+            for (Sesion sesion : sesiones) {
+                insercion.setLong(1, sesion.usuarioId());
+                insercion.setBigDecimal(2, BigDecimal.valueOf(4999, 2));
+                insercion.setInt(3, configuracion.pedidosPorUsuario());
+                try (ResultSet rs = insercion.executeQuery()) {
+                    while (rs.next()) {
+                        sesion.pedidosPendientes().add(rs.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private Connection conectar() throws SQLException {
+        return DriverManager.getConnection(configuracion.jdbcUrl(), configuracion.jdbcUsuario(), configuracion.jdbcPassword());
+    }
+
+    private static void comprobar(HttpResponse<String> respuesta, int esperado, String accion) {
+        if (respuesta.statusCode() != esperado) {
+            throw new IllegalStateException("No se pudo " + accion + ": HTTP " + respuesta.statusCode() + " " + respuesta.body());
+        }
+    }
+}
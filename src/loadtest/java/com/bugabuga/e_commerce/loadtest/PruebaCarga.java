@@ -0,0 +1,118 @@
+package com.bugabuga.e_commerce.loadtest;
+
+import com.bugabuga.e_commerce.loadtest.Escenario.Peticion;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga HTTP contra una instancia ya arrancada (por ejemplo con el perfil {@code loadtest}).
+ * <p>
+ * Modelo abierto: las peticiones se programan a {@code loadtest.tasa} por segundo con independencia de
+ * lo que tarde el servidor, y cada una se ejecuta en su propio hilo virtual. Primero se ejecuta un
+ * calentamiento sin medir y después la fase medida.
+ * <p>
+ * Termina con código 0 si se cumplen los SLO, 1 si alguno falla y 2 si la preparación no fue posible.
+ */
+public class PruebaCarga {
+
+    private final ConfiguracionCarga configuracion;
+    private final ClienteCarga cliente;
+    private final Escenario escenario;
+    private final Estadisticas estadisticas;
+
+    public PruebaCarga(ConfiguracionCarga configuracion, ClienteCarga cliente, Escenario escenario, Estadisticas estadisticas) {
+        this.configuracion = configuracion;
+        this.cliente = cliente;
+        this.escenario = escenario;
+        this.estadisticas = estadisticas;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdePropiedades();
+        ClienteCarga cliente = new ClienteCarga(configuracion.url());
+
+        System.out.printf("Preparando %s: %d usuarios, %d productos%n",
+                configuracion.url(), configuracion.usuarios(), configuracion.productos());
+        DatosCarga datos;
+        try {
+            datos = new Preparacion(configuracion, cliente).preparar();
+        } catch (Exception e) {
+            System.err.println("Preparación fallida: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Estadisticas estadisticas = new Estadisticas();
+        new PruebaCarga(configuracion, cliente, new Escenario(configuracion, cliente, datos), estadisticas).ejecutar();
+
+        double segundos = configuracion.duracion().toNanos() / 1e9;
+        boolean cumple = new Informe(configuracion).imprimir(estadisticas, segundos, System.out);
+        System.exit(cumple ? 0 : 1);
+    }
+
+    public void ejecutar() {
+        long segundo = TimeUnit.SECONDS.toNanos(1);
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        Semaphore enVuelo = new Semaphore(configuracion.maxEnVuelo());
+
+        System.out.printf("Calentamiento %s y medición %s a %d req/s%n",
+                configuracion.calentamiento(), configuracion.duracion(), configuracion.tasa());
+
+        // close() espera a las peticiones que sigan en vuelo al terminar la programación
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long programada = inicio + i * segundo / configuracion.tasa();
+                if (programada - fin >= 0) {
+                    break;
+                }
+                esperarHasta(programada);
+
+                boolean medir = programada - inicioMedicion >= 0;
+                if (!enVuelo.tryAcquire()) {
+                    if (medir) {
+                        estadisticas.descartar();
+                    }
+                    continue;
+                }
+                hilos.execute(() -> {
+                    try {
+                        enviar(programada, medir);
+                    } finally {
+                        enVuelo.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void enviar(long programada, boolean medir) {
+        Peticion peticion = escenario.siguiente();
+        int estado;
+        try {
+            estado = cliente.enviar(peticion.request()).statusCode();
+        } catch (IOException e) {
+            estado = Estadisticas.SIN_RESPUESTA;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (medir) {
+            estadisticas.registrar(peticion.operacion(), System.nanoTime() - programada, estado);
+        }
+    }
+
+    private static void esperarHasta(long instante) {
+        long espera;
+        while ((espera = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(espera);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bugabuga.e_commerce.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coloca cada secuencia de ids por encima del mayor id de su tabla antes de que la aplicación inserte nada.
+ * Es el mismo setval que hace V5, pero aplicado por la aplicación: con {@code ddl-auto=update} (dev, loadtest)
+ * Hibernate crea las secuencias que faltan empezando en 1 si se arranca sin haber aplicado V5, y con
+ * allocationSize 50 los primeros INSERT chocarían con las filas existentes. Si la secuencia ya está por
+ * encima no se toca, así que en una base de datos migrada solo cuesta dos consultas por entidad.
+ */
+@Component
+public class AlineadorSecuencias {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlineadorSecuencias.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Secuencia(String nombre, int incremento, String tabla, String columnaId) {
+    }
+
+    public AlineadorSecuencias(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alinear() {
+        for (Secuencia secuencia : secuencias()) {
+            long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + secuencia.columnaId() + "), 0) FROM " + secuencia.tabla(), Long.class);
+            // Valor que devolverá el próximo nextval: Hibernate usará los ids (siguiente - incremento, siguiente]
+            long siguiente = jdbcTemplate.queryForObject(
+                    "SELECT CASE WHEN is_called THEN last_value + " + secuencia.incremento() + " ELSE last_value END FROM "
+                            + secuencia.nombre(), Long.class);
+            if (siguiente - secuencia.incremento() >= maxId) {
+                continue;
+            }
+            jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, false)", Long.class,
+                    secuencia.nombre(), maxId + secuencia.incremento());
+            logger.warn("Secuencia {} por debajo del mayor id de {} ({}); recolocada como V5", secuencia.nombre(),
+                    secuencia.tabla(), maxId);
+        }
+    }
+
+    /**
+     * Secuencias de los generadores SEQUENCE de las entidades raíz, con su tabla y su columna id
+     */
+    private List<Secuencia> secuencias() {
+        List<Secuencia> secuencias = new ArrayList<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .forEachEntityDescriptor(persister -> {
+                    if (!persister.getEntityName().equals(persister.getRootEntityName())
+                            || !(persister.getGenerator() instanceof SequenceStyleGenerator generador)
+                            || !(persister instanceof AbstractEntityPersister entidad)) {
+                        return;
+                    }
+                    DatabaseStructure estructura = generador.getDatabaseStructure();
+                    secuencias.add(new Secuencia(estructura.getPhysicalName().render(), estructura.getIncrementSize(),
+                            entidad.getTableName(), entidad.getIdentifierColumnNames()[0]));
+                });
+        return secuencias;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bugabuga.e_commerce.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncAppender de Logback que nunca bloquea al hilo que registra: con la cola llena el evento
+ * se descarta y se cuenta. Por defecto no descarta por nivel (discardingThreshold = 0), solo por falta de hueco.
+ * El contador es estático porque Logback instancia el appender antes que el contexto de Spring;
+ * se publica como {@code logback.events.dropped} (ver {@link MetricsConfig}).
+ */
+public class AsyncLogAppender extends AsyncAppender {
+
+    private static final LongAdder DESCARTADOS = new LongAdder();
+
+    public AsyncLogAppender() {
+        setNeverBlock(true);
+        setDiscardingThreshold(0);
+    }
+
+    @Override
+    protected void append(ILoggingEvent evento) {
+        // Con neverBlock la cola descarta en silencio: se comprueba antes para contarlo y no formatear
+        // un evento que no va a caber. Entre la comprobación y el offer puede perderse alguno sin contar.
+        if (isStarted() && getRemainingCapacity() == 0) {
+            DESCARTADOS.increment();
+            return;
+        }
+        super.append(evento);
+    }
+
+    /**
+     * Eventos descartados por cola llena desde el arranque, en todos los appenders de este tipo
+     */
+    public static long getDescartados() {
+        return DESCARTADOS.sum();
+    }
+}
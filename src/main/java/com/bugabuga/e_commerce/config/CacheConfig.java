@@ -1,14 +1,18 @@
 package com.bugabuga.e_commerce.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.cache.CacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Configuración de caché para la aplicación
@@ -29,11 +33,27 @@ public class CacheConfig {
     public static final String CACHE_PRODUCTOS_RECIENTES = "productosRecientes";
 
     /**
-     * Configura el gestor de caché con Caffeine
+     * Configura el gestor de caché con Caffeine. Cada caché toma su tamaño, expiración y
+     * recarga anticipada de {@code app.cache.especificaciones.<nombre>.*} (ver {@link CacheSpecProperties}).
+     * Las recargas corren en un pool acotado propio ({@code app.cache.recargas.*}), expuesto en Micrometer como
+     * {@code cache.recargas};
+     * con la cola llena Caffeine descarta la recarga y sigue sirviendo el valor anterior.
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    public EtiquetasCacheManager cacheManager(CacheSpecProperties especificaciones, MeterRegistry meterRegistry) {
+        CacheSpecProperties.Recargas configuracionRecargas = especificaciones.getRecargas();
+        int hilos = configuracionRecargas.getHilos();
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(configuracionRecargas.getCapacidadCola()),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "cache-recarga-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorService recargas = ExecutorServiceMetrics.monitor(meterRegistry, pool, "cache.recargas", List.of());
+        EtiquetasCacheManager cacheManager = new EtiquetasCacheManager(especificaciones, meterRegistry, recargas);
         
         // Configurar las cachés que se utilizarán
         cacheManager.setCacheNames(Arrays.asList(
@@ -46,20 +66,6 @@ public class CacheConfig {
                 CACHE_PRODUCTOS_RECIENTES
         ));
         
-        // Configuración por defecto para todas las cachés
-        cacheManager.setCaffeine(caffeineCacheBuilder());
-        
         return cacheManager;
     }
-
-    /**
-     * Configura el builder de Caffeine con los parámetros de caché
-     */
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .initialCapacity(100)     // Capacidad inicial
-                .maximumSize(1000)        // Tamaño máximo
-                .expireAfterWrite(30, TimeUnit.MINUTES)  // Tiempo de expiración
-                .recordStats();           // Registrar estadísticas
-    }
 }
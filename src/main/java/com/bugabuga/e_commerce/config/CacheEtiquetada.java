@@ -0,0 +1,334 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Caché de Caffeine que mantiene un índice etiqueta → claves de las entradas que contiene,
+ * para poder invalidar selectivamente por producto, tienda o categoría en lugar de vaciar la caché.
+ * Si tiene recarga anticipada, cuenta las recargas en segundo plano y los aciertos que sin ellas
+ * habrían sido fallos por expiración.
+ * El índice se protege con un ReentrantLock en lugar de synchronized para no fijar el hilo portador
+ * cuando el acceso concurrente llega desde hilos virtuales.
+ */
+public class CacheEtiquetada extends CaffeineCache {
+
+    private final Map<Object, Entrada> entradas = new HashMap<>();
+    private final Map<String, Set<Object>> clavesPorEtiqueta = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Solo con recarga anticipada: momento de la carga original de cada clave, que las recargas no renuevan
+    private final Long expiracionNanos;
+    private final Map<Object, Long> primeraCarga = new ConcurrentHashMap<>();
+    private final LongAdder recargas = new LongAdder();
+    private final LongAdder recargasFallidas = new LongAdder();
+    private final LongAdder fallosEvitados = new LongAdder();
+
+    private record Entrada(Object valor, Set<String> etiquetas) {
+    }
+
+    public CacheEtiquetada(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, boolean allowNullValues) {
+        this(name, cache, allowNullValues, null);
+    }
+
+    /**
+     * @param expiracion expireAfterWrite de la caché cuando tiene recarga anticipada, o null si no la tiene
+     */
+    public CacheEtiquetada(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                           boolean allowNullValues, Duration expiracion) {
+        super(name, cache, allowNullValues);
+        this.expiracionNanos = expiracion != null ? expiracion.toNanos() : null;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper valor = super.get(key);
+        if (valor != null) {
+            contarAcierto(key);
+        }
+        return valor;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        registrar(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existente = super.putIfAbsent(key, value);
+        if (existente == null) {
+            registrar(key, value);
+        }
+        return existente;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Solo se etiqueta cuando el valor se carga de verdad, no en cada acierto.
+        // Caffeine ejecuta la carga una sola vez por clave; las peticiones concurrentes la esperan.
+        boolean[] cargado = {false};
+        T resultado = super.get(key, () -> {
+            cargado[0] = true;
+            T valor = valueLoader.call();
+            registrar(key, valor);
+            return valor;
+        });
+        if (!cargado[0]) {
+            contarAcierto(key);
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga una clave ausente con la función de recarga registrada (CacheLoader.load)
+     */
+    Object cargar(Object key, Function<Object, Object> recarga) {
+        if (recarga == null) {
+            return null;
+        }
+        Object valor = recarga.apply(key);
+        if (valor != null) {
+            registrar(key, valor);
+        }
+        return valor;
+    }
+
+    /**
+     * Recarga en segundo plano una clave que superó refreshAfterWrite (CacheLoader.reload).
+     * Mientras tanto se sigue sirviendo el valor anterior. Si la recarga devuelve null la entrada se elimina.
+     * El valor se etiqueta antes de que Caffeine lo instale, para que una invalidación justo después no lo
+     * pase por alto; si Caffeine lo descarta, {@link #reemplazada} quita esas etiquetas.
+     */
+    Object recargar(Object key, Function<Object, Object> recarga) {
+        if (recarga == null) {
+            olvidar(key);
+            return null;
+        }
+        Object valor;
+        try {
+            valor = recarga.apply(key);
+        } catch (RuntimeException e) {
+            // Caffeine registra el error y conserva el valor anterior
+            recargasFallidas.increment();
+            throw e;
+        }
+        recargas.increment();
+        if (valor == null) {
+            olvidar(key);
+        } else {
+            actualizarEtiquetas(key, valor);
+        }
+        return valor;
+    }
+
+    public long getRecargas() {
+        return recargas.sum();
+    }
+
+    public long getRecargasFallidas() {
+        return recargasFallidas.sum();
+    }
+
+    /**
+     * Aciertos servidos por entradas cuya carga original ya habría expirado sin la recarga anticipada
+     */
+    public long getFallosEvitados() {
+        return fallosEvitados.sum();
+    }
+
+    public boolean tieneRecargaAnticipada() {
+        return expiracionNanos != null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        olvidar(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean presente = super.evictIfPresent(key);
+        olvidar(key);
+        return presente;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        vaciarIndice();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean habiaEntradas = super.invalidate();
+        vaciarIndice();
+        return habiaEntradas;
+    }
+
+    /**
+     * Invalida las entradas que llevan alguna de las etiquetas indicadas
+     *
+     * @return cantidad de entradas invalidadas
+     */
+    public int invalidarEtiquetas(Collection<String> etiquetas) {
+        List<Object> claves = new ArrayList<>();
+        lock.lock();
+        try {
+            for (String etiqueta : etiquetas) {
+                Set<Object> conEtiqueta = clavesPorEtiqueta.get(etiqueta);
+                if (conEtiqueta != null) {
+                    claves.addAll(conEtiqueta);
+                }
+            }
+            claves.forEach(this::quitarDelIndice);
+        } finally {
+            lock.unlock();
+        }
+
+        // Fuera del lock: invalidar puede esperar a una carga en curso que a su vez registra etiquetas
+        claves.forEach(clave -> {
+            getNativeCache().invalidate(clave);
+            primeraCarga.remove(clave);
+        });
+        return claves.size();
+    }
+
+    /**
+     * Olvida una entrada desalojada por Caffeine (tamaño o expiración), salvo que la clave
+     * se haya vuelto a cargar con otro valor entretanto
+     */
+    void desalojada(Object key, Object value) {
+        lock.lock();
+        try {
+            Entrada entrada = entradas.get(key);
+            if (entrada != null && entrada.valor() == value) {
+                quitarDelIndice(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        primeraCarga.remove(key);
+    }
+
+    /**
+     * Olvida un valor reemplazado en la caché: el anterior a un put o a una recarga instalada, o el de una
+     * recarga que Caffeine descartó porque la clave se invalidó o cambió mientras recargaba. Si el índice aún
+     * apunta a ese valor, se vuelve a etiquetar la clave con el que la caché conserva, si conserva alguno.
+     */
+    void reemplazada(Object key, Object value) {
+        lock.lock();
+        try {
+            Entrada entrada = entradas.get(key);
+            if (entrada == null || entrada.valor() != value) {
+                return;
+            }
+            quitarDelIndice(key);
+        } finally {
+            lock.unlock();
+        }
+        Object actual = getNativeCache().asMap().get(key);
+        if (actual != null) {
+            actualizarEtiquetas(key, actual);
+        } else {
+            primeraCarga.remove(key);
+        }
+    }
+
+    /**
+     * Cantidad de etiquetas distintas en el índice
+     */
+    public int getCantidadEtiquetas() {
+        lock.lock();
+        try {
+            return clavesPorEtiqueta.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void registrar(Object key, Object value) {
+        if (expiracionNanos != null) {
+            primeraCarga.put(key, System.nanoTime());
+        }
+        actualizarEtiquetas(key, value);
+    }
+
+    private void actualizarEtiquetas(Object key, Object value) {
+        Set<String> etiquetas = EtiquetasCache.de(key, value);
+        lock.lock();
+        try {
+            quitarDelIndice(key);
+            if (etiquetas.isEmpty()) {
+                return;
+            }
+            entradas.put(key, new Entrada(value, etiquetas));
+            etiquetas.forEach(etiqueta -> clavesPorEtiqueta.computeIfAbsent(etiqueta, e -> new HashSet<>()).add(key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void contarAcierto(Object key) {
+        if (expiracionNanos == null) {
+            return;
+        }
+        Long cargadaEn = primeraCarga.get(key);
+        if (cargadaEn != null && System.nanoTime() - cargadaEn > expiracionNanos) {
+            fallosEvitados.increment();
+        }
+    }
+
+    private void olvidar(Object key) {
+        lock.lock();
+        try {
+            quitarDelIndice(key);
+            primeraCarga.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void vaciarIndice() {
+        lock.lock();
+        try {
+            entradas.clear();
+            clavesPorEtiqueta.clear();
+            primeraCarga.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Debe llamarse con el lock tomado
+    private void quitarDelIndice(Object key) {
+        Entrada entrada = entradas.remove(key);
+        if (entrada == null) {
+            return;
+        }
+        for (String etiqueta : entrada.etiquetas()) {
+            Set<Object> claves = clavesPorEtiqueta.get(etiqueta);
+            if (claves != null) {
+                claves.remove(key);
+                if (claves.isEmpty()) {
+                    clavesPorEtiqueta.remove(etiqueta);
+                }
+            }
+        }
+    }
+}
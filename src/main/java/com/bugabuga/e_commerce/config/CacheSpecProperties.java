@@ -0,0 +1,171 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de las cachés de la aplicación ({@code app.cache.*}): especificaciones por caché leídas de
+ * {@code app.cache.especificaciones.<nombre>.*} y el pool de recargas anticipadas ({@code app.cache.recargas.*}).
+ * La entrada {@code app.cache.especificaciones.default.*} aporta los valores de los campos que una caché no define.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSpecProperties {
+
+    public static final String DEFAULT = "default";
+
+    private Map<String, Especificacion> especificaciones = new HashMap<>();
+    private Recargas recargas = new Recargas();
+
+    public Map<String, Especificacion> getEspecificaciones() {
+        return especificaciones;
+    }
+
+    public void setEspecificaciones(Map<String, Especificacion> especificaciones) {
+        this.especificaciones = especificaciones;
+    }
+
+    public Recargas getRecargas() {
+        return recargas;
+    }
+
+    public void setRecargas(Recargas recargas) {
+        this.recargas = recargas;
+    }
+
+    /**
+     * Especificación efectiva de una caché: la propia completada con la de {@code default}
+     * y, en último término, con los valores por defecto de {@link Especificacion}
+     */
+    public Especificacion resolver(String cacheName) {
+        Especificacion porDefecto = especificaciones.getOrDefault(DEFAULT, new Especificacion());
+        Especificacion propia = buscar(cacheName);
+        return propia != null ? propia.completarCon(porDefecto) : porDefecto.completarCon(new Especificacion());
+    }
+
+    // Los nombres de caché llevan mayúsculas; según el origen de la propiedad la clave puede llegar en minúsculas
+    private Especificacion buscar(String cacheName) {
+        Especificacion propia = especificaciones.get(cacheName);
+        if (propia != null) {
+            return propia;
+        }
+        return especificaciones.entrySet().stream()
+                .filter(entrada -> entrada.getKey().equalsIgnoreCase(cacheName))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Hilos y capacidad de la cola del pool donde se ejecutan las recargas anticipadas
+     */
+    public static class Recargas {
+
+        private int hilos = 2;
+        private int capacidadCola = 1000;
+
+        public int getHilos() {
+            return hilos;
+        }
+
+        public void setHilos(int hilos) {
+            this.hilos = hilos;
+        }
+
+        public int getCapacidadCola() {
+            return capacidadCola;
+        }
+
+        public void setCapacidadCola(int capacidadCola) {
+            this.capacidadCola = capacidadCola;
+        }
+    }
+
+    public static class Especificacion {
+
+        private Integer initialCapacity;
+        private Long maximumSize;
+        private DataSize maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+
+        public Integer getInitialCapacity() {
+            return initialCapacity;
+        }
+
+        public void setInitialCapacity(Integer initialCapacity) {
+            this.initialCapacity = initialCapacity;
+        }
+
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public DataSize getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(DataSize maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+
+        /**
+         * Indica si la caché se limita por peso estimado en bytes en lugar de por cantidad de entradas
+         */
+        public boolean isPorPeso() {
+            return maximumWeight != null;
+        }
+
+        public boolean isConRecarga() {
+            return refreshAfterWrite != null && !refreshAfterWrite.isZero();
+        }
+
+        Especificacion completarCon(Especificacion base) {
+            Especificacion resultado = new Especificacion();
+            resultado.initialCapacity = valor(initialCapacity, base.initialCapacity, 100);
+            // Un límite por peso propio sustituye al límite por tamaño heredado, y viceversa
+            if (maximumWeight != null || maximumSize != null) {
+                resultado.maximumWeight = maximumWeight;
+                resultado.maximumSize = maximumWeight == null ? maximumSize : null;
+            } else {
+                resultado.maximumWeight = base.maximumWeight;
+                resultado.maximumSize = base.maximumWeight == null ? valor(base.maximumSize, null, 1000L) : null;
+            }
+            resultado.expireAfterWrite = valor(expireAfterWrite, base.expireAfterWrite, Duration.ofMinutes(30));
+            resultado.refreshAfterWrite = valor(refreshAfterWrite, base.refreshAfterWrite, null);
+            return resultado;
+        }
+
+        private static <T> T valor(T propio, T base, T porDefecto) {
+            if (propio != null) {
+                return propio;
+            }
+            return base != null ? base : porDefecto;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.Set;
+
+/**
+ * Clave de caché para las páginas del catálogo. Además de identificar la página,
+ * aporta la etiqueta del ámbito consultado (tienda o categoría), de modo que una página
+ * vacía o que aún no contiene un producto nuevo también se invalide por ese ámbito.
+ * Conserva el Pageable completo para poder recargar la página en segundo plano.
+ */
+public record ClaveCatalogo(String ambito, Long ambitoId, Pageable pageable) {
+
+    private static final String AMBITO_CATALOGO = "catalogo";
+    private static final String AMBITO_TIENDA = "tienda";
+    private static final String AMBITO_CATEGORIA = "categoria";
+
+    public static ClaveCatalogo deCatalogo(Pageable pageable) {
+        return new ClaveCatalogo(AMBITO_CATALOGO, null, pageable);
+    }
+
+    public static ClaveCatalogo deTienda(Long tiendaId, Pageable pageable) {
+        return new ClaveCatalogo(AMBITO_TIENDA, tiendaId, pageable);
+    }
+
+    public static ClaveCatalogo deCategoria(Long categoriaId, Pageable pageable) {
+        return new ClaveCatalogo(AMBITO_CATEGORIA, categoriaId, pageable);
+    }
+
+    /**
+     * Etiquetas que aporta la clave, independientemente del contenido de la página
+     */
+    public Set<String> etiquetas() {
+        return switch (ambito) {
+            case AMBITO_TIENDA -> Set.of(EtiquetasCache.tienda(ambitoId));
+            case AMBITO_CATEGORIA -> Set.of(EtiquetasCache.categoria(ambitoId));
+            default -> Set.of();
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cola de cobro de pagos ({@code app.pagos.cola.*}), ver {@link com.bugabuga.e_commerce.service.ColaPagosService}
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.pagos.cola")
+public class ColaPagosProperties {
+
+    private boolean enabled = true;
+    // Cobros simultáneos contra la pasarela en esta instancia
+    private int hilos = 8;
+    // Espera máxima entre consultas a la cola cuando no hay avisos de pagos nuevos
+    private Duration intervalo = Duration.ofSeconds(1);
+    // Tiempo que un trabajador retiene una tarea; pasado ese plazo otra instancia puede reclamarla
+    private Duration bloqueo = Duration.ofMinutes(2);
+    private int maxIntentos = 5;
+    // Espera antes del primer reintento tras un fallo transitorio; se duplica en cada intento
+    private Duration esperaReintento = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getHilos() {
+        return hilos;
+    }
+
+    public void setHilos(int hilos) {
+        this.hilos = hilos;
+    }
+
+    public Duration getIntervalo() {
+        return intervalo;
+    }
+
+    public void setIntervalo(Duration intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    public Duration getBloqueo() {
+        return bloqueo;
+    }
+
+    public void setBloqueo(Duration bloqueo) {
+        this.bloqueo = bloqueo;
+    }
+
+    public int getMaxIntentos() {
+        return maxIntentos;
+    }
+
+    public void setMaxIntentos(int maxIntentos) {
+        this.maxIntentos = maxIntentos;
+    }
+
+    public Duration getEsperaReintento() {
+        return esperaReintento;
+    }
+
+    public void setEsperaReintento(Duration esperaReintento) {
+        this.esperaReintento = esperaReintento;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bugabuga.e_commerce.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.MDC;
+
+/**
+ * StatementInspector de Hibernate que cuenta las sentencias SQL preparadas en cada hilo.
+ * El contador es acumulativo y nunca se reinicia: quien mide guarda el valor al empezar y
+ * resta al terminar, así las mediciones anidadas (filtro por petición y tests) no se pisan.
+ * Las consultas que se ejecutan en otro hilo (p. ej. el pool de hashing del login) no se atribuyen a la petición.
+ * Entre {@link #iniciarPeticion()} y {@link #terminarPeticion()} la cuenta de la petición se mantiene al día
+ * en la clave {@code queries} del MDC, para que cualquier línea de log de la petición la lleve.
+ */
+public class ContadorConsultas implements StatementInspector {
+
+    public static final String QUERIES_MDC_KEY = "queries";
+
+    // [0]: sentencias del hilo; [1]: valor de [0] al empezar la petición en curso, o -1 fuera de una petición
+    private static final ThreadLocal<long[]> CONSULTAS = ThreadLocal.withInitial(() -> new long[]{0, -1});
+
+    @Override
+    public String inspect(String sql) {
+        long[] consultas = CONSULTAS.get();
+        consultas[0]++;
+        if (consultas[1] >= 0) {
+            MDC.put(QUERIES_MDC_KEY, String.valueOf(consultas[0] - consultas[1]));
+        }
+        return sql;
+    }
+
+    /**
+     * Sentencias preparadas por el hilo actual desde que arrancó
+     */
+    public static long consultasEnHilo() {
+        return CONSULTAS.get()[0];
+    }
+
+    /**
+     * Empieza a reflejar en el MDC las sentencias del hilo actual
+     *
+     * @return {@link #consultasEnHilo()} al empezar
+     */
+    public static long iniciarPeticion() {
+        long[] consultas = CONSULTAS.get();
+        consultas[1] = consultas[0];
+        MDC.put(QUERIES_MDC_KEY, "0");
+        return consultas[0];
+    }
+
+    /**
+     * Deja de reflejar las sentencias en el MDC y quita la clave
+     */
+    public static void terminarPeticion() {
+        CONSULTAS.get()[1] = -1;
+        MDC.remove(QUERIES_MDC_KEY);
+    }
+}
@@ -26,6 +26,7 @@ public class CorsConfig {
 
         config.addAllowedHeader("*");
         config.addExposedHeader("Authorization"); // Exponer el header de Authorization
+        config.addExposedHeader("Idempotent-Replayed"); // Indica que la respuesta es la guardada de un reintento
 
         // Permitir todos los métodos HTTP comunes
         config.addAllowedMethod("*");
@@ -0,0 +1,77 @@
+package com.bugabuga.e_commerce.config;
+
+import com.bugabuga.e_commerce.exception.ConexionesSaturadasException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource que acota cuántos hilos pueden estar a la vez pidiendo una conexión a Hikari.
+ * Con hilos virtuales no hay un límite de hilos de Tomcat por delante del pool: sin este límite,
+ * una ráfaga deja miles de hilos esperando en Hikari hasta agotar su connection-timeout.
+ * El máximo es {@code maximumPoolSize * esperasPorConexion}; por encima, getConnection falla
+ * enseguida con {@link ConexionesSaturadasException} y la solicitud responde 503.
+ */
+public class DataSourceLimitada extends DelegatingDataSource implements AutoCloseable {
+
+    private final HikariDataSource hikari;
+    private final int maximoEsperando;
+    private final AtomicInteger esperando = new AtomicInteger();
+    private final LongAdder rechazadas = new LongAdder();
+
+    public DataSourceLimitada(HikariDataSource hikari, int esperasPorConexion) {
+        super(hikari);
+        this.hikari = hikari;
+        this.maximoEsperando = hikari.getMaximumPoolSize() * esperasPorConexion;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admitir();
+        try {
+            return super.getConnection();
+        } finally {
+            esperando.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admitir();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            esperando.decrementAndGet();
+        }
+    }
+
+    private void admitir() throws ConexionesSaturadasException {
+        if (esperando.incrementAndGet() > maximoEsperando) {
+            esperando.decrementAndGet();
+            rechazadas.increment();
+            throw new ConexionesSaturadasException("Pool de conexiones saturado: " + maximoEsperando
+                    + " hilos ya esperan una de " + hikari.getMaximumPoolSize() + " conexiones");
+        }
+    }
+
+    public int getEsperando() {
+        return esperando.get();
+    }
+
+    public int getMaximoEsperando() {
+        return maximoEsperando;
+    }
+
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+
+    @Override
+    public void close() {
+        hikari.close();
+    }
+}
@@ -0,0 +1,110 @@
+package com.bugabuga.e_commerce.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Escucha en JFR el evento {@code jdk.VirtualThreadPinned}: un hilo virtual que se bloquea dentro de
+ * un bloque synchronized (o de código nativo) y retiene su hilo portador más de {@code umbral}.
+ * Cada ocurrencia se registra en el timer {@code jvm.threads.virtual.pinned}, etiquetado con la primera
+ * clase de la aplicación en la pila ({@code externo} si la pila es solo de librerías), y cada pila
+ * distinta se escribe una vez en el log con sus primeros marcos.
+ */
+public class DetectorPinning implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectorPinning.class);
+
+    static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final String PAQUETE_APP = "com.bugabuga.e_commerce.";
+    private static final int MARCOS_EN_LOG = 12;
+
+    private final Duration umbral;
+    private final MeterRegistry meterRegistry;
+    // Pilas ya escritas en el log, por su firma
+    private final Set<String> pilasVistas = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public DetectorPinning(Duration umbral, MeterRegistry meterRegistry) {
+        this.umbral = umbral;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream nuevo = new RecordingStream();
+        nuevo.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        nuevo.onEvent(EVENTO, this::registrar);
+        nuevo.startAsync();
+        stream = nuevo;
+        logger.info("Detección de pinning de hilos virtuales activa (umbral {})", umbral);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream actual = stream;
+        stream = null;
+        if (actual != null) {
+            actual.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    void registrar(RecordedEvent evento) {
+        List<RecordedFrame> marcos = marcos(evento.getStackTrace());
+        String origen = origen(marcos);
+        timers.computeIfAbsent(origen, o -> Timer.builder("jvm.threads.virtual.pinned")
+                        .description("Tiempo que un hilo virtual retuvo su hilo portador")
+                        .tag("origen", o)
+                        .register(meterRegistry))
+                .record(evento.getDuration());
+
+        String pila = marcos.stream()
+                .limit(MARCOS_EN_LOG)
+                .map(DetectorPinning::describir)
+                .collect(Collectors.joining("\n    at "));
+        if (pilasVistas.add(pila)) {
+            logger.warn("Hilo virtual fijado a su portador durante {} ms (origen {}):\n    at {}",
+                    evento.getDuration().toMillis(), origen, pila);
+        }
+    }
+
+    private static List<RecordedFrame> marcos(RecordedStackTrace pila) {
+        return pila != null ? pila.getFrames() : List.of();
+    }
+
+    private static String origen(List<RecordedFrame> marcos) {
+        for (RecordedFrame marco : marcos) {
+            String clase = marco.getMethod().getType().getName();
+            if (clase.startsWith(PAQUETE_APP)) {
+                // Sin el sufijo de proxies y lambdas para no multiplicar las series
+                String simple = clase.substring(clase.lastIndexOf('.') + 1);
+                int sufijo = simple.indexOf('$');
+                return sufijo > 0 ? simple.substring(0, sufijo) : simple;
+            }
+        }
+        return "externo";
+    }
+
+    private static String describir(RecordedFrame marco) {
+        return marco.getMethod().getType().getName() + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+    }
+}
@@ -0,0 +1,61 @@
+package com.bugabuga.e_commerce.config;
+
+import com.bugabuga.e_commerce.model.dto.ProductoDTO;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Etiquetas con las que se indexan las entradas de caché del catálogo.
+ * Una entrada queda etiquetada con los productos, tiendas y categorías que contiene,
+ * y una escritura invalida solo las entradas que llevan las etiquetas afectadas.
+ */
+public final class EtiquetasCache {
+
+    private EtiquetasCache() {
+    }
+
+    public static String producto(Long id) {
+        return "producto:" + id;
+    }
+
+    public static String tienda(Long id) {
+        return "tienda:" + id;
+    }
+
+    public static String categoria(Long id) {
+        return "categoria:" + id;
+    }
+
+    /**
+     * Calcula las etiquetas de una entrada a partir de su clave y su valor.
+     * El valor puede ser un ProductoDTO o cualquier colección o página de ProductoDTO.
+     */
+    public static Set<String> de(Object clave, Object valor) {
+        Set<String> etiquetas = new HashSet<>();
+        if (clave instanceof ClaveCatalogo claveCatalogo) {
+            etiquetas.addAll(claveCatalogo.etiquetas());
+        }
+
+        if (valor instanceof ProductoDTO producto) {
+            agregar(etiquetas, producto);
+        } else if (valor instanceof Iterable<?> elementos) {
+            for (Object elemento : elementos) {
+                if (elemento instanceof ProductoDTO producto) {
+                    agregar(etiquetas, producto);
+                }
+            }
+        }
+        return etiquetas;
+    }
+
+    private static void agregar(Set<String> etiquetas, ProductoDTO producto) {
+        etiquetas.add(producto(producto.getId()));
+        if (producto.getTiendaId() != null) {
+            etiquetas.add(tienda(producto.getTiendaId()));
+        }
+        if (producto.getCategoriaId() != null) {
+            etiquetas.add(categoria(producto.getCategoriaId()));
+        }
+    }
+}
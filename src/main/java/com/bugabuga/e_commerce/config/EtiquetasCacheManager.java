@@ -0,0 +1,218 @@
+package com.bugabuga.e_commerce.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * CaffeineCacheManager cuyas cachés son {@link CacheEtiquetada}, con invalidación por etiquetas
+ * sobre todas las cachés gestionadas. Cada caché se construye con su propia especificación
+ * ({@code app.cache.especificaciones.<nombre>.*}), limitada por cantidad de entradas o por peso estimado en bytes.
+ * Las cachés configuradas con recarga anticipada se construyen como LoadingCache con refreshAfterWrite:
+ * pasado ese tiempo, el siguiente acceso devuelve el valor actual y dispara la recarga en segundo plano
+ * con la función registrada por el servicio dueño de la caché. Las recargas hacen JDBC bloqueante, así que
+ * corren en un executor propio y no en el {@code ForkJoinPool.commonPool} que Caffeine usa por defecto.
+ */
+public class EtiquetasCacheManager extends CaffeineCacheManager implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EtiquetasCacheManager.class);
+
+    private final CacheSpecProperties especificaciones;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executorRecargas;
+    private final Map<String, Function<Object, Object>> recargas = new ConcurrentHashMap<>();
+
+    public EtiquetasCacheManager(CacheSpecProperties especificaciones, MeterRegistry meterRegistry,
+                                 ExecutorService executorRecargas) {
+        this.especificaciones = especificaciones;
+        this.meterRegistry = meterRegistry;
+        this.executorRecargas = executorRecargas;
+    }
+
+    /**
+     * Especificación efectiva con la que se construye la caché indicada
+     */
+    public CacheSpecProperties.Especificacion getEspecificacion(String cacheName) {
+        return especificaciones.resolver(cacheName);
+    }
+
+    /**
+     * Registra la función que vuelve a calcular el valor de una clave de la caché indicada.
+     * Se ejecuta en el executor de recargas, fuera de cualquier transacción del que la dispara.
+     */
+    public void registrarRecarga(String cacheName, Function<Object, Object> recarga) {
+        recargas.put(cacheName, recarga);
+    }
+
+    @Override
+    protected Cache createCaffeineCache(String name) {
+        CacheSpecProperties.Especificacion especificacion = especificaciones.resolver(name);
+        logger.debug("Creando caché {}: maximumSize={}, maximumWeight={}, expireAfterWrite={}, refreshAfterWrite={}",
+                name, especificacion.getMaximumSize(), especificacion.getMaximumWeight(),
+                especificacion.getExpireAfterWrite(), especificacion.getRefreshAfterWrite());
+
+        // El listener se crea antes que la caché a la que notifica
+        AtomicReference<CacheEtiquetada> cache = new AtomicReference<>();
+        Caffeine<Object, Object> caffeine = construirBuilder(especificacion)
+                .removalListener((key, value, cause) -> {
+                    // Las eliminaciones explícitas ya actualizan el índice en CacheEtiquetada
+                    if (cache.get() == null) {
+                        return;
+                    }
+                    if (cause.wasEvicted()) {
+                        cache.get().desalojada(key, value);
+                    } else if (cause == RemovalCause.REPLACED) {
+                        // También llega con el valor de una recarga que Caffeine descarta porque la clave
+                        // se invalidó o se reemplazó mientras recargaba
+                        cache.get().reemplazada(key, value);
+                    }
+                });
+
+        if (!especificacion.isConRecarga()) {
+            cache.set(new CacheEtiquetada(name, caffeine.build(), isAllowNullValues()));
+            return cache.get();
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativa = caffeine
+                .refreshAfterWrite(especificacion.getRefreshAfterWrite())
+                .executor(executorRecargas)
+                .build(new CacheLoader<Object, Object>() {
+                    @Override
+                    public Object load(Object key) {
+                        return cache.get().cargar(key, recargas.get(name));
+                    }
+
+                    @Override
+                    public Object reload(Object key, Object anterior) {
+                        return cache.get().recargar(key, recargas.get(name));
+                    }
+                });
+        cache.set(new CacheEtiquetada(name, nativa, isAllowNullValues(), especificacion.getExpireAfterWrite()));
+        registrarMetricasRecarga(name);
+        return cache.get();
+    }
+
+    @Override
+    public void destroy() {
+        executorRecargas.shutdown();
+    }
+
+    private Caffeine<Object, Object> construirBuilder(CacheSpecProperties.Especificacion especificacion) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
+                .initialCapacity(especificacion.getInitialCapacity())
+                .expireAfterWrite(especificacion.getExpireAfterWrite())
+                .recordStats();
+        if (especificacion.isPorPeso()) {
+            return caffeine
+                    .maximumWeight(especificacion.getMaximumWeight().toBytes())
+                    .weigher(new PesoEstimado());
+        }
+        return caffeine.maximumSize(especificacion.getMaximumSize());
+    }
+
+    /**
+     * Estadísticas de recarga anticipada de una caché, o null si no la tiene
+     */
+    public Map<String, Long> getEstadisticasRecarga(String cacheName) {
+        if (!(getCache(cacheName) instanceof CacheEtiquetada cache) || !cache.tieneRecargaAnticipada()) {
+            return null;
+        }
+        return Map.of(
+                "recargas", cache.getRecargas(),
+                "recargasFallidas", cache.getRecargasFallidas(),
+                "fallosEvitados", cache.getFallosEvitados());
+    }
+
+    /**
+     * Invalida en todas las cachés las entradas que llevan alguna de las etiquetas indicadas
+     */
+    public void invalidarEtiquetas(Collection<String> etiquetas) {
+        int invalidadas = 0;
+        for (String nombre : getCacheNames()) {
+            if (getCache(nombre) instanceof CacheEtiquetada cache) {
+                invalidadas += cache.invalidarEtiquetas(etiquetas);
+            }
+        }
+        logger.debug("Invalidadas {} entradas de caché para las etiquetas {}", invalidadas, etiquetas);
+    }
+
+    private void registrarMetricasRecarga(String name) {
+        if (meterRegistry == null) {
+            return;
+        }
+        // Se resuelve la caché por nombre en cada lectura: el manager puede recrear sus cachés
+        contador("cache.refreshes", name, "success", cache -> cache.getRecargas());
+        contador("cache.refreshes", name, "failure", cache -> cache.getRecargasFallidas());
+        FunctionCounter.builder("cache.refresh.saved.misses", this, medir(name, cache -> cache.getFallosEvitados()))
+                .tag("cache", name)
+                .description("Aciertos que sin recarga anticipada habrían sido fallos por expiración")
+                .register(meterRegistry);
+    }
+
+    private void contador(String metrica, String name, String resultado, ToDoubleFunction<CacheEtiquetada> valor) {
+        FunctionCounter.builder(metrica, this, medir(name, valor))
+                .tag("cache", name)
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    private ToDoubleFunction<EtiquetasCacheManager> medir(String name, ToDoubleFunction<CacheEtiquetada> valor) {
+        return manager -> manager.getCache(name) instanceof CacheEtiquetada cache ? valor.applyAsDouble(cache) : 0;
+    }
+
+    /**
+     * Invalida las etiquetas cuando confirme la transacción en curso, para que una lectura
+     * concurrente no vuelva a cachear el estado anterior a la escritura
+     */
+    public void invalidarEtiquetasTrasCommit(String... etiquetas) {
+        Set<String> copia = Set.copyOf(Arrays.asList(etiquetas));
+        trasCommit(() -> invalidarEtiquetas(copia));
+    }
+
+    /**
+     * Vacía las cachés indicadas cuando confirme la transacción en curso, por el mismo motivo que
+     * {@link #invalidarEtiquetasTrasCommit}: un {@code @CacheEvict} se aplica antes del commit
+     */
+    public void vaciarTrasCommit(String... cacheNames) {
+        List<String> nombres = List.of(cacheNames);
+        trasCommit(() -> nombres.forEach(nombre -> {
+            Cache cache = getCache(nombre);
+            if (cache != null) {
+                cache.clear();
+            }
+        }));
+    }
+
+    private void trasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bugabuga.e_commerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Ajustes del perfil {@code virtual} ({@code spring.threads.virtual.enabled=true}). Spring Boot ya ejecuta
+ * sobre hilos virtuales los handlers de Tomcat, los métodos {@code @Async} (el {@code applicationTaskExecutor})
+ * y las tareas {@code @Scheduled};
+ * esta configuración añade lo que los hilos virtuales dejan de dar por sí solos:
+ * <ul>
+ *   <li>Un límite de hilos esperando al pool de Hikari ({@link DataSourceLimitada}), que antes imponía
+ *   el máximo de hilos de Tomcat.</li>
+ *   <li>La detección por JFR de hilos virtuales fijados a su portador ({@link DetectorPinning}).</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class HilosVirtualesConfig {
+
+    /**
+     * Hikari construido con {@code spring.datasource.*} y {@code spring.datasource.hikari.*} como lo haría
+     * Spring Boot, envuelto en el limitador
+     */
+    @Bean
+    public DataSourceLimitada dataSource(DataSourceProperties propiedades, Environment environment,
+                                         @Value("${app.virtual.conexiones.esperas-por-conexion:4}") int esperasPorConexion) {
+        HikariDataSource hikari = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(hikari));
+        return new DataSourceLimitada(hikari, esperasPorConexion);
+    }
+
+    /**
+     * Hilos esperando conexión y peticiones de conexión rechazadas por el limitador
+     */
+    @Bean
+    public MeterBinder metricasDataSourceLimitada(DataSourceLimitada dataSource) {
+        return registry -> {
+            Gauge.builder("db.conexiones.esperando", dataSource, DataSourceLimitada::getEsperando)
+                    .description("Hilos pidiendo una conexión al pool en este momento")
+                    .register(registry);
+            Gauge.builder("db.conexiones.esperando.maximo", dataSource, DataSourceLimitada::getMaximoEsperando)
+                    .description("Máximo de hilos que pueden esperar una conexión antes de rechazar")
+                    .register(registry);
+            FunctionCounter.builder("db.conexiones.rechazadas", dataSource, DataSourceLimitada::getRechazadas)
+                    .description("Peticiones de conexión rechazadas por exceso de espera")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.virtual.pinning.enabled", havingValue = "true", matchIfMissing = true)
+    public DetectorPinning detectorPinning(MeterRegistry meterRegistry,
+                                           @Value("${app.virtual.pinning.umbral:20ms}") Duration umbral) {
+        return new DetectorPinning(umbral, meterRegistry);
+    }
+}
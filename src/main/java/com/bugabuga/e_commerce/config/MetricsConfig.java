@@ -0,0 +1,55 @@
+package com.bugabuga.e_commerce.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de métricas. Los tiempos se registran en tres timers con histograma de percentiles
+ * (ver {@code management.metrics.distribution.*}):
+ * <ul>
+ *   <li>{@code http.server.requests}: por handler, lo registra Spring MVC</li>
+ *   <li>{@value #TIMER_SERVICIOS}: por método de servicio, con {@code @Timed} en la clase del servicio</li>
+ *   <li>{@code spring.data.repository.invocations}: por método de repositorio, lo registra Spring Data</li>
+ * </ul>
+ * Además, {@code queries.per.request} registra las sentencias SQL de cada solicitud por endpoint
+ * (ver {@link com.bugabuga.e_commerce.filter.ConsultasPorPeticionFilter}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String TIMER_SERVICIOS = "app.servicio";
+
+    /**
+     * Etiqueta común con el nombre de la aplicación en todas las métricas
+     */
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> etiquetasComunes(@Value("${spring.application.name}") String aplicacion) {
+        return registry -> registry.config().commonTags("application", aplicacion);
+    }
+
+    /**
+     * Cuenta las sentencias SQL por hilo para el histograma de consultas por solicitud
+     */
+    @Bean
+    public HibernatePropertiesCustomizer contadorConsultas() {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorConsultas());
+    }
+
+    /**
+     * Eventos de log descartados por el appender asíncrono con la cola llena
+     */
+    @Bean
+    public MeterBinder eventosLogDescartados() {
+        return registry -> FunctionCounter.builder("logback.events.dropped", AsyncLogAppender.class,
+                        appender -> AsyncLogAppender.getDescartados())
+                .description("Eventos de log descartados por cola llena en AsyncLogAppender")
+                .register(registry);
+    }
+}
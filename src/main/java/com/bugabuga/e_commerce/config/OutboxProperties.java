@@ -0,0 +1,96 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Publicación de los eventos del outbox ({@code app.outbox.*}), ver
+ * {@link com.bugabuga.e_commerce.service.PublicadorOutbox}
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = true;
+    // Eventos leídos y entregados por transacción
+    private int lote = 500;
+    // Tiempo que se conservan los eventos ya publicados
+    private Duration retencion = Duration.ofDays(7);
+    // Entregas fallidas tras las que un evento se descarta
+    private int maxIntentos = 10;
+    // Espera tras el primer fallo de un evento; se duplica en cada intento
+    private Duration esperaReintento = Duration.ofSeconds(1);
+    // Fichero NDJSON donde se añaden los eventos publicados; sin valor no se escribe ninguno
+    private String fichero;
+    // Al superar este tamaño el fichero se renombra a .1 (y los anteriores a .2, .3, ...)
+    private DataSize ficheroTamanoMaximo = DataSize.ofMegabytes(100);
+    // Ficheros renombrados que se conservan
+    private int ficherosConservados = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLote() {
+        return lote;
+    }
+
+    public void setLote(int lote) {
+        this.lote = lote;
+    }
+
+    public Duration getRetencion() {
+        return retencion;
+    }
+
+    public void setRetencion(Duration retencion) {
+        this.retencion = retencion;
+    }
+
+    public int getMaxIntentos() {
+        return maxIntentos;
+    }
+
+    public void setMaxIntentos(int maxIntentos) {
+        this.maxIntentos = maxIntentos;
+    }
+
+    public Duration getEsperaReintento() {
+        return esperaReintento;
+    }
+
+    public void setEsperaReintento(Duration esperaReintento) {
+        this.esperaReintento = esperaReintento;
+    }
+
+    public String getFichero() {
+        return fichero;
+    }
+
+    public void setFichero(String fichero) {
+        this.fichero = fichero;
+    }
+
+    public DataSize getFicheroTamanoMaximo() {
+        return ficheroTamanoMaximo;
+    }
+
+    public void setFicheroTamanoMaximo(DataSize ficheroTamanoMaximo) {
+        this.ficheroTamanoMaximo = ficheroTamanoMaximo;
+    }
+
+    public int getFicherosConservados() {
+        return ficherosConservados;
+    }
+
+    public void setFicherosConservados(int ficherosConservados) {
+        this.ficherosConservados = ficherosConservados;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bugabuga.e_commerce.config;
+
+import com.bugabuga.e_commerce.model.dto.ProductoDTO;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.data.domain.Page;
+
+/**
+ * Weigher de Caffeine que estima el tamaño en memoria de las entradas del catálogo.
+ * No pretende ser exacto: basta con que una página de cien productos pese unas cien veces
+ * lo que pesa un producto, para que maximumWeight acote el heap de forma predecible.
+ */
+public class PesoEstimado implements Weigher<Object, Object> {
+
+    // Cabecera de objeto, referencias y campos numéricos de un ProductoDTO con su BigDecimal
+    private static final int BASE_PRODUCTO = 160;
+    // Cabecera y array de un String compacto (Latin-1)
+    private static final int BASE_TEXTO = 40;
+    // PageImpl con su Pageable, Sort y lista de contenido
+    private static final int BASE_COLECCION = 120;
+    private static final int REFERENCIA = 8;
+    // Valores que no sabemos estimar: clave y entrada de Caffeine más un objeto pequeño
+    private static final int PESO_DESCONOCIDO = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long peso = estimar(value);
+        return (int) Math.min(peso, Integer.MAX_VALUE);
+    }
+
+    static long estimar(Object valor) {
+        if (valor instanceof ProductoDTO producto) {
+            return BASE_PRODUCTO
+                    + texto(producto.getNombre())
+                    + texto(producto.getDescripcion())
+                    + texto(producto.getImagenUrl())
+                    + texto(producto.getTiendaNombre())
+                    + texto(producto.getCategoriaNombre());
+        }
+        if (valor instanceof Page<?> pagina) {
+            return BASE_COLECCION + elementos(pagina.getContent());
+        }
+        if (valor instanceof Iterable<?> coleccion) {
+            return BASE_COLECCION + elementos(coleccion);
+        }
+        return PESO_DESCONOCIDO;
+    }
+
+    private static long elementos(Iterable<?> coleccion) {
+        long peso = 0;
+        for (Object elemento : coleccion) {
+            peso += REFERENCIA + estimar(elemento);
+        }
+        return peso;
+    }
+
+    private static long texto(String texto) {
+        return texto == null ? 0 : BASE_TEXTO + texto.length();
+    }
+}
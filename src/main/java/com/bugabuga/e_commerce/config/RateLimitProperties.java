@@ -0,0 +1,99 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Presupuestos de peticiones por grupo de rutas ({@code app.rate-limit.*}).
+ * Cada petición se cuenta en el primer grupo, por orden de declaración, que contiene su ruta;
+ * las rutas que no están en ningún grupo no se limitan.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // Tiempo sin peticiones tras el que se olvida la cubeta de un cliente
+    private Duration inactividad = Duration.ofMinutes(10);
+    private long maximoClientes = 100_000;
+    private List<Grupo> grupos = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInactividad() {
+        return inactividad;
+    }
+
+    public void setInactividad(Duration inactividad) {
+        this.inactividad = inactividad;
+    }
+
+    public long getMaximoClientes() {
+        return maximoClientes;
+    }
+
+    public void setMaximoClientes(long maximoClientes) {
+        this.maximoClientes = maximoClientes;
+    }
+
+    public List<Grupo> getGrupos() {
+        return grupos;
+    }
+
+    public void setGrupos(List<Grupo> grupos) {
+        this.grupos = grupos;
+    }
+
+    public static class Grupo {
+
+        private String nombre;
+        // Patrones de ruta al estilo Ant, p. ej. /api/catalogo/**
+        private List<String> rutas = new ArrayList<>();
+        // Peticiones que un cliente puede hacer de golpe
+        private int capacidad = 100;
+        // Peticiones por segundo que se reponen en la cubeta
+        private double porSegundo = 50;
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public List<String> getRutas() {
+            return rutas;
+        }
+
+        public void setRutas(List<String> rutas) {
+            this.rutas = rutas;
+        }
+
+        public int getCapacidad() {
+            return capacidad;
+        }
+
+        public void setCapacidad(int capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        public double getPorSegundo() {
+            return porSegundo;
+        }
+
+        public void setPorSegundo(double porSegundo) {
+            this.porSegundo = porSegundo;
+        }
+    }
+}
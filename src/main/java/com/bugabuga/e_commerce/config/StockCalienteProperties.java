@@ -0,0 +1,78 @@
+package com.bugabuga.e_commerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Modo de stock en memoria para productos con mucha demanda simultánea ({@code app.stock.caliente.*}).
+ * El stock de los productos listados se reserva por bloques de {@code lote} unidades y se vende desde
+ * memoria; ver {@link com.bugabuga.e_commerce.service.StockCalienteService}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.stock.caliente")
+public class StockCalienteProperties {
+
+    private boolean enabled = false;
+    // Ids de los productos que se venden desde memoria
+    private Set<Long> productos = new HashSet<>();
+    // Unidades que se descuentan de la base de datos en cada asignación
+    private int lote = 200;
+    // Contadores independientes por producto; más franjas, menos colisiones entre hilos
+    private int franjas = Runtime.getRuntime().availableProcessors();
+    // Cada cuánto se anotan las ventas en el libro de asignaciones
+    private Duration volcado = Duration.ofSeconds(1);
+    // Identifica las asignaciones de esta instancia para recuperarlas al reiniciar
+    private String instancia = "local";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<Long> getProductos() {
+        return productos;
+    }
+
+    public void setProductos(Set<Long> productos) {
+        this.productos = productos;
+    }
+
+    public int getLote() {
+        return lote;
+    }
+
+    public void setLote(int lote) {
+        this.lote = lote;
+    }
+
+    public int getFranjas() {
+        return franjas;
+    }
+
+    public void setFranjas(int franjas) {
+        this.franjas = franjas;
+    }
+
+    public Duration getVolcado() {
+        return volcado;
+    }
+
+    public void setVolcado(Duration volcado) {
+        this.volcado = volcado;
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    public void setInstancia(String instancia) {
+        this.instancia = instancia;
+    }
+}
@@ -2,7 +2,9 @@ package com.bugabuga.e_commerce.controller;
 
 import com.bugabuga.e_commerce.model.dto.ApiResponse;
 import com.bugabuga.e_commerce.model.dto.UsuarioDTO;
+import com.bugabuga.e_commerce.security.HashingExecutor;
 import com.bugabuga.e_commerce.security.JwtTokenUtil;
+import com.bugabuga.e_commerce.security.UsuarioPrincipal;
 import com.bugabuga.e_commerce.service.UsuarioService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -11,16 +13,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -35,99 +40,111 @@ public class AuthController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private HashingExecutor hashingExecutor;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<?>> login(@RequestBody Map<String, String> loginRequest) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[AUTH] Inicio login: {}", inicio);
+    public CompletableFuture<ResponseEntity<ApiResponse<?>>> login(@RequestBody Map<String, String> loginRequest) {
+        String email = loginRequest.get("email");
+        String password = loginRequest.get("password");
 
         try {
-            String email = loginRequest.get("email");
-            String password = loginRequest.get("password");
-
-            // Autenticar con Spring Security
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(email, password)
-            );
-
-            // Generar token JWT
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtTokenUtil.generateToken(userDetails);
-
-            // Obtener información del usuario
-            UsuarioDTO usuario = usuarioService.obtenerUsuarioPorEmail(email);
-
-            // Crear respuesta
-            Map<String, Object> data = new HashMap<>();
-            data.put("token", token);
-            data.put("usuario", usuario);
-
-            long fin = System.currentTimeMillis();
-            logger.info("[AUTH] Fin login: {} (Duración: {} ms)", fin, (fin-inicio));
+            // Autenticar con Spring Security en el pool de hashing: BCrypt no ocupa el hilo de la petición
+            return hashingExecutor.ejecutar(() -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(email, password)))
+                    .handle((authentication, error) -> {
+                        if (error != null) {
+                            return respuestaErrorLogin(causa(error));
+                        }
+
+                        // El principal autenticado ya trae los datos del usuario
+                        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+                        UsuarioDTO usuario = userDetails instanceof UsuarioPrincipal principal
+                                ? principal.toUsuarioDTO()
+                                : usuarioService.obtenerUsuarioPorEmail(email);
+
+                        // Generar token JWT
+                        String token = jwtTokenUtil.generateToken(userDetails, usuario.getId());
+
+                        // Crear respuesta
+                        Map<String, Object> data = new HashMap<>();
+                        data.put("token", token);
+                        data.put("usuario", usuario);
+
+                        return ResponseEntity.ok(ApiResponse.success("Inicio de sesión exitoso", data));
+                    });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(respuestaSaturado());
+        }
+    }
 
-            return ResponseEntity.ok(ApiResponse.success("Inicio de sesión exitoso", data));
-        } catch (BadCredentialsException e) {
-            logger.warn("[AUTH] Error de credenciales: {}", e.getMessage());
+    private ResponseEntity<ApiResponse<?>> respuestaErrorLogin(Throwable error) {
+        if (error instanceof AuthenticationException) {
+            logger.warn("[AUTH] Error de credenciales: {}", error.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Email o contraseña incorrectos"));
-        } catch (Exception e) {
-            logger.error("[AUTH] Error en login: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Ocurrió un error al procesar la solicitud"));
         }
+        logger.error("[AUTH] Error en login: {}", error.getMessage(), error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Ocurrió un error al procesar la solicitud"));
     }
 
     @PostMapping("/registro")
     public ResponseEntity<ApiResponse<?>> registro(@Valid @RequestBody UsuarioDTO usuarioDTO) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[AUTH] Inicio registro: {}", inicio);
-
         try {
-            // Registrar usuario
-            UsuarioDTO nuevoUsuario = usuarioService.registrarUsuario(usuarioDTO);
+            // Solo BCrypt va al pool de hashing; el registro y su transacción siguen en el hilo de la petición,
+            // con su requestId en el MDC y su cuenta de consultas, y sin retener una conexión mientras se cifra
+            String passwordCifrada = hashingExecutor.ejecutar(() -> passwordEncoder.encode(usuarioDTO.getPassword())).join();
+            UsuarioDTO nuevoUsuario = usuarioService.registrarUsuario(usuarioDTO, passwordCifrada);
 
-            // Autenticar usuario
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(usuarioDTO.getEmail(), usuarioDTO.getPassword())
-            );
-
-            // Generar token JWT
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtTokenUtil.generateToken(userDetails);
+            // Generar token JWT sin volver a autenticar: la contraseña se acaba de fijar
+            String token = jwtTokenUtil.generateToken(UsuarioPrincipal.deUsuarioDTO(nuevoUsuario), nuevoUsuario.getId());
 
             // Crear respuesta
             Map<String, Object> data = new HashMap<>();
             data.put("token", token);
             data.put("usuario", nuevoUsuario);
 
-            long fin = System.currentTimeMillis();
-            logger.info("[AUTH] Fin registro: {} (Duración: {} ms)", fin, (fin-inicio));
-
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Registro exitoso", data));
-        } catch (IllegalArgumentException e) {
-            logger.warn("[AUTH] Error de validación: {}", e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return respuestaSaturado();
+        } catch (RuntimeException e) {
+            return respuestaErrorRegistro(causa(e));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<?>> respuestaErrorRegistro(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            logger.warn("[AUTH] Error de validación: {}", error.getMessage());
             return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(e.getMessage()));
-        } catch (Exception e) {
-            logger.error("[AUTH] Error en registro: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Ocurrió un error al procesar la solicitud"));
+                    .body(ApiResponse.error(error.getMessage()));
         }
+        logger.error("[AUTH] Error en registro: {}", error.getMessage(), error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Ocurrió un error al procesar la solicitud"));
+    }
+
+    private ResponseEntity<ApiResponse<?>> respuestaSaturado() {
+        logger.warn("[AUTH] Pool de hashing saturado, se rechaza la solicitud");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error("Servicio saturado, inténtelo de nuevo en unos segundos"));
+    }
+
+    private Throwable causa(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     @GetMapping("/perfil")
     public ResponseEntity<ApiResponse<?>> obtenerPerfilUsuario(@RequestParam Long usuarioId) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[AUTH] Inicio obtenerPerfilUsuario: {}", inicio);
-
         try {
             UsuarioDTO usuario = usuarioService.obtenerUsuarioPorId(usuarioId);
 
-            long fin = System.currentTimeMillis();
-            logger.info("[AUTH] Fin obtenerPerfilUsuario: {} (Duración: {} ms)", fin, (fin-inicio));
-
             return ResponseEntity.ok(ApiResponse.success("Perfil obtenido exitosamente", usuario));
         } catch (IllegalArgumentException e) {
             logger.warn("[AUTH] Error al obtener perfil: {}", e.getMessage());
@@ -144,15 +161,9 @@ public class AuthController {
     public ResponseEntity<ApiResponse<?>> actualizarPerfilUsuario(
             @PathVariable Long id,
             @Valid @RequestBody UsuarioDTO usuarioDTO) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[AUTH] Inicio actualizarPerfilUsuario: {}", inicio);
-
         try {
             UsuarioDTO usuarioActualizado = usuarioService.actualizarUsuario(id, usuarioDTO);
 
-            long fin = System.currentTimeMillis();
-            logger.info("[AUTH] Fin actualizarPerfilUsuario: {} (Duración: {} ms)", fin, (fin-inicio));
-
             return ResponseEntity.ok(ApiResponse.success("Perfil actualizado exitosamente", usuarioActualizado));
         } catch (IllegalArgumentException e) {
             logger.warn("[AUTH] Error al actualizar perfil: {}", e.getMessage());
@@ -1,12 +1,14 @@
 package com.bugabuga.e_commerce.controller;
 
 import com.bugabuga.e_commerce.model.dto.ApiResponse;
+import com.bugabuga.e_commerce.model.dto.CursorProducto;
 import com.bugabuga.e_commerce.model.dto.ProductoDTO;
 import com.bugabuga.e_commerce.service.ProductoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,7 +28,14 @@ public class CatalogoController {
     public ResponseEntity<ApiResponse<Map<String, Object>>> obtenerProductos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id") String sort) {
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            CursorProducto cursor = CursorProducto.decodificar(after, sort);
+            Slice<ProductoDTO> sliceProductos = productoService.obtenerProductosDespuesDe(cursor, sort, size);
+            return ResponseEntity.ok(ApiResponse.success("Productos obtenidos con éxito", respuestaPorCursor(sliceProductos, sort)));
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
         Page<ProductoDTO> pageProductos = productoService.obtenerTodosLosProductos(pageable);
@@ -68,7 +77,15 @@ public class CatalogoController {
     public ResponseEntity<ApiResponse<Map<String, Object>>> obtenerProductosPorTienda(
             @PathVariable Long tiendaId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            CursorProducto cursor = CursorProducto.decodificar(after, CursorProducto.CAMPO_ID);
+            Slice<ProductoDTO> sliceProductos = productoService.obtenerProductosPorTiendaDespuesDe(tiendaId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Productos de la tienda obtenidos con éxito",
+                    respuestaPorCursor(sliceProductos, CursorProducto.CAMPO_ID)));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<ProductoDTO> pageProductos = productoService.obtenerProductosPorTienda(tiendaId, pageable);
@@ -86,7 +103,15 @@ public class CatalogoController {
     public ResponseEntity<ApiResponse<Map<String, Object>>> obtenerProductosPorCategoria(
             @PathVariable Long categoriaId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            CursorProducto cursor = CursorProducto.decodificar(after, CursorProducto.CAMPO_ID);
+            Slice<ProductoDTO> sliceProductos = productoService.obtenerProductosPorCategoriaDespuesDe(categoriaId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Productos de la categoría obtenidos con éxito",
+                    respuestaPorCursor(sliceProductos, CursorProducto.CAMPO_ID)));
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<ProductoDTO> pageProductos = productoService.obtenerProductosPorCategoria(categoriaId, pageable);
@@ -105,4 +130,23 @@ public class CatalogoController {
         List<ProductoDTO> productos = productoService.obtenerProductosRecientes();
         return ResponseEntity.ok(ApiResponse.success("Productos recientes obtenidos con éxito", productos));
     }
+
+    /**
+     * Construye la respuesta de la paginación por cursor: sin totales, con el cursor de la siguiente página.
+     * Se activa enviando el parámetro "after" (vacío para la primera página).
+     */
+    private Map<String, Object> respuestaPorCursor(Slice<ProductoDTO> sliceProductos, String campo) {
+        List<ProductoDTO> productos = sliceProductos.getContent();
+
+        String siguiente = null;
+        if (sliceProductos.hasNext() && !productos.isEmpty()) {
+            siguiente = CursorProducto.despuesDe(productos.get(productos.size() - 1), campo).codificar();
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("productos", productos);
+        data.put("hasNext", sliceProductos.hasNext());
+        data.put("nextCursor", siguiente);
+        return data;
+    }
 }
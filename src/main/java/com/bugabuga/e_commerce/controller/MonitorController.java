@@ -2,6 +2,8 @@ package com.bugabuga.e_commerce.controller;
 
 import com.bugabuga.e_commerce.model.dto.ApiResponse;
 import com.bugabuga.e_commerce.service.CacheMonitorService;
+import com.bugabuga.e_commerce.service.CalificacionBackfillService;
+import com.bugabuga.e_commerce.service.RateLimiterService;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,10 +29,16 @@ import java.util.Map;
 public class MonitorController {
 
     private final CacheMonitorService cacheMonitorService;
+    private final CalificacionBackfillService calificacionBackfillService;
+    private final RateLimiterService rateLimiterService;
 
     @Autowired
-    public MonitorController(CacheMonitorService cacheMonitorService) {
+    public MonitorController(CacheMonitorService cacheMonitorService,
+                             CalificacionBackfillService calificacionBackfillService,
+                             RateLimiterService rateLimiterService) {
         this.cacheMonitorService = cacheMonitorService;
+        this.calificacionBackfillService = calificacionBackfillService;
+        this.rateLimiterService = rateLimiterService;
     }
 
     /**
@@ -39,6 +47,8 @@ public class MonitorController {
     @GetMapping("/cache")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStatistics() {
         Map<String, CacheStats> statsMap = cacheMonitorService.getCacheStatistics();
+        Map<String, Map<String, Long>> recargaMap = cacheMonitorService.getEstadisticasRecarga();
+        Map<String, Map<String, Object>> ocupacionMap = cacheMonitorService.getOcupacion();
         
         Map<String, Object> result = new HashMap<>();
         statsMap.forEach((cacheName, stats) -> {
@@ -48,6 +58,12 @@ public class MonitorController {
             cacheStats.put("hitRate", String.format("%.2f%%", stats.hitRate() * 100));
             cacheStats.put("evictions", stats.evictionCount());
             cacheStats.put("averageLoadPenalty", String.format("%.2f ms", stats.averageLoadPenalty() / 1_000_000.0));
+            if (ocupacionMap.containsKey(cacheName)) {
+                cacheStats.put("size", ocupacionMap.get(cacheName));
+            }
+            if (recargaMap.containsKey(cacheName)) {
+                cacheStats.put("refreshAhead", recargaMap.get(cacheName));
+            }
             
             result.put(cacheName, cacheStats);
         });
@@ -55,6 +71,27 @@ public class MonitorController {
         return ResponseEntity.ok(ApiResponse.success("Estadísticas de caché obtenidas con éxito", result));
     }
 
+    /**
+     * Obtiene estadísticas por región de la caché de segundo nivel de Hibernate
+     */
+    @GetMapping("/cache/hibernate")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getSecondLevelCacheStatistics() {
+        Map<String, Map<String, Object>> result = cacheMonitorService.getEstadisticasSegundoNivel();
+        return ResponseEntity.ok(ApiResponse.success("Estadísticas de la caché de segundo nivel obtenidas con éxito", result));
+    }
+
+    /**
+     * Obtiene las peticiones admitidas y rechazadas por el limitador, por grupo de rutas
+     */
+    @GetMapping("/rate-limit")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRateLimitStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("grupos", rateLimiterService.getEstadisticas());
+        result.put("clientesActivos", rateLimiterService.getClientesActivos());
+        
+        return ResponseEntity.ok(ApiResponse.success("Estadísticas del limitador de peticiones obtenidas con éxito", result));
+    }
+
     /**
      * Limpia todas las cachés
      */
@@ -64,6 +101,19 @@ public class MonitorController {
         return ResponseEntity.ok(ApiResponse.success("Todas las cachés han sido limpiadas"));
     }
 
+    /**
+     * Recalcula los agregados de calificación de todos los productos a partir de las reseñas
+     */
+    @PostMapping("/calificaciones/recalcular")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> recalcularCalificaciones() {
+        int actualizados = calificacionBackfillService.recalcularTodo();
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("productosActualizados", actualizados);
+        
+        return ResponseEntity.ok(ApiResponse.success("Calificaciones recalculadas con éxito", result));
+    }
+
     /**
      * Obtiene información del sistema
      */
@@ -1,18 +1,22 @@
 package com.bugabuga.e_commerce.controller;
 
+import com.bugabuga.e_commerce.model.dto.EstadoPagoDTO;
 import com.bugabuga.e_commerce.model.dto.PedidoDTO;
 import com.bugabuga.e_commerce.model.entity.Pago;
+import com.bugabuga.e_commerce.service.NotificadorPagos;
 import com.bugabuga.e_commerce.service.PagoService;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,59 +26,64 @@ import java.util.Map;
 public class PagoController {
 
     private final PagoService pagoService;
-    private static final Logger logger = LoggerFactory.getLogger(PagoController.class);
+    private final NotificadorPagos notificadorPagos;
 
     @Autowired
-    public PagoController(PagoService pagoService) {
+    public PagoController(PagoService pagoService, NotificadorPagos notificadorPagos) {
         this.pagoService = pagoService;
+        this.notificadorPagos = notificadorPagos;
     }
 
     @PostMapping("/procesar")
-    @Transactional
     public ResponseEntity<Map<String, Object>> procesarPago(
             @RequestParam Long usuarioId,
             @RequestParam Long pedidoId,
             @RequestParam Pago.MetodoPago metodoPago,
             @RequestBody Map<String, String> datosPago) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[PAGO] Inicio procesarPago: {}", inicio);
-        
-        PedidoDTO pedidoPagado = pagoService.procesarPago(usuarioId, pedidoId, metodoPago, datosPago);
+        PedidoDTO pedido = pagoService.procesarPago(usuarioId, pedidoId, metodoPago, datosPago);
+        Long pagoId = pedido.getPago().getId();
         
         Map<String, Object> respuesta = new HashMap<>();
-        respuesta.put("pedido", pedidoPagado);
-        respuesta.put("mensaje", "Pago procesado correctamente");
-        respuesta.put("estado", "COMPLETADO");
+        respuesta.put("pedido", pedido);
+        respuesta.put("pagoId", pagoId);
+        respuesta.put("mensaje", "Pago recibido, pendiente de confirmación");
+        respuesta.put("estado", Pago.EstadoPago.PENDIENTE.toString());
+        respuesta.put("eventos", "/api/pagos/" + pagoId + "/eventos");
         
-        long fin = System.currentTimeMillis();
-        logger.info("[PAGO] Fin procesarPago: {} (Duración: {} ms)", fin, (fin-inicio));
-        
-        return ResponseEntity.status(HttpStatus.OK).body(respuesta);
+        // 202: el cobro se completa en segundo plano; Location apunta al estado del pago
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/pagos/" + pagoId + "/estado"))
+                .body(respuesta);
     }
 
     @GetMapping("/{pagoId}")
     public ResponseEntity<Map<String, Object>> obtenerInformacionPago(@PathVariable Long pagoId) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[PAGO] Inicio obtenerInformacionPago: {}", inicio);
-        
         Map<String, Object> infoPago = pagoService.obtenerInformacionPago(pagoId);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[PAGO] Fin obtenerInformacionPago: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.ok(infoPago);
     }
 
+    @GetMapping("/{pagoId}/estado")
+    public ResponseEntity<EstadoPagoDTO> obtenerEstadoPago(@PathVariable Long pagoId) {
+        EstadoPagoDTO estado = pagoService.obtenerEstadoPago(pagoId);
+        
+        // Mientras siga pendiente se sugiere cuándo volver a consultar
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (!estado.isDefinitivo()) {
+            respuesta.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return respuesta.body(estado);
+    }
+
+    @GetMapping(path = "/{pagoId}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter seguirPago(@PathVariable Long pagoId) {
+        return notificadorPagos.suscribir(pagoId, () -> pagoService.obtenerEstadoPago(pagoId));
+    }
+
     @GetMapping("/usuario/{usuarioId}")
     public ResponseEntity<Map<String, Object>> obtenerHistorialPagosUsuario(@PathVariable Long usuarioId) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[PAGO] Inicio obtenerHistorialPagosUsuario: {}", inicio);
-        
         Map<String, Object> historialPagos = pagoService.obtenerHistorialPagosUsuario(usuarioId);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[PAGO] Fin obtenerHistorialPagosUsuario: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.ok(historialPagos);
     }
 
@@ -83,14 +92,8 @@ public class PagoController {
     public ResponseEntity<Map<String, Object>> procesarReembolso(
             @PathVariable Long pagoId,
             @RequestBody Map<String, String> datosReembolso) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[PAGO] Inicio procesarReembolso: {}", inicio);
-        
         Map<String, Object> resultadoReembolso = pagoService.procesarReembolso(pagoId, datosReembolso);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[PAGO] Fin procesarReembolso: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.ok(resultadoReembolso);
     }
 }
@@ -0,0 +1,33 @@
+package com.bugabuga.e_commerce.controller;
+
+import com.bugabuga.e_commerce.model.dto.CheckoutDTO;
+import com.bugabuga.e_commerce.model.dto.PedidoDTO;
+import com.bugabuga.e_commerce.service.CheckoutService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/pedidos")
+@Validated
+public class PedidoController {
+
+    private final CheckoutService checkoutService;
+
+    @Autowired
+    public PedidoController(CheckoutService checkoutService) {
+        this.checkoutService = checkoutService;
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<PedidoDTO> realizarCheckout(
+            @RequestParam Long usuarioId,
+            @Valid @RequestBody CheckoutDTO datos) {
+        PedidoDTO pedido = checkoutService.realizarCheckout(usuarioId, datos);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(pedido);
+    }
+}
@@ -4,8 +4,6 @@ import com.bugabuga.e_commerce.model.entity.Reseña;
 import com.bugabuga.e_commerce.service.ReseñaService;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,7 +23,6 @@ import java.util.Map;
 public class ReseñaController {
 
     private final ReseñaService reseñaService;
-    private static final Logger logger = LoggerFactory.getLogger(ReseñaController.class);
 
     @Autowired
     public ReseñaController(ReseñaService reseñaService) {
@@ -39,9 +36,6 @@ public class ReseñaController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "fechaCreacion") String sort,
             @RequestParam(defaultValue = "desc") String direction) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[RESEÑA] Inicio obtenerReseñasPorProducto: {}", inicio);
-        
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
         
@@ -56,9 +50,6 @@ public class ReseñaController {
         Double calificacionPromedio = reseñaService.calcularCalificacionPromedio(productoId);
         respuesta.put("calificacionPromedio", calificacionPromedio);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[RESEÑA] Fin obtenerReseñasPorProducto: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.ok(respuesta);
     }
 
@@ -67,9 +58,6 @@ public class ReseñaController {
             @PathVariable Long usuarioId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[RESEÑA] Inicio obtenerReseñasPorUsuario: {}", inicio);
-        
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "fechaCreacion"));
         
         Page<Reseña> reseñas = reseñaService.obtenerReseñasPorUsuario(usuarioId, pageable);
@@ -80,23 +68,14 @@ public class ReseñaController {
         respuesta.put("totalItems", reseñas.getTotalElements());
         respuesta.put("totalPages", reseñas.getTotalPages());
         
-        long fin = System.currentTimeMillis();
-        logger.info("[RESEÑA] Fin obtenerReseñasPorUsuario: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.ok(respuesta);
     }
 
     @PostMapping
     @Transactional
     public ResponseEntity<Reseña> crearReseña(@Valid @RequestBody Reseña reseña) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[RESEÑA] Inicio crearReseña: {}", inicio);
-        
         Reseña nuevaReseña = reseñaService.crearReseña(reseña);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[RESEÑA] Fin crearReseña: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevaReseña);
     }
 
@@ -105,28 +84,16 @@ public class ReseñaController {
     public ResponseEntity<Reseña> actualizarReseña(
             @PathVariable Long id,
             @Valid @RequestBody Reseña reseña) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[RESEÑA] Inicio actualizarReseña: {}", inicio);
-        
         Reseña reseñaActualizada = reseñaService.actualizarReseña(id, reseña);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[RESEÑA] Fin actualizarReseña: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.ok(reseñaActualizada);
     }
 
     @DeleteMapping("/{id}")
     @Transactional
     public ResponseEntity<Void> eliminarReseña(@PathVariable Long id) {
-        long inicio = System.currentTimeMillis();
-        logger.info("[RESEÑA] Inicio eliminarReseña: {}", inicio);
-        
         reseñaService.eliminarReseña(id);
         
-        long fin = System.currentTimeMillis();
-        logger.info("[RESEÑA] Fin eliminarReseña: {} (Duración: {} ms)", fin, (fin-inicio));
-        
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,15 @@
+package com.bugabuga.e_commerce.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento del outbox tal como lo reciben los sumideros y los {@code @EventListener} de la aplicación.
+ * La entrega es al menos una vez: un mismo {@code id} puede llegar repetido tras un fallo.
+ *
+ * @param agregado PEDIDO o PAGO
+ * @param tipo     agregado y estado nuevo, por ejemplo PEDIDO_PAGADO
+ * @param carga    estado del agregado tras el cambio, en JSON
+ */
+public record EventoDominio(Long id, String agregado, Long agregadoId, String tipo, String carga,
+                            LocalDateTime fechaCreacion) {
+}
@@ -0,0 +1,12 @@
+package com.bugabuga.e_commerce.event;
+
+import com.bugabuga.e_commerce.model.dto.EstadoPagoDTO;
+
+/**
+ * Se publica cuando la cola de pagos resuelve un pago (completado o fallido).
+ * Los oyentes actúan tras el commit de la transacción que lo publica.
+ *
+ * @param estado estado del pago y de su pedido tras la resolución
+ */
+public record PagoActualizadoEvent(EstadoPagoDTO estado) {
+}
@@ -0,0 +1,9 @@
+package com.bugabuga.e_commerce.event;
+
+/**
+ * Se publica al dejar un pago en la cola de cobro. Tras el commit despierta a los trabajadores de la cola.
+ *
+ * @param pagoId id del pago PENDIENTE
+ */
+public record PagoEncoladoEvent(Long pagoId) {
+}
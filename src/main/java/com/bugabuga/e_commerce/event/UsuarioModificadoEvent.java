@@ -0,0 +1,12 @@
+package com.bugabuga.e_commerce.event;
+
+/**
+ * Se publica cuando cambian los datos de autenticación de un usuario (email, contraseña o estado).
+ * Los oyentes actúan tras el commit de la transacción que lo publica.
+ *
+ * @param usuarioId      id del usuario modificado
+ * @param emailAnterior  email con el que estaba identificado antes del cambio
+ * @param revocarTokens  si los tokens ya emitidos para el usuario dejan de ser válidos
+ */
+public record UsuarioModificadoEvent(Long usuarioId, String emailAnterior, boolean revocarTokens) {
+}
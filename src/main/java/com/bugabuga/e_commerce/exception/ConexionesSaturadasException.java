@@ -0,0 +1,15 @@
+package com.bugabuga.e_commerce.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Se rechaza la petición de una conexión porque ya hay demasiados hilos esperando al pool.
+ * Es transitoria: la solicitud puede reintentarse en cuanto baje la espera.
+ */
+public class ConexionesSaturadasException extends SQLTransientConnectionException {
+    private static final long serialVersionUID = 1L;
+
+    public ConexionesSaturadasException(String message) {
+        super(message);
+    }
+}
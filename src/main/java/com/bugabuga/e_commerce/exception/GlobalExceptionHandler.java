@@ -2,13 +2,16 @@ package com.bugabuga.e_commerce.exception;
 
 import com.bugabuga.e_commerce.model.dto.ApiResponse;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -38,6 +41,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    /**
+     * Maneja la falta de stock al confirmar un pedido, indicando qué productos no alcanzan
+     * @return ResponseEntity con estado 409 CONFLICT
+     */
+    @ExceptionHandler(StockInsuficienteException.class)
+    public ResponseEntity<ApiResponse<?>> handleStockInsuficiente(StockInsuficienteException ex, WebRequest request) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getProductoIds().forEach(productoId -> errors.put(String.valueOf(productoId), "Stock insuficiente"));
+
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+        ApiResponse<?> response = ApiResponse.error("No hay stock suficiente para completar el pedido", errors, path);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     /**
      * Maneja excepciones de validación de argumentos de método
      * @return ResponseEntity con estado 400 BAD_REQUEST
@@ -154,6 +171,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
+    /**
+     * Maneja la falta de conexión a la base de datos. Si la causa es que ya hay demasiados hilos
+     * esperando al pool (perfil virtual), la solicitud puede reintentarse.
+     * @return ResponseEntity con estado 503 SERVICE_UNAVAILABLE, o 500 para el resto de fallos
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiResponse<?>> handleConexionNoDisponible(Exception ex, WebRequest request) {
+        for (Throwable causa = ex; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConexionesSaturadasException) {
+                String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+                ApiResponse<?> response = ApiResponse.error("Servicio saturado, inténtelo de nuevo en unos segundos", null, path);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(response);
+            }
+        }
+        return globalExceptionHandler(ex, request);
+    }
+
     /**
      * Maneja cualquier otra excepción no capturada
      * @return ResponseEntity con estado 500 INTERNAL_SERVER_ERROR
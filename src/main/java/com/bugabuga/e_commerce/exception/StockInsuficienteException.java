@@ -0,0 +1,22 @@
+package com.bugabuga.e_commerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class StockInsuficienteException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> productoIds;
+
+    public StockInsuficienteException(List<Long> productoIds) {
+        super("Stock insuficiente para los productos: " + productoIds);
+        this.productoIds = List.copyOf(productoIds);
+    }
+
+    public List<Long> getProductoIds() {
+        return productoIds;
+    }
+}
@@ -0,0 +1,71 @@
+package com.bugabuga.e_commerce.filter;
+
+import com.bugabuga.e_commerce.config.ContadorConsultas;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Filtro que cuenta las sentencias SQL de cada solicitud con {@link ContadorConsultas}.
+ * Registra el histograma {@code queries.per.request} por endpoint, mantiene la cuenta en el MDC
+ * ({@code queries}) durante toda la solicitud y avisa cuando supera {@code app.queries.umbral-advertencia},
+ * síntoma habitual de un N+1.
+ * Va justo después de RequestIdFilter para contar también las consultas de la cadena de seguridad.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConsultasPorPeticionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsultasPorPeticionFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long umbralAdvertencia;
+
+    public ConsultasPorPeticionFilter(MeterRegistry meterRegistry,
+                                      @Value("${app.queries.umbral-advertencia:20}") long umbralAdvertencia) {
+        this.meterRegistry = meterRegistry;
+        this.umbralAdvertencia = umbralAdvertencia;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long inicio = ContadorConsultas.iniciarPeticion();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            try {
+                long consultas = ContadorConsultas.consultasEnHilo() - inicio;
+                Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = patron != null ? patron.toString() : "UNKNOWN";
+
+                DistributionSummary.builder("queries.per.request")
+                        .description("Sentencias SQL ejecutadas por solicitud")
+                        .tag("uri", uri)
+                        .tag("method", request.getMethod())
+                        .register(meterRegistry)
+                        .record(consultas);
+
+                if (consultas > umbralAdvertencia) {
+                    logger.warn("{} {} ejecutó {} consultas (umbral {})", request.getMethod(), uri, consultas, umbralAdvertencia);
+                }
+            } finally {
+                ContadorConsultas.terminarPeticion();
+            }
+        }
+    }
+}
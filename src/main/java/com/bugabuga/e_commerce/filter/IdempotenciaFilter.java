@@ -0,0 +1,277 @@
+package com.bugabuga.e_commerce.filter;
+
+import com.bugabuga.e_commerce.model.dto.ApiResponse;
+import com.bugabuga.e_commerce.security.JwtAuthenticationFilter;
+import com.bugabuga.e_commerce.service.IdempotenciaService;
+import com.bugabuga.e_commerce.service.IdempotenciaService.Decision;
+import com.bugabuga.e_commerce.service.IdempotenciaService.Respuesta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Hace idempotentes las rutas de {@code app.idempotencia.rutas} cuando el cliente envía {@code Idempotency-Key}.
+ * La primera solicitud con una clave se ejecuta y, si llegó al controlador, su respuesta (2xx o 4xx salvo 401, 403
+ * y 429) se guarda; los reintentos con la
+ * misma clave y los mismos datos reciben esa respuesta, con la cabecera {@code Idempotent-Replayed}, sin volver
+ * a ejecutar el controlador. Un reintento mientras la primera sigue en curso recibe 409, y la misma clave con
+ * otros datos, 422. Para calcular la huella el cuerpo se lee en memoria, hasta {@code app.idempotencia.cuerpo-maximo};
+ * uno mayor recibe 413. Si la solicitud no se guarda (5xx, excepción, rechazo de la autorización) la clave se
+ * libera y el reintento se ejecuta;
+ * si la instancia cae a mitad, el reintento la ejecuta cuando caduca el bloqueo ({@code app.idempotencia.bloqueo}).
+ * <p>
+ * Solo aplica a solicitudes autenticadas; las claves son por usuario, método y ruta. Se registra en la cadena de seguridad después de
+ * {@link RateLimitFilter}, con el usuario ya identificado.
+ */
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+    private static final int LONGITUD_MAXIMA = 255;
+    private static final Set<Integer> NO_GUARDABLES = Set.of(HttpStatus.UNAUTHORIZED.value(),
+            HttpStatus.FORBIDDEN.value(), HttpStatus.TOO_MANY_REQUESTS.value());
+
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
+    private final int cuerpoMaximo;
+    // Métodos y rutas exactas, por ejemplo "POST /api/pagos/procesar"
+    private final Set<String> rutas;
+    private final Map<IdempotenciaService.Tipo, Counter> contadores = new EnumMap<>(IdempotenciaService.Tipo.class);
+
+    public IdempotenciaFilter(IdempotenciaService idempotenciaService,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.idempotencia.rutas:}") List<String> rutas,
+                              @Value("${app.idempotencia.cuerpo-maximo:1MB}") DataSize cuerpoMaximo) {
+        this.idempotenciaService = idempotenciaService;
+        this.objectMapper = objectMapper;
+        this.cuerpoMaximo = Math.toIntExact(cuerpoMaximo.toBytes());
+        this.rutas = rutas.stream().map(String::trim).filter(ruta -> !ruta.isEmpty()).collect(Collectors.toUnmodifiableSet());
+        for (IdempotenciaService.Tipo tipo : IdempotenciaService.Tipo.values()) {
+            contadores.put(tipo, Counter.builder("idempotencia.solicitudes")
+                    .description("Solicitudes con Idempotency-Key según su resultado")
+                    .tag("resultado", tipo.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(CABECERA) == null || !rutas.contains(request.getMethod() + " " + ruta(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Object usuarioId = request.getAttribute(JwtAuthenticationFilter.ATRIBUTO_USUARIO_ID);
+        if (usuarioId == null) {
+            // Sin usuario la solicitud acabará en 401; no hay nada que guardar
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String claveCliente = request.getHeader(CABECERA);
+        if (claveCliente.isBlank() || claveCliente.length() > LONGITUD_MAXIMA) {
+            escribirError(response, request, HttpStatus.BAD_REQUEST,
+                    "La cabecera " + CABECERA + " debe tener entre 1 y " + LONGITUD_MAXIMA + " caracteres");
+            return;
+        }
+
+        // Los parámetros se leen antes que el cuerpo: en un formulario vienen en él
+        Map<String, String[]> parametros = new TreeMap<>(request.getParameterMap());
+        byte[] cuerpo = request.getContentLengthLong() > cuerpoMaximo
+                ? null : request.getInputStream().readNBytes(cuerpoMaximo + 1);
+        if (cuerpo == null || cuerpo.length > cuerpoMaximo) {
+            escribirError(response, request, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "El cuerpo de una solicitud con " + CABECERA + " no puede superar " + cuerpoMaximo + " bytes");
+            return;
+        }
+        String clave = "usuario:" + usuarioId + ":" + request.getMethod() + " " + ruta(request) + ":" + claveCliente;
+
+        String huella = huella(parametros, cuerpo);
+
+        Decision decision = idempotenciaService.iniciar(clave, huella);
+        contadores.get(decision.tipo()).increment();
+        switch (decision.tipo()) {
+            case NUEVA -> ejecutar(new CuerpoLeido(request, cuerpo), response, filterChain, clave, huella,
+                    decision.propietario());
+            case REPETIDA -> repetir(response, decision.respuesta());
+            case EN_CURSO -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                escribirError(response, request, HttpStatus.CONFLICT,
+                        "Ya hay una solicitud en curso con esta " + CABECERA);
+            }
+            case CONFLICTO -> escribirError(response, request, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La " + CABECERA + " ya se usó con una solicitud distinta");
+        }
+    }
+
+    private void ejecutar(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                          String clave, String huella, String propietario) throws ServletException, IOException {
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        boolean completada = false;
+        try {
+            filterChain.doFilter(request, respuesta);
+            if (guardable(request, respuesta.getStatus())) {
+                idempotenciaService.completar(clave, propietario, new Respuesta(huella, respuesta.getStatus(),
+                        respuesta.getContentType(), respuesta.getContentAsByteArray()));
+                completada = true;
+            }
+        } finally {
+            if (!completada) {
+                idempotenciaService.liberar(clave, propietario);
+            }
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Solo se guardan las respuestas del controlador. Un 401/403 de la autorización (que va después en la cadena
+     * o en {@code @PreAuthorize}) o un 429 dependen del momento y no del resultado de la operación: guardarlos
+     * los repetiría aunque el usuario ya tuviera acceso
+     */
+    private static boolean guardable(HttpServletRequest request, int estado) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) != null
+                && estado < HttpStatus.INTERNAL_SERVER_ERROR.value()
+                && !NO_GUARDABLES.contains(estado);
+    }
+
+    private void repetir(HttpServletResponse response, Respuesta guardada) throws IOException {
+        response.setStatus(guardada.estadoHttp());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (guardada.tipoContenido() != null) {
+            response.setContentType(guardada.tipoContenido());
+        }
+        if (guardada.cuerpo() != null) {
+            response.setContentLength(guardada.cuerpo().length);
+            response.getOutputStream().write(guardada.cuerpo());
+        }
+    }
+
+    private void escribirError(HttpServletResponse response, HttpServletRequest request, HttpStatus estado, String mensaje)
+            throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(mensaje, null, ruta(request)));
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String huella(Map<String, String[]> parametros, byte[] cuerpo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            parametros.forEach((nombre, valores) ->
+                    sha.update((nombre + "=" + Arrays.toString(valores) + "\n").getBytes(StandardCharsets.UTF_8)));
+            sha.update(cuerpo);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Solicitud cuyo cuerpo ya se leyó para calcular la huella; lo vuelve a servir desde memoria
+     */
+    private static final class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // El cuerpo ya está en memoria: todo está disponible desde el principio
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bugabuga.e_commerce.filter;
+
+import com.bugabuga.e_commerce.model.dto.ApiResponse;
+import com.bugabuga.e_commerce.security.JwtAuthenticationFilter;
+import com.bugabuga.e_commerce.service.RateLimiterService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de control de admisión: rechaza con 429 y Retry-After las peticiones que superan
+ * el presupuesto de su grupo de rutas. Se registra en la cadena de seguridad después de
+ * {@link JwtAuthenticationFilter}, para contar por usuario cuando el token es válido y por IP si no.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiterService rateLimiterService;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiterService rateLimiterService, ObjectMapper objectMapper) {
+        this.rateLimiterService = rateLimiterService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimiterService.Decision decision = rateLimiterService.admitir(ruta, identificarCliente(request));
+        if (decision.admitida()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.esperaNanos() + 999_999_999L));
+        logger.debug("Petición limitada: {} (reintentar en {} s)", ruta, segundos);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ApiResponse<?> body = ApiResponse.error("Demasiadas solicitudes, inténtelo de nuevo en " + segundos + " s", null, ruta);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private String identificarCliente(HttpServletRequest request) {
+        Object usuarioId = request.getAttribute(JwtAuthenticationFilter.ATRIBUTO_USUARIO_ID);
+        return usuarioId != null ? "usuario:" + usuarioId : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -9,28 +9,23 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
- * Interceptor para registrar información sobre las solicitudes HTTP
+ * Interceptor para registrar información sobre las solicitudes HTTP.
+ * La duración de cada solicitud la mide Micrometer ({@code http.server.requests}), no este log.
  */
 @Component
 public class LoggingInterceptor implements HandlerInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggingInterceptor.class);
-    private static final String START_TIME_ATTRIBUTE = "startTime";
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // Guardar el tiempo de inicio de la solicitud
-        request.setAttribute(START_TIME_ATTRIBUTE, System.currentTimeMillis());
-        
-        // Registrar información de la solicitud
+        // Parámetros y headers se renderizan al formatear el mensaje, en este hilo y sin mapas intermedios.
+        // El appender asíncrono formatea antes de encolar, así que nunca se leen tras terminar la solicitud.
         if (logger.isDebugEnabled()) {
-            logger.debug("Solicitud recibida: {} {}", request.getMethod(), request.getRequestURI());
-            logger.debug("Parámetros: {}", getParameters(request));
-            logger.debug("Headers: {}", getHeaders(request));
+            logger.debug("Solicitud recibida: {} {} - Parámetros: {} - Headers: {}", request.getMethod(),
+                    request.getRequestURI(), new Parametros(request), new Headers(request));
         }
         
         return true;
@@ -43,62 +38,65 @@ public class LoggingInterceptor implements HandlerInterceptor {
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        // Calcular el tiempo de procesamiento
-        Long startTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
-        if (startTime != null) {
-            long duration = System.currentTimeMillis() - startTime;
-            
-            // Registrar información de la respuesta
-            logger.info("{} {} - {} - {} ms", request.getMethod(), request.getRequestURI(), 
-                    response.getStatus(), duration);
-            
-            if (ex != null) {
-                logger.error("Error procesando solicitud: {}", ex.getMessage(), ex);
-            }
+        logger.debug("{} {} - {}", request.getMethod(), request.getRequestURI(), response.getStatus());
+        
+        if (ex != null) {
+            logger.error("Error procesando solicitud: {}", ex.getMessage(), ex);
         }
     }
 
     /**
-     * Obtiene los parámetros de la solicitud como un mapa
+     * Parámetros de la solicitud, renderizados al formatear el mensaje
      */
-    private Map<String, String> getParameters(HttpServletRequest request) {
-        Map<String, String> parameters = new HashMap<>();
-        Enumeration<String> parameterNames = request.getParameterNames();
-        
-        while (parameterNames.hasMoreElements()) {
-            String name = parameterNames.nextElement();
-            String value = request.getParameter(name);
+    private record Parametros(HttpServletRequest request) {
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder("{");
+            Enumeration<String> parameterNames = request.getParameterNames();
             
-            // Ocultar información sensible
-            if (name.toLowerCase().contains("password") || name.toLowerCase().contains("token")) {
-                value = "******";
+            while (parameterNames.hasMoreElements()) {
+                String name = parameterNames.nextElement();
+                
+                // Ocultar información sensible
+                String lower = name.toLowerCase();
+                String value = lower.contains("password") || lower.contains("token") ? "******" : request.getParameter(name);
+                
+                agregar(texto, name, value);
             }
             
-            parameters.put(name, value);
+            return texto.append('}').toString();
         }
-        
-        return parameters;
     }
 
     /**
-     * Obtiene los headers de la solicitud como un mapa
+     * Headers de la solicitud, renderizados al formatear el mensaje
      */
-    private Map<String, String> getHeaders(HttpServletRequest request) {
-        Map<String, String> headers = new HashMap<>();
-        Enumeration<String> headerNames = request.getHeaderNames();
-        
-        while (headerNames.hasMoreElements()) {
-            String name = headerNames.nextElement();
-            String value = request.getHeader(name);
+    private record Headers(HttpServletRequest request) {
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder("{");
+            Enumeration<String> headerNames = request.getHeaderNames();
             
-            // Ocultar información sensible
-            if (name.toLowerCase().contains("authorization") || name.toLowerCase().contains("cookie")) {
-                value = "******";
+            while (headerNames.hasMoreElements()) {
+                String name = headerNames.nextElement();
+                
+                // Ocultar información sensible
+                String lower = name.toLowerCase();
+                String value = lower.contains("authorization") || lower.contains("cookie") ? "******" : request.getHeader(name);
+                
+                agregar(texto, name, value);
             }
             
-            headers.put(name, value);
+            return texto.append('}').toString();
         }
-        
-        return headers;
+    }
+
+    private static void agregar(StringBuilder texto, String name, String value) {
+        if (texto.length() > 1) {
+            texto.append(", ");
+        }
+        texto.append(name).append('=').append(value);
     }
 }
@@ -0,0 +1,23 @@
+package com.bugabuga.e_commerce.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos de envío con los que se confirma el carrito como pedido
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutDTO {
+
+    @NotBlank(message = "La dirección de envío es obligatoria")
+    @Size(max = 255, message = "La dirección no puede tener más de 255 caracteres")
+    private String direccionEnvio;
+
+    @Size(max = 30, message = "El teléfono no puede tener más de 30 caracteres")
+    private String telefonoContacto;
+}
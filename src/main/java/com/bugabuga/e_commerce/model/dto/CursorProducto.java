@@ -0,0 +1,88 @@
+package com.bugabuga.e_commerce.model.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Cursor opaco para la paginación por clave (keyset) del catálogo.
+ * Codifica el campo de ordenación, el valor de ese campo en el último producto devuelto y su id.
+ */
+public record CursorProducto(String campo, String valor, Long id) {
+
+    public static final String CAMPO_ID = "id";
+    public static final String CAMPO_NOMBRE = "nombre";
+    public static final String CAMPO_PRECIO = "precio";
+
+    private static final Set<String> CAMPOS_SOPORTADOS = Set.of(CAMPO_ID, CAMPO_NOMBRE, CAMPO_PRECIO);
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Verifica que el campo de ordenación admita paginación por clave
+     */
+    public static String validarCampo(String campo) {
+        if (!CAMPOS_SOPORTADOS.contains(campo)) {
+            throw new IllegalArgumentException("La paginación por cursor solo admite ordenar por: " + CAMPOS_SOPORTADOS);
+        }
+        return campo;
+    }
+
+    /**
+     * Crea el cursor que apunta justo después del producto indicado
+     */
+    public static CursorProducto despuesDe(ProductoDTO producto, String campo) {
+        String valor = switch (validarCampo(campo)) {
+            case CAMPO_NOMBRE -> producto.getNombre();
+            case CAMPO_PRECIO -> producto.getPrecio().toPlainString();
+            default -> String.valueOf(producto.getId());
+        };
+        return new CursorProducto(campo, valor, producto.getId());
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente. Un valor vacío representa la primera página.
+     */
+    public static CursorProducto decodificar(String token, String campoEsperado) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        String[] partes;
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            partes = texto.split("\\" + SEPARADOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido");
+        }
+
+        if (partes.length != 3 || !partes[0].equals(campoEsperado)) {
+            throw new IllegalArgumentException("El cursor de paginación no corresponde a la ordenación solicitada");
+        }
+
+        try {
+            return new CursorProducto(partes[0], partes[2], Long.valueOf(partes[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido");
+        }
+    }
+
+    /**
+     * Codifica el cursor como un token opaco apto para URLs
+     */
+    public String codificar() {
+        String texto = campo + SEPARADOR + id + SEPARADOR + valor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Valor del último precio devuelto, para los cursores ordenados por precio
+     */
+    public BigDecimal valorComoPrecio() {
+        try {
+            return new BigDecimal(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bugabuga.e_commerce.model.dto;
+
+import com.bugabuga.e_commerce.model.entity.Pago;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de un pago en la cola de cobro, para la consulta y el flujo de eventos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoPagoDTO {
+    private Long pagoId;
+    private Long pedidoId;
+    private Pago.EstadoPago estado;
+    private Pedido.EstadoPedido estadoPedido;
+    private String referenciaPago;
+    private String motivoRechazo;
+
+    public boolean isDefinitivo() {
+        return estado != Pago.EstadoPago.PENDIENTE;
+    }
+}
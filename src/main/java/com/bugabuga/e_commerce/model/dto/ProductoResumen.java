@@ -0,0 +1,23 @@
+package com.bugabuga.e_commerce.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de solo lectura con las columnas que necesita ProductoDTO.
+ * Se construye directamente en las consultas JPQL (constructor expression), sin
+ * hidratar entidades ni pasar por el contexto de persistencia.
+ */
+public record ProductoResumen(
+        Long id,
+        String nombre,
+        String descripcion,
+        BigDecimal precio,
+        Integer stock,
+        String imagenUrl,
+        Long tiendaId,
+        String tiendaNombre,
+        Long categoriaId,
+        String categoriaNombre,
+        long sumaCalificaciones,
+        int cantidadCalificaciones) {
+}
@@ -0,0 +1,43 @@
+package com.bugabuga.e_commerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Libro de asignaciones del stock en memoria: por producto e instancia, las unidades ya descontadas
+ * de {@code productos.stock} y las vendidas. La diferencia es lo que la instancia tiene en memoria
+ * (más las ventas aún sin anotar) y es lo que se devuelve al producto si la instancia se detiene o cae.
+ */
+@Entity
+@Table(name = "asignaciones_stock",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"producto_id", "instancia"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsignacionStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asignaciones_stock_seq")
+    @SequenceGenerator(name = "asignaciones_stock_seq", sequenceName = "asignaciones_stock_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false, length = 100)
+    private String instancia;
+
+    @Column(nullable = false)
+    private long asignadas;
+
+    @Column(nullable = false)
+    private long vendidas;
+
+    // Momento de la última anotación de ventas; las ventas posteriores pueden no estar en vendidas
+    @Column(nullable = false)
+    private LocalDateTime fechaVolcado = LocalDateTime.now();
+}
@@ -0,0 +1,63 @@
+package com.bugabuga.e_commerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada para una cabecera {@code Idempotency-Key}. La fila se crea EN_CURSO antes de
+ * ejecutar la solicitud (la restricción única impide que dos reintentos la ejecuten a la vez) y pasa a
+ * COMPLETADA con el estado HTTP y el cuerpo que recibió el cliente. Si la ejecución no termina antes de
+ * {@code bloqueadaHasta} (la instancia cayó), un reintento con los mismos datos puede tomar la clave.
+ */
+@Entity
+@Table(name = "claves_idempotencia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "claves_idempotencia_seq")
+    @SequenceGenerator(name = "claves_idempotencia_seq", sequenceName = "claves_idempotencia_seq", allocationSize = 50)
+    private Long id;
+
+    // Usuario, método, ruta y la clave enviada por el cliente
+    @Column(nullable = false, unique = true, length = 400)
+    private String clave;
+
+    // SHA-256 de la solicitud, para rechazar la misma clave con otros datos
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Estado estado = Estado.EN_CURSO;
+
+    @Column
+    private Integer estadoHttp;
+
+    @Column
+    private String tipoContenido;
+
+    @Column
+    private byte[] cuerpo;
+
+    // Fin del bloqueo de la ejecución EN_CURSO; pasado ese momento otro reintento puede tomar la clave
+    @Column
+    private LocalDateTime bloqueadaHasta;
+
+    // Ejecución que tiene la clave: una ejecución a la que otro reintento quitó la clave no la completa ni la libera
+    @Column(length = 36)
+    private String propietario;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+
+    public enum Estado {
+        EN_CURSO, COMPLETADA
+    }
+}
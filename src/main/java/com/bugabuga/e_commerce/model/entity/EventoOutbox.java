@@ -0,0 +1,69 @@
+package com.bugabuga.e_commerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de estado de un pedido o un pago pendiente de publicar. Se inserta en la misma transacción que el
+ * cambio, así que existe si y solo si el cambio se confirmó; {@code fechaPublicacion} queda vacía hasta que
+ * el publicador lo entrega a todos los sumideros. Si alguno falla, el evento guarda a cuáles ya se entregó y
+ * se reintenta más tarde solo con los demás; tras {@code app.outbox.max-intentos} fallos se descarta.
+ */
+@Entity
+@Table(name = "outbox_eventos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutbox {
+
+    public static final int LONGITUD_ERROR = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_eventos_seq")
+    @SequenceGenerator(name = "outbox_eventos_seq", sequenceName = "outbox_eventos_seq", allocationSize = 50)
+    private Long id;
+
+    // PEDIDO o PAGO
+    @Column(nullable = false, length = 20)
+    private String agregado;
+
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    // Agregado y estado nuevo, por ejemplo PAGO_COMPLETADO
+    @Column(nullable = false, length = 50)
+    private String tipo;
+
+    // Estado del agregado tras el cambio, en JSON
+    @Column(nullable = false, length = 4000)
+    private String carga;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+
+    @Column
+    private LocalDateTime fechaPublicacion;
+
+    // Tras un fallo no se vuelve a leer hasta esta fecha
+    @Column(nullable = false)
+    private LocalDateTime disponibleDesde = LocalDateTime.now();
+
+    // Entregas fallidas
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(length = LONGITUD_ERROR)
+    private String ultimoError;
+
+    // Sumideros que ya lo recibieron, separados por comas; solo se rellena si otro falló
+    @Column(length = 500)
+    private String sumiderosEntregados;
+
+    // Descartado tras agotar los intentos: no se vuelve a leer ni se purga
+    @Column
+    private LocalDateTime fechaDescarte;
+}
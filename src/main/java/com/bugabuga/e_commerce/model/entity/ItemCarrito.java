@@ -13,7 +13,8 @@ import lombok.NoArgsConstructor;
 public class ItemCarrito {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_carrito_seq")
+    @SequenceGenerator(name = "items_carrito_seq", sequenceName = "items_carrito_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
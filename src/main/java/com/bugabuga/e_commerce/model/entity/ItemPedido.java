@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 public class ItemPedido {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_pedido_seq")
+    @SequenceGenerator(name = "items_pedido_seq", sequenceName = "items_pedido_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class Pago {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pagos_seq")
+    @SequenceGenerator(name = "pagos_seq", sequenceName = "pagos_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne
@@ -36,6 +37,10 @@ public class Pago {
     @Column
     private String referenciaPago;
 
+    // Motivo devuelto por la pasarela cuando el pago queda FALLIDO
+    @Column
+    private String motivoRechazo;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private EstadoPago estado = EstadoPago.PENDIENTE;
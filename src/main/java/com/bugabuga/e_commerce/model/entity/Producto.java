@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -19,7 +20,8 @@ import java.util.List;
 public class Producto extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -31,7 +33,9 @@ public class Producto extends BaseEntity {
     @Column(nullable = false)
     private BigDecimal precio;
 
-    @Column
+    // No se escribe con la entidad: solo con UPDATE condicionales (checkout, devoluciones, edición), para que
+    // guardar el producto con un valor leído antes no deshaga las ventas hechas entretanto
+    @Column(updatable = false)
     private Integer stock;
 
     @Column
@@ -50,4 +54,14 @@ public class Producto extends BaseEntity {
 
     @Column
     private boolean activo = true;
+
+    // Agregados de reseñas desnormalizados, mantenidos por ReseñaService en la misma transacción con
+    // UPDATE atómicos; no se escriben con la entidad, para que guardar un producto leído antes no los pise
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private long sumaCalificaciones = 0;
+
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int cantidadCalificaciones = 0;
 }
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Reseña {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reseñas_seq")
+    @SequenceGenerator(name = "reseñas_seq", sequenceName = "reseñas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,52 @@
+package com.bugabuga.e_commerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada de la cola de pagos: un pago PENDIENTE por cobrar en la pasarela. Un trabajador la reclama
+ * pasándola a EN_PROCESO hasta {@code disponibleDesde}; si no la termina en ese plazo (la instancia cayó)
+ * vuelve a poder reclamarse. Tras un error transitorio vuelve a PENDIENTE con el siguiente intento diferido.
+ */
+@Entity
+@Table(name = "cola_pagos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TareaPago {
+
+    public static final int LONGITUD_ERROR = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cola_pagos_seq")
+    @SequenceGenerator(name = "cola_pagos_seq", sequenceName = "cola_pagos_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "pago_id", nullable = false)
+    private Long pagoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Estado estado = Estado.PENDIENTE;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    // Antes de este instante la tarea no se puede reclamar: reintento diferido o bloqueo de un trabajador
+    @Column(nullable = false)
+    private LocalDateTime disponibleDesde = LocalDateTime.now();
+
+    @Column(length = TareaPago.LONGITUD_ERROR)
+    private String ultimoError;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+
+    public enum Estado {
+        PENDIENTE, EN_PROCESO, COMPLETADA, FALLIDA
+    }
+}
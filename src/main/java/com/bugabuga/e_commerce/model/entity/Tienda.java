@@ -4,19 +4,23 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "tiendas")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tiendas")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Tienda {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tiendas_seq")
+    @SequenceGenerator(name = "tiendas_seq", sequenceName = "tiendas_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -16,7 +17,8 @@ import java.util.Set;
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -40,4 +42,9 @@ public class Usuario {
     private Set<Rol> roles = new HashSet<>();
 
     private boolean activo = true;
+
+    // Los tokens emitidos antes de este instante no son válidos (cambio de email o contraseña, desactivación);
+    // cada instancia lo consulta periódicamente
+    @Column(name = "tokens_revocados_desde")
+    private LocalDateTime tokensRevocadosDesde;
 }
@@ -0,0 +1,33 @@
+package com.bugabuga.e_commerce.repository;
+
+import com.bugabuga.e_commerce.model.entity.AsignacionStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AsignacionStockRepository extends JpaRepository<AsignacionStock, Long> {
+
+    Optional<AsignacionStock> findByProductoIdAndInstancia(Long productoId, String instancia);
+
+    List<AsignacionStock> findByInstancia(String instancia);
+
+    @Modifying
+    @Query("UPDATE AsignacionStock a SET a.asignadas = a.asignadas + :unidades WHERE a.id = :id")
+    int sumarAsignadas(@Param("id") Long id, @Param("unidades") long unidades);
+
+    @Modifying
+    @Query("UPDATE AsignacionStock a SET a.vendidas = a.vendidas + :unidades, a.fechaVolcado = :fecha WHERE a.id = :id")
+    int sumarVendidas(@Param("id") Long id, @Param("unidades") long unidades, @Param("fecha") LocalDateTime fecha);
+
+    // Unidades del producto en pedidos creados desde la fecha dada, de cualquier instancia
+    @Query("SELECT COALESCE(SUM(i.cantidad), 0) FROM ItemPedido i WHERE i.producto.id = :productoId " +
+           "AND i.pedido.fechaCreacion > :desde")
+    long sumarUnidadesPedidasDesde(@Param("productoId") Long productoId, @Param("desde") LocalDateTime desde);
+}
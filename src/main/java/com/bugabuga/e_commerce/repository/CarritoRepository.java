@@ -2,12 +2,27 @@ package com.bugabuga.e_commerce.repository;
 
 import com.bugabuga.e_commerce.model.entity.Carrito;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CarritoRepository extends JpaRepository<Carrito, Long> {
 
     Optional<Carrito> findByUsuarioId(Long usuarioId);
+
+    // Carrito con sus items y productos en una sola consulta, para mostrarlo o convertirlo en pedido
+    @Query("SELECT DISTINCT c FROM Carrito c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.producto " +
+           "WHERE c.usuario.id = :usuarioId")
+    Optional<Carrito> findConItemsByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Unidades por producto en el carrito del usuario, solo de los productos indicados: [productoId, cantidad]
+    @Query("SELECT i.producto.id, SUM(i.cantidad) FROM ItemCarrito i " +
+           "WHERE i.carrito.usuario.id = :usuarioId AND i.producto.id IN :productoIds GROUP BY i.producto.id")
+    List<Object[]> sumarCantidadesPorProducto(@Param("usuarioId") Long usuarioId,
+                                              @Param("productoIds") Collection<Long> productoIds);
 }
@@ -0,0 +1,50 @@
+package com.bugabuga.e_commerce.repository;
+
+import com.bugabuga.e_commerce.model.entity.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    Optional<ClaveIdempotencia> findByClave(String clave);
+
+    @Modifying
+    @Query("UPDATE ClaveIdempotencia c SET c.estado = com.bugabuga.e_commerce.model.entity.ClaveIdempotencia.Estado.COMPLETADA, " +
+           "c.estadoHttp = :estadoHttp, c.tipoContenido = :tipoContenido, c.cuerpo = :cuerpo, c.bloqueadaHasta = null " +
+           "WHERE c.clave = :clave AND c.propietario = :propietario")
+    int completar(@Param("clave") String clave,
+                  @Param("propietario") String propietario,
+                  @Param("estadoHttp") int estadoHttp,
+                  @Param("tipoContenido") String tipoContenido,
+                  @Param("cuerpo") byte[] cuerpo);
+
+    /**
+     * Toma una clave EN_CURSO cuyo bloqueo caducó. Solo un reintento consigue actualizar la fila.
+     */
+    @Modifying
+    @Query("UPDATE ClaveIdempotencia c SET c.propietario = :propietario, c.bloqueadaHasta = :bloqueadaHasta " +
+           "WHERE c.clave = :clave AND c.huella = :huella " +
+           "AND c.estado = com.bugabuga.e_commerce.model.entity.ClaveIdempotencia.Estado.EN_CURSO " +
+           "AND (c.bloqueadaHasta IS NULL OR c.bloqueadaHasta < :ahora)")
+    int tomarCaducada(@Param("clave") String clave,
+                      @Param("huella") String huella,
+                      @Param("propietario") String propietario,
+                      @Param("bloqueadaHasta") LocalDateTime bloqueadaHasta,
+                      @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.clave = :clave AND c.propietario = :propietario " +
+           "AND c.estado = com.bugabuga.e_commerce.model.entity.ClaveIdempotencia.Estado.EN_CURSO")
+    int liberar(@Param("clave") String clave, @Param("propietario") String propietario);
+
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :limite")
+    int deleteByFechaCreacionBefore(@Param("limite") LocalDateTime limite);
+}
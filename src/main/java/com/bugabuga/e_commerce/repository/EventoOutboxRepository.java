@@ -0,0 +1,36 @@
+package com.bugabuga.e_commerce.repository;
+
+import com.bugabuga.e_commerce.model.entity.EventoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    // Eventos sin publicar ni descartar que ya pueden intentarse, saltando los que otra instancia está publicando
+    @Query(value = "SELECT * FROM outbox_eventos WHERE fecha_publicacion IS NULL AND fecha_descarte IS NULL " +
+                   "AND disponible_desde <= :ahora ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EventoOutbox> pendientes(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.fechaPublicacion = :fecha WHERE e.id IN :ids")
+    int marcarPublicados(@Param("ids") List<Long> ids, @Param("fecha") LocalDateTime fecha);
+
+    @Query("SELECT MIN(e.fechaCreacion) FROM EventoOutbox e WHERE e.fechaPublicacion IS NULL AND e.fechaDescarte IS NULL")
+    LocalDateTime fechaPendienteMasAntiguo();
+
+    long countByFechaPublicacionIsNullAndFechaDescarteIsNull();
+
+    long countByFechaDescarteIsNotNull();
+
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.fechaPublicacion < :limite")
+    int deleteByFechaPublicacionBefore(@Param("limite") LocalDateTime limite);
+}
@@ -1,17 +1,30 @@
 package com.bugabuga.e_commerce.repository;
 
+import com.bugabuga.e_commerce.model.dto.ProductoResumen;
 import com.bugabuga.e_commerce.model.entity.Producto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, ReservaStockRepository {
+
+    // Proyección con las columnas de ProductoDTO y los nombres de tienda y categoría en una sola sentencia
+    String SELECT_RESUMEN = "SELECT new com.bugabuga.e_commerce.model.dto.ProductoResumen(" +
+            "p.id, p.nombre, p.descripcion, p.precio, p.stock, p.imagenUrl, t.id, t.nombre, c.id, c.nombre, " +
+            "p.sumaCalificaciones, p.cantidadCalificaciones) " +
+            "FROM Producto p JOIN p.tienda t LEFT JOIN p.categoria c ";
 
     Page<Producto> findByActivoTrue(Pageable pageable);
 
@@ -48,4 +61,107 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
     @Query("SELECT COUNT(p) FROM Producto p WHERE p.tienda.id = :tiendaId AND p.activo = true")
     Long countByTiendaIdAndActivoTrue(@Param("tiendaId") Long tiendaId);
+
+    @Modifying
+    @Query("UPDATE Producto p SET p.sumaCalificaciones = p.sumaCalificaciones + :deltaSuma, " +
+           "p.cantidadCalificaciones = p.cantidadCalificaciones + :deltaCantidad WHERE p.id = :id")
+    int ajustarCalificaciones(@Param("id") Long id,
+                              @Param("deltaSuma") long deltaSuma,
+                              @Param("deltaCantidad") int deltaCantidad);
+
+    // Sustituye en la suma del producto la calificación guardada de la reseña por la nueva; la anterior se lee
+    // de la fila de la reseña en la misma sentencia, así que debe ejecutarse antes de actualizarla
+    @Modifying
+    @Query("UPDATE Producto p SET p.sumaCalificaciones = p.sumaCalificaciones " +
+           "- (SELECT r.calificacion FROM Reseña r WHERE r.id = :reseñaId) + :nueva " +
+           "WHERE p.id = (SELECT r.producto.id FROM Reseña r WHERE r.id = :reseñaId)")
+    int cambiarCalificacion(@Param("reseñaId") Long reseñaId, @Param("nueva") int nueva);
+
+    @Modifying
+    @Query("UPDATE Producto p SET " +
+           "p.sumaCalificaciones = COALESCE((SELECT SUM(r.calificacion) FROM Reseña r WHERE r.producto.id = p.id), 0), " +
+           "p.cantidadCalificaciones = (SELECT COUNT(r) FROM Reseña r WHERE r.producto.id = p.id) " +
+           "WHERE p.id > :desdeId AND p.id <= :hastaId")
+    int recalcularCalificaciones(@Param("desdeId") Long desdeId, @Param("hastaId") Long hastaId);
+
+    // Productos con reseñas cuyos agregados nunca se poblaron (por ejemplo, sin aplicar V4)
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Producto p " +
+           "WHERE p.cantidadCalificaciones = 0 AND EXISTS (SELECT 1 FROM Reseña r WHERE r.producto.id = p.id)")
+    boolean existsCalificacionesSinPoblar();
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Producto p")
+    Long findMaxId();
+
+    @Query("SELECT p.stock FROM Producto p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = p.stock + :unidades WHERE p.id = :id")
+    int devolverStock(@Param("id") Long id, @Param("unidades") int unidades);
+
+    // Stock fijado al editar el producto, aplicado como diferencia con el leído: conserva las ventas hechas entretanto
+    @Modifying
+    @Query("UPDATE Producto p SET p.stock = CASE WHEN COALESCE(p.stock, 0) + :delta < 0 THEN 0 " +
+           "ELSE COALESCE(p.stock, 0) + :delta END WHERE p.id = :id")
+    int ajustarStock(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.activo = true",
+           countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.activo = true")
+    Page<ProductoResumen> findResumenesActivos(Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.activo = true AND t.id = :tiendaId",
+           countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.activo = true AND p.tienda.id = :tiendaId")
+    Page<ProductoResumen> findResumenesActivosPorTienda(@Param("tiendaId") Long tiendaId, Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.activo = true AND c.id = :categoriaId",
+           countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.activo = true AND p.categoria.id = :categoriaId")
+    Page<ProductoResumen> findResumenesActivosPorCategoria(@Param("categoriaId") Long categoriaId, Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND p.id = :id")
+    Optional<ProductoResumen> findResumenActivoById(@Param("id") Long id);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND p.id IN :ids")
+    List<ProductoResumen> findResumenesActivosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true ORDER BY p.id DESC")
+    List<ProductoResumen> findResumenesRecientes(Pageable pageable);
+
+    @Query("SELECT p.id, p.nombre, p.descripcion, p.tienda.id FROM Producto p " +
+           "WHERE p.activo = true AND p.id > :ultimoId ORDER BY p.id")
+    List<Object[]> findIndexablesDespuesDe(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    // Incluye los inactivos para que la sincronización del índice los elimine
+    @Query("SELECT p.id, p.nombre, p.descripcion, p.tienda.id, p.activo FROM Producto p " +
+           "WHERE p.updatedAt > :desde ORDER BY p.id")
+    List<Object[]> findModificadosDesde(@Param("desde") LocalDateTime desde);
+
+    // Paginación por clave (keyset): sin OFFSET ni consulta COUNT
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true")
+    Slice<ProductoResumen> findActivos(Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND p.id > :ultimoId ORDER BY p.id")
+    Slice<ProductoResumen> findActivosDespuesDeId(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND " +
+           "(p.nombre > :nombre OR (p.nombre = :nombre AND p.id > :ultimoId)) ORDER BY p.nombre, p.id")
+    Slice<ProductoResumen> findActivosDespuesDeNombre(@Param("nombre") String nombre,
+                                               @Param("ultimoId") Long ultimoId,
+                                               Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND " +
+           "(p.precio > :precio OR (p.precio = :precio AND p.id > :ultimoId)) ORDER BY p.precio, p.id")
+    Slice<ProductoResumen> findActivosDespuesDePrecio(@Param("precio") BigDecimal precio,
+                                               @Param("ultimoId") Long ultimoId,
+                                               Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND t.id = :tiendaId AND p.id > :ultimoId ORDER BY p.id")
+    Slice<ProductoResumen> findActivosPorTiendaDespuesDeId(@Param("tiendaId") Long tiendaId,
+                                                    @Param("ultimoId") Long ultimoId,
+                                                    Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.activo = true AND c.id = :categoriaId AND p.id > :ultimoId ORDER BY p.id")
+    Slice<ProductoResumen> findActivosPorCategoriaDespuesDeId(@Param("categoriaId") Long categoriaId,
+                                                       @Param("ultimoId") Long ultimoId,
+                                                       Pageable pageable);
 }
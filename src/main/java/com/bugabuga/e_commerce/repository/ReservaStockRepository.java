@@ -0,0 +1,21 @@
+package com.bugabuga.e_commerce.repository;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Fragmento de {@link ProductoRepository} para descontar stock al confirmar un pedido
+ */
+public interface ReservaStockRepository {
+
+    /**
+     * Descuenta de cada producto la cantidad indicada siempre que haya stock suficiente, en un único lote
+     * de UPDATE condicionales dentro de la transacción en curso. Los productos se actualizan por orden de id
+     * para que dos pedidos con productos en común bloqueen las filas en el mismo orden y no se interbloqueen.
+     *
+     * @param cantidadesPorProducto cantidad a descontar por id de producto
+     * @return ids de los productos sin stock suficiente (vacía si se reservó todo). Si no está vacía, la
+     * transacción debe deshacerse porque el resto de productos sí se descontaron.
+     */
+    List<Long> reservarStock(SortedMap<Long, Integer> cantidadesPorProducto);
+}
@@ -0,0 +1,45 @@
+package com.bugabuga.e_commerce.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Implementación con JdbcTemplate: usa la conexión de la transacción JPA abierta, así que el descuento
+ * se confirma o se deshace junto con el pedido. No carga ni modifica las entidades Producto, con lo que
+ * una fila solo queda bloqueada desde su UPDATE hasta el commit.
+ */
+class ReservaStockRepositoryImpl implements ReservaStockRepository {
+
+    private static final String RESERVAR =
+            "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReservaStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> reservarStock(SortedMap<Long, Integer> cantidadesPorProducto) {
+        List<Long> ids = new ArrayList<>(cantidadesPorProducto.size());
+        List<Object[]> parametros = new ArrayList<>(cantidadesPorProducto.size());
+        for (Map.Entry<Long, Integer> entrada : cantidadesPorProducto.entrySet()) {
+            ids.add(entrada.getKey());
+            parametros.add(new Object[]{entrada.getValue(), entrada.getKey(), entrada.getValue()});
+        }
+
+        int[] actualizadas = jdbcTemplate.batchUpdate(RESERVAR, parametros);
+
+        List<Long> sinStock = new ArrayList<>();
+        for (int i = 0; i < actualizadas.length; i++) {
+            if (actualizadas[i] == 0) {
+                sinStock.add(ids.get(i));
+            }
+        }
+        return sinStock;
+    }
+}
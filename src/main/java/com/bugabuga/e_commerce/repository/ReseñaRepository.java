@@ -3,7 +3,9 @@ package com.bugabuga.e_commerce.repository;
 import com.bugabuga.e_commerce.model.entity.Reseña;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +21,11 @@ public interface ReseñaRepository extends JpaRepository<Reseña, Long> {
 
     Optional<Reseña> findByUsuarioIdAndProductoId(Long usuarioId, Long productoId);
 
+    // SELECT ... FOR UPDATE: las ediciones concurrentes de una misma reseña se aplican de una en una
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reseña r WHERE r.id = :id")
+    Optional<Reseña> findByIdParaActualizar(@Param("id") Long id);
+
     @Query("SELECT AVG(r.calificacion) FROM Reseña r WHERE r.producto.id = :productoId")
     Double calcularCalificacionPromedio(@Param("productoId") Long productoId);
 
@@ -0,0 +1,22 @@
+package com.bugabuga.e_commerce.repository;
+
+import com.bugabuga.e_commerce.model.entity.TareaPago;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TareaPagoRepository extends JpaRepository<TareaPago, Long> {
+
+    // Tareas listas para procesar, saltando las que otro trabajador tiene bloqueadas en su transacción
+    @Query(value = "SELECT * FROM cola_pagos WHERE estado IN ('PENDIENTE', 'EN_PROCESO') " +
+                   "AND disponible_desde <= :ahora ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<TareaPago> reclamables(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    long countByEstadoIn(List<TareaPago.Estado> estados);
+}
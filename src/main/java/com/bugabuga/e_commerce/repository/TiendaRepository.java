@@ -3,7 +3,10 @@ package com.bugabuga.e_commerce.repository;
 import com.bugabuga.e_commerce.model.entity.Tienda;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,6 +17,7 @@ public interface TiendaRepository extends JpaRepository<Tienda, Long> {
 
     Page<Tienda> findByActivaTrue(Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Tienda> findByNombre(String nombre);
 
     List<Tienda> findByPropietarioId(Long propietarioId);
@@ -2,8 +2,12 @@ package com.bugabuga.e_commerce.repository;
 
 import com.bugabuga.e_commerce.model.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,11 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM Usuario u WHERE u.activo = false")
+    List<Long> findIdsInactivos();
+
+    // Id y fecha de revocación de los usuarios cuyos tokens se revocaron después de la fecha indicada
+    @Query("SELECT u.id, u.tokensRevocadosDesde FROM Usuario u WHERE u.tokensRevocadosDesde > :desde")
+    List<Object[]> findRevocacionesDesde(@Param("desde") LocalDateTime desde);
 }
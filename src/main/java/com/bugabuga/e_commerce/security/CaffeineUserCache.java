@@ -0,0 +1,67 @@
+package com.bugabuga.e_commerce.security;
+
+import com.bugabuga.e_commerce.event.UsuarioModificadoEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * UserCache de Spring Security sobre Caffeine, con clave el email del usuario.
+ * El TTL es corto y además se invalida con {@link UsuarioModificadoEvent}, de modo que los cambios
+ * de contraseña, email o estado se aplican de inmediato. Expone aciertos y fallos en Micrometer
+ * como la caché {@code usuarios}.
+ */
+@Component
+public class CaffeineUserCache implements UserCache {
+
+    private final Cache<String, UserDetails> usuarios;
+
+    public CaffeineUserCache(MeterRegistry meterRegistry,
+                             @Value("${app.security.user-cache.ttl:2m}") Duration ttl,
+                             @Value("${app.security.user-cache.maximum-size:10000}") long tamanoMaximo) {
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, "usuarios");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails usuario = usuarios.getIfPresent(username);
+        return usuario != null ? copiar(usuario) : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        usuarios.put(user.getUsername(), copiar(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        usuarios.invalidate(username);
+    }
+
+    // Copia: ProviderManager borra las credenciales del principal tras autenticar
+    private UserDetails copiar(UserDetails usuario) {
+        if (usuario instanceof UsuarioPrincipal principal) {
+            return principal.copia();
+        }
+        return User.withUserDetails(usuario).build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarUsuario(UsuarioModificadoEvent evento) {
+        removeUserFromCache(evento.emailAnterior());
+    }
+}
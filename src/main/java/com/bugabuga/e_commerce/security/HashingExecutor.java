@@ -0,0 +1,58 @@
+package com.bugabuga.e_commerce.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado para las operaciones que calculan BCrypt (login y registro).
+ * El login devuelve el CompletableFuture, así el hilo de Tomcat queda libre mientras se calcula el hash
+ * y una avalancha de logins no deja sin hilos al resto de la API. El registro solo cifra aquí la
+ * contraseña y guarda el usuario en el hilo de la petición. Con la cola llena
+ * la tarea se rechaza con RejectedExecutionException en lugar de acumular espera.
+ * Se expone en Micrometer como el executor {@code hashing}.
+ */
+@Component
+public class HashingExecutor {
+
+    private final ExecutorService executor;
+
+    public HashingExecutor(MeterRegistry meterRegistry,
+                           @Value("${app.security.hashing.threads:4}") int hilos,
+                           @Value("${app.security.hashing.queue-capacity:200}") int capacidadCola) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "hashing-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "hashing", List.of());
+    }
+
+    /**
+     * Ejecuta la operación en el pool de hashing
+     * @throws java.util.concurrent.RejectedExecutionException si el pool y su cola están llenos
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> operacion) {
+        return CompletableFuture.supplyAsync(operacion, executor);
+    }
+
+    @PreDestroy
+    void cerrar() {
+        executor.shutdown();
+    }
+}
@@ -1,5 +1,6 @@
 package com.bugabuga.e_commerce.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -18,6 +20,9 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Atributo de la petición con el id del usuario autenticado, para los filtros posteriores
+    public static final String ATRIBUTO_USUARIO_ID = JwtAuthenticationFilter.class.getName() + ".usuarioId";
+
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
@@ -27,6 +32,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                    HttpServletResponse response,
@@ -35,30 +43,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader(jwtProperties.getHeaderString());
 
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         // Verificar si el header de autorización existe y comienza con el prefijo Bearer
         if (authorizationHeader != null && authorizationHeader.startsWith(jwtProperties.getTokenPrefix())) {
-            jwt = authorizationHeader.substring(jwtProperties.getTokenPrefix().length());
+            String jwt = authorizationHeader.substring(jwtProperties.getTokenPrefix().length());
             try {
-                username = jwtTokenUtil.extractUsername(jwt);
+                // Un único parseo verifica firma y expiración y deja los claims para el resto de la petición
+                claims = jwtTokenUtil.validarToken(jwt);
+                username = claims.getSubject();
             } catch (Exception e) {
                 logger.error("Error al extraer username del token", e);
             }
         }
 
         // Si se extrajo el username y no hay autenticación en el contexto de seguridad
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && jwtProperties.isStatelessAuthorities() && jwtTokenUtil.tieneAutoridades(claims)) {
+            // Autenticación sin estado: roles e id vienen en el token; solo se consulta la revocación en memoria
+            Long usuarioId = jwtTokenUtil.extractUsuarioId(claims);
+            if (revocacionTokenService.estaRevocado(usuarioId, jwtTokenUtil.extractEmitidoEnMs(claims))) {
+                logger.debug("Token revocado para el usuario " + usuarioId);
+            } else {
+                UserDetails userDetails = new User(username, "", jwtTokenUtil.extractAuthorities(claims));
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                request.setAttribute(ATRIBUTO_USUARIO_ID, usuarioId);
+            }
+        } else if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
             // Validar el token
-            if (jwtTokenUtil.validateToken(jwt, userDetails)) {
+            if (jwtTokenUtil.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // Establecer la autenticación en el contexto de seguridad
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (userDetails instanceof UsuarioPrincipal principal) {
+                    request.setAttribute(ATRIBUTO_USUARIO_ID, principal.getId());
+                }
             }
         }
 
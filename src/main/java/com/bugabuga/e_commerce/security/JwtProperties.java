@@ -11,6 +11,8 @@ public class JwtProperties {
     private long expirationMs = 86400000; // 24 horas por defecto
     private String tokenPrefix = "Bearer ";
     private String headerString = "Authorization";
+    // Construir la autenticación solo con los claims del token (roles e id), sin consultar la base de datos
+    private boolean statelessAuthorities = false;
     
     public String getSecretKey() {
         return secretKey;
@@ -43,4 +45,12 @@ public class JwtProperties {
     public void setHeaderString(String headerString) {
         this.headerString = headerString;
     }
+    
+    public boolean isStatelessAuthorities() {
+        return statelessAuthorities;
+    }
+    
+    public void setStatelessAuthorities(boolean statelessAuthorities) {
+        this.statelessAuthorities = statelessAuthorities;
+    }
 }
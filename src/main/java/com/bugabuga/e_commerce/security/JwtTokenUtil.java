@@ -1,10 +1,12 @@
 package com.bugabuga.e_commerce.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -12,14 +14,37 @@ import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenUtil {
 
-    @Autowired
-    private JwtProperties jwtProperties;
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    // Instante de emisión en milisegundos; iat solo tiene resolución de segundos
+    public static final String CLAIM_EMITIDO_MS = "iat_ms";
+
+    private final JwtProperties jwtProperties;
+
+    // Clave y parser inmutables y thread-safe: se construyen una sola vez
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+
+    public JwtTokenUtil(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecretKey().getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    // Validar firma y expiración del token y devolver sus claims en un único parseo.
+    // Lanza JwtException (o IllegalArgumentException si el token está vacío) si no es válido.
+    public Claims validarToken(String token) {
+        return extractAllClaims(token);
+    }
 
     // Extraer username del token
     public String extractUsername(String token) {
@@ -37,26 +62,29 @@ public class JwtTokenUtil {
         return claimsResolver.apply(claims);
     }
 
-    // Extraer todos los claims del token
+    // Extraer todos los claims del token (el parser ya rechaza tokens expirados)
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    // Verificar si el token ha expirado
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     // Generar token para un usuario
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, userDetails.getUsername());
     }
 
+    // Generar token con el id del usuario y sus autoridades, para la autenticación sin estado
+    public String generateToken(UserDetails userDetails, Long usuarioId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USUARIO_ID, usuarioId);
+        claims.put(CLAIM_ROLES, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        return createToken(claims, userDetails.getUsername());
+    }
+
     // Generar token con claims adicionales
     public String generateToken(UserDetails userDetails, Map<String, Object> additionalClaims) {
         Map<String, Object> claims = new HashMap<>(additionalClaims);
@@ -65,24 +93,50 @@ public class JwtTokenUtil {
 
     // Crear el token
     private String createToken(Map<String, Object> claims, String subject) {
+        long ahora = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
+                .claim(CLAIM_EMITIDO_MS, ahora)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpirationMs()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(ahora))
+                .setExpiration(new Date(ahora + jwtProperties.getExpirationMs()))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    // Validar token
+    // Validar token contra un usuario: un solo parseo, que ya comprueba firma y expiración
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(validarToken(token), userDetails);
+    }
+
+    // Indicar si el token lleva los claims necesarios para autenticar sin consultar la base de datos
+    public boolean tieneAutoridades(Claims claims) {
+        return claims.get(CLAIM_USUARIO_ID) != null && claims.get(CLAIM_ROLES) instanceof List<?>;
+    }
+
+    // Extraer el id del usuario de los claims
+    public Long extractUsuarioId(Claims claims) {
+        return ((Number) claims.get(CLAIM_USUARIO_ID)).longValue();
+    }
+
+    // Extraer el instante de emisión en milisegundos; los tokens sin iat_ms usan iat, truncado al segundo
+    public Long extractEmitidoEnMs(Claims claims) {
+        if (claims.get(CLAIM_EMITIDO_MS) instanceof Number emitido) {
+            return emitido.longValue();
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null;
+    }
+
+    // Extraer las autoridades de los claims
+    public List<SimpleGrantedAuthority> extractAuthorities(Claims claims) {
+        return ((List<?>) claims.get(CLAIM_ROLES)).stream()
+                .map(rol -> new SimpleGrantedAuthority(String.valueOf(rol)))
+                .toList();
     }
 
-    // Obtener la clave de firma
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecretKey().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Validar claims ya verificados contra un usuario
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().after(new Date());
     }
 }
@@ -0,0 +1,106 @@
+package com.bugabuga.e_commerce.security;
+
+import com.bugabuga.e_commerce.event.UsuarioModificadoEvent;
+import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Revocación de tokens para la autenticación sin estado: guarda, por id de usuario, el instante
+ * a partir del cual sus tokens dejan de ser válidos. Un token emitido antes de ese instante se rechaza
+ * sin consultar la base de datos.
+ * Las entradas caducan tras la vida máxima de un token, porque para entonces ya no queda ninguno válido.
+ * Al arrancar se revocan los tokens de los usuarios inactivos y de los revocados durante esa vida máxima;
+ * después, los de los usuarios cuyo {@link UsuarioModificadoEvent} lo indique en esta instancia y, cada
+ * {@code app.jwt.revocacion-intervalo}, los que otra instancia revocó ({@code usuarios.tokens_revocados_desde}).
+ */
+@Service
+public class RevocacionTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocacionTokenService.class);
+    // Solapamiento entre consultas, para no perder una revocación cuya transacción tardó en confirmarse
+    private static final Duration MARGEN_CONSULTA = Duration.ofMinutes(1);
+
+    private final UsuarioRepository usuarioRepository;
+    private final Duration vidaToken;
+    private final Cache<Long, Long> revocadosDesde;
+    private volatile LocalDateTime ultimaConsulta;
+
+    public RevocacionTokenService(UsuarioRepository usuarioRepository, JwtProperties jwtProperties) {
+        this.usuarioRepository = usuarioRepository;
+        this.vidaToken = Duration.ofMillis(jwtProperties.getExpirationMs());
+        this.revocadosDesde = Caffeine.newBuilder()
+                .expireAfterWrite(vidaToken)
+                .build();
+    }
+
+    @PostConstruct
+    void cargarUsuariosInactivos() {
+        List<Long> inactivos = usuarioRepository.findIdsInactivos();
+        inactivos.forEach(this::revocar);
+        logger.info("Revocados los tokens de {} usuarios inactivos", inactivos.size());
+        ultimaConsulta = LocalDateTime.now().minus(vidaToken);
+        consultarRevocaciones();
+    }
+
+    /**
+     * Aplica las revocaciones hechas por cualquier instancia desde la consulta anterior
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocacion-intervalo:10s}")
+    public void consultarRevocaciones() {
+        LocalDateTime inicio = LocalDateTime.now();
+        try {
+            for (Object[] fila : usuarioRepository.findRevocacionesDesde(ultimaConsulta.minus(MARGEN_CONSULTA))) {
+                long desde = ((LocalDateTime) fila[1]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                revocar((Long) fila[0], desde);
+            }
+            ultimaConsulta = inicio;
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron consultar las revocaciones de tokens: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarUsuario(UsuarioModificadoEvent evento) {
+        if (evento.revocarTokens()) {
+            revocar(evento.usuarioId());
+        }
+    }
+
+    /**
+     * Revoca todos los tokens emitidos hasta ahora para el usuario
+     */
+    public void revocar(Long usuarioId) {
+        revocar(usuarioId, System.currentTimeMillis());
+    }
+
+    private void revocar(Long usuarioId, long desde) {
+        // Se conserva la revocación más reciente: la consulta periódica puede traer una anterior a la local
+        revocadosDesde.asMap().merge(usuarioId, desde, Math::max);
+    }
+
+    /**
+     * Indica si un token del usuario emitido en el instante indicado está revocado. Un token emitido justo
+     * después de la revocación (por ejemplo, al volver a iniciar sesión tras cambiar la contraseña) es válido.
+     *
+     * @param emitidoEnMs instante de emisión en milisegundos ({@link JwtTokenUtil#extractEmitidoEnMs})
+     */
+    public boolean estaRevocado(Long usuarioId, Long emitidoEnMs) {
+        Long revocadoDesde = revocadosDesde.getIfPresent(usuarioId);
+        if (revocadoDesde == null) {
+            return false;
+        }
+        return emitidoEnMs == null || emitidoEnMs < revocadoDesde;
+    }
+}
@@ -1,5 +1,8 @@
 package com.bugabuga.e_commerce.security;
 
+import com.bugabuga.e_commerce.filter.IdempotenciaFilter;
+import com.bugabuga.e_commerce.filter.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +28,12 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private IdempotenciaFilter idempotenciaFilter;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -36,6 +45,9 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(auth -> auth
+                // Los despachos ASYNC (emisores SSE) y ERROR continúan una solicitud ya autorizada; en ellos
+                // el filtro JWT no vuelve a ejecutarse y el contexto de seguridad está vacío
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 // Rutas públicas
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/catalogo/**").permitAll()
@@ -50,6 +62,10 @@ public class SecurityConfig {
 
         // Añadir filtro JWT antes del filtro de autenticación de usuario y contraseña
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Limitar peticiones por usuario (ya identificado por el token) o por IP
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+        // Responder los reintentos con Idempotency-Key sin volver a ejecutar la solicitud
+        http.addFilterAfter(idempotenciaFilter, RateLimitFilter.class);
 
         return http.build();
     }
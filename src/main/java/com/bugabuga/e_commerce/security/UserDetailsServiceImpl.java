@@ -4,7 +4,7 @@ import com.bugabuga.e_commerce.model.entity.Usuario;
 import com.bugabuga.e_commerce.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,9 +20,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UserCache userCache;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails enCache = userCache.getUserFromCache(email);
+        if (enCache != null) {
+            return enCache;
+        }
+
         Usuario usuario = usuarioRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + email));
 
@@ -35,15 +43,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .map(rol -> new SimpleGrantedAuthority("ROLE_" + rol.getNombre()))
                 .collect(Collectors.toList());
 
-        // Crear y devolver un objeto UserDetails de Spring Security
-        return new User(
+        // Crear un objeto UserDetails de Spring Security con los datos que devuelve el login
+        UserDetails userDetails = new UsuarioPrincipal(
+                usuario.getId(),
                 usuario.getEmail(),
                 usuario.getPassword(),
+                usuario.getNombre(),
+                usuario.getApellido(),
                 usuario.isActivo(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked
                 authorities
         );
+
+        userCache.putUserInCache(userDetails);
+        return userDetails;
     }
 }
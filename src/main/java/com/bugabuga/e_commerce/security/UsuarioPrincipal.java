@@ -0,0 +1,70 @@
+package com.bugabuga.e_commerce.security;
+
+import com.bugabuga.e_commerce.model.dto.UsuarioDTO;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * UserDetails con los datos del usuario que devuelve la API, para que el login construya
+ * la respuesta a partir del principal autenticado sin volver a leer el usuario
+ */
+@Getter
+public class UsuarioPrincipal extends User {
+
+    private static final String PREFIJO_ROL = "ROLE_";
+
+    private final Long id;
+    private final String nombre;
+    private final String apellido;
+
+    public UsuarioPrincipal(Long id, String email, String password, String nombre, String apellido,
+                            boolean activo, Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, activo, true, true, true, authorities);
+        this.id = id;
+        this.nombre = nombre;
+        this.apellido = apellido;
+    }
+
+    /**
+     * Principal de un usuario recién registrado, sin contraseña, para emitir su token sin volver a autenticarlo
+     */
+    public static UsuarioPrincipal deUsuarioDTO(UsuarioDTO usuario) {
+        List<SimpleGrantedAuthority> authorities = usuario.getRoles().stream()
+                .map(rol -> new SimpleGrantedAuthority(PREFIJO_ROL + rol))
+                .toList();
+        return new UsuarioPrincipal(usuario.getId(), usuario.getEmail(), "", usuario.getNombre(),
+                usuario.getApellido(), true, authorities);
+    }
+
+    /**
+     * Copia independiente: ProviderManager borra la contraseña del principal tras autenticar
+     */
+    public UsuarioPrincipal copia() {
+        return new UsuarioPrincipal(id, getUsername(), getPassword(), nombre, apellido, isEnabled(), getAuthorities());
+    }
+
+    public UsuarioDTO toUsuarioDTO() {
+        UsuarioDTO dto = new UsuarioDTO();
+        dto.setId(id);
+        dto.setEmail(getUsername());
+        dto.setNombre(nombre);
+        dto.setApellido(apellido);
+
+        // No incluir la contraseña en el DTO por seguridad
+
+        Set<String> roles = getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(autoridad -> autoridad.startsWith(PREFIJO_ROL) ? autoridad.substring(PREFIJO_ROL.length()) : autoridad)
+                .collect(Collectors.toSet());
+        dto.setRoles(roles);
+
+        return dto;
+    }
+}
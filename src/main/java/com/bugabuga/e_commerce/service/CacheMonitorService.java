@@ -1,8 +1,13 @@
 package com.bugabuga.e_commerce.service;
 
 import com.bugabuga.e_commerce.config.CacheConfig;
+import com.bugabuga.e_commerce.config.EtiquetasCacheManager;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
@@ -22,9 +27,11 @@ public class CacheMonitorService {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheMonitorService.class);
     private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public CacheMonitorService(CacheManager cacheManager) {
+    public CacheMonitorService(CacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
         this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     /**
@@ -47,6 +54,14 @@ public class CacheMonitorService {
             logger.info("  Average Load Penalty: {} ms", String.format("%.2f", stats.averageLoadPenalty() / 1_000_000.0));
         });
         
+        getOcupacion().forEach((cacheName, ocupacion) ->
+                logger.info("Ocupación {}: {} entradas, {} de {} ({})", cacheName, ocupacion.get("entradas"),
+                        ocupacion.get("ocupado"), ocupacion.get("maximo"), ocupacion.get("limitadaPor")));
+        
+        getEstadisticasRecarga().forEach((cacheName, recarga) ->
+                logger.info("Recarga anticipada {}: {} recargas, {} fallidas, {} fallos evitados", cacheName,
+                        recarga.get("recargas"), recarga.get("recargasFallidas"), recarga.get("fallosEvitados")));
+        
         logger.info("============================");
     }
 
@@ -68,6 +83,95 @@ public class CacheMonitorService {
         return statsMap;
     }
 
+    /**
+     * Obtiene la ocupación de cada caché: entradas y, según cómo esté limitada, el peso estimado
+     * en bytes o la cantidad de entradas frente a su máximo
+     */
+    public Map<String, Map<String, Object>> getOcupacion() {
+        Map<String, Map<String, Object>> ocupacionMap = new HashMap<>();
+        
+        cacheManager.getCacheNames().forEach(cacheName -> {
+            if (!(cacheManager.getCache(cacheName) instanceof CaffeineCache caffeineCache)) {
+                return;
+            }
+            Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            
+            Map<String, Object> ocupacion = new HashMap<>();
+            ocupacion.put("entradas", nativeCache.estimatedSize());
+            nativeCache.policy().eviction().ifPresent(eviction -> {
+                if (eviction.isWeighted()) {
+                    ocupacion.put("limitadaPor", "peso");
+                    ocupacion.put("ocupado", eviction.weightedSize().orElse(0));
+                } else {
+                    ocupacion.put("limitadaPor", "entradas");
+                    ocupacion.put("ocupado", nativeCache.estimatedSize());
+                }
+                ocupacion.put("maximo", eviction.getMaximum());
+            });
+            
+            ocupacionMap.put(cacheName, ocupacion);
+        });
+        
+        return ocupacionMap;
+    }
+
+    /**
+     * Obtiene las estadísticas de recarga anticipada de las cachés que la tienen configurada
+     */
+    public Map<String, Map<String, Long>> getEstadisticasRecarga() {
+        Map<String, Map<String, Long>> recargaMap = new HashMap<>();
+        if (cacheManager instanceof EtiquetasCacheManager etiquetasCacheManager) {
+            cacheManager.getCacheNames().forEach(cacheName -> {
+                Map<String, Long> recarga = etiquetasCacheManager.getEstadisticasRecarga(cacheName);
+                if (recarga != null) {
+                    recargaMap.put(cacheName, recarga);
+                }
+            });
+        }
+        return recargaMap;
+    }
+
+    /**
+     * Obtiene las estadísticas de cada región de la caché de segundo nivel de Hibernate
+     * (entidades de referencia, resultados de consultas y marcas de actualización).
+     * Si se desactiva hibernate.generate_statistics se devuelve únicamente {@code estadisticas.activas = false}
+     */
+    public Map<String, Map<String, Object>> getEstadisticasSegundoNivel() {
+        Map<String, Map<String, Object>> regionesMap = new HashMap<>();
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            regionesMap.put("estadisticas", Map.of("activas", false));
+            return regionesMap;
+        }
+        
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            long consultas = regionStats.getHitCount() + regionStats.getMissCount();
+            
+            Map<String, Object> regionMap = new HashMap<>();
+            regionMap.put("hits", regionStats.getHitCount());
+            regionMap.put("misses", regionStats.getMissCount());
+            regionMap.put("puts", regionStats.getPutCount());
+            regionMap.put("hitRate", String.format("%.2f%%", consultas == 0 ? 0.0 : regionStats.getHitCount() * 100.0 / consultas));
+            regionMap.put("elementsInMemory", regionStats.getElementCountInMemory());
+            
+            regionesMap.put(region, regionMap);
+        }
+        
+        // La caché de consultas acumula aquí también los aciertos de findByNombre
+        Map<String, Object> consultasMap = new HashMap<>();
+        consultasMap.put("hits", statistics.getQueryCacheHitCount());
+        consultasMap.put("misses", statistics.getQueryCacheMissCount());
+        consultasMap.put("puts", statistics.getQueryCachePutCount());
+        regionesMap.put("queryCache", consultasMap);
+        
+        return regionesMap;
+    }
+
     /**
      * Obtiene estadísticas para una caché específica
      */
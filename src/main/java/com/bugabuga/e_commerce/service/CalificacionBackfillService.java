@@ -0,0 +1,82 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.MetricsConfig;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recalcula los agregados de calificación (rating_sum / rating_count) de los productos
+ * a partir de la tabla de reseñas. Se usa para poblar los datos existentes y para corregir
+ * desviaciones; el mantenimiento diario lo hace ReseñaService.
+ */
+@Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
+public class CalificacionBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalificacionBackfillService.class);
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean ejecutarAlIniciar;
+    private final int tamanoLote;
+
+    public CalificacionBackfillService(ProductoRepository productoRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.ratings.backfill-on-startup:true}") boolean ejecutarAlIniciar,
+                                       @Value("${app.ratings.backfill-batch-size:1000}") int tamanoLote) {
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ejecutarAlIniciar = ejecutarAlIniciar;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Al arrancar, recalcula solo si hay productos con reseñas y sin agregados: con ddl-auto=validate
+     * nadie aplica V4 por nosotros, y sin esto sus calificaciones se mostrarían vacías
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAlIniciar() {
+        if (!ejecutarAlIniciar) {
+            return;
+        }
+        if (productoRepository.existsCalificacionesSinPoblar()) {
+            logger.warn("Hay productos con reseñas sin agregados de calificación; recalculando");
+            recalcularTodo();
+        } else {
+            logger.debug("Agregados de calificación al día, no se recalculan al iniciar");
+        }
+    }
+
+    /**
+     * Recalcula los agregados de todos los productos en lotes por rango de id,
+     * cada lote en su propia transacción corta
+     *
+     * @return cantidad de productos actualizados
+     */
+    public int recalcularTodo() {
+        logger.info("Iniciando recálculo de calificaciones de productos");
+        long inicio = System.nanoTime();
+
+        long maxId = productoRepository.findMaxId();
+        int actualizados = 0;
+        for (long desde = 0; desde < maxId; desde += tamanoLote) {
+            long desdeId = desde;
+            long hastaId = desde + tamanoLote;
+            Integer lote = transactionTemplate.execute(status ->
+                    productoRepository.recalcularCalificaciones(desdeId, hastaId));
+            actualizados += lote != null ? lote : 0;
+        }
+
+        logger.info("Recálculo de calificaciones completado: {} productos en {} ms",
+                actualizados, (System.nanoTime() - inicio) / 1_000_000);
+        return actualizados;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.model.dto.ProductoDTO;
+import com.bugabuga.e_commerce.model.dto.ProductoResumen;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas que llenan las cachés del catálogo. Las usan tanto los métodos {@code @Cacheable} de
+ * {@link ProductoService} como las recargas anticipadas, que Caffeine ejecuta en su propio executor: al
+ * llamarse a través del proxy, cada carga (página y COUNT) se hace en una sola transacción de lectura.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CargadorCatalogo {
+
+    private static final Logger logger = LoggerFactory.getLogger(CargadorCatalogo.class);
+
+    private final ProductoRepository productoRepository;
+    private final MappingService mappingService;
+
+    public CargadorCatalogo(ProductoRepository productoRepository, MappingService mappingService) {
+        this.productoRepository = productoRepository;
+        this.mappingService = mappingService;
+    }
+
+    public Page<ProductoDTO> cargarProductos(Pageable pageable) {
+        Page<ProductoResumen> productos = productoRepository.findResumenesActivos(pageable);
+
+        logger.debug("Encontrados {} productos", productos.getTotalElements());
+        return productos.map(mappingService::mapToProductoDTO);
+    }
+
+    /**
+     * @return el producto activo, o null si no existe o está inactivo
+     */
+    public ProductoDTO cargarProducto(Long id) {
+        return productoRepository.findResumenActivoById(id)
+                .map(mappingService::mapToProductoDTO)
+                .orElse(null);
+    }
+
+    public Page<ProductoDTO> cargarProductosPorTienda(Long tiendaId, Pageable pageable) {
+        Page<ProductoResumen> productos = productoRepository.findResumenesActivosPorTienda(tiendaId, pageable);
+
+        logger.debug("Encontrados {} productos para la tienda: {}", productos.getTotalElements(), tiendaId);
+        return productos.map(mappingService::mapToProductoDTO);
+    }
+
+    public Page<ProductoDTO> cargarProductosPorCategoria(Long categoriaId, Pageable pageable) {
+        Page<ProductoResumen> productos = productoRepository.findResumenesActivosPorCategoria(categoriaId, pageable);
+
+        logger.debug("Encontrados {} productos para la categoría: {}", productos.getTotalElements(), categoriaId);
+        return productos.map(mappingService::mapToProductoDTO);
+    }
+
+    public List<ProductoDTO> cargarProductosRecientes() {
+        List<ProductoResumen> productos = productoRepository.findResumenesRecientes(PageRequest.of(0, 10));
+
+        logger.debug("Encontrados {} productos recientes", productos.size());
+        return productos.stream()
+                .map(mappingService::mapToProductoDTO)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.bugabuga.e_commerce.service;
 
+import com.bugabuga.e_commerce.config.MetricsConfig;
 import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
 import com.bugabuga.e_commerce.model.dto.CarritoDTO;
 import com.bugabuga.e_commerce.model.entity.Carrito;
@@ -9,6 +10,7 @@ import com.bugabuga.e_commerce.model.entity.Usuario;
 import com.bugabuga.e_commerce.repository.CarritoRepository;
 import com.bugabuga.e_commerce.repository.ProductoRepository;
 import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +22,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
 public class CarritoService {
 
     @Autowired
@@ -33,7 +36,7 @@ public class CarritoService {
 
     @Transactional(readOnly = true)
     public CarritoDTO obtenerCarritoPorUsuarioId(Long usuarioId) {
-        Carrito carrito = carritoRepository.findByUsuarioId(usuarioId)
+        Carrito carrito = carritoRepository.findConItemsByUsuarioId(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Carrito no encontrado para el usuario con id: " + usuarioId));
         
         return convertirADTO(carrito);
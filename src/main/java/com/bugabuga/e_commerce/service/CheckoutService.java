@@ -0,0 +1,164 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.MetricsConfig;
+import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
+import com.bugabuga.e_commerce.exception.StockInsuficienteException;
+import com.bugabuga.e_commerce.model.dto.CheckoutDTO;
+import com.bugabuga.e_commerce.model.dto.PedidoDTO;
+import com.bugabuga.e_commerce.model.entity.Carrito;
+import com.bugabuga.e_commerce.model.entity.ItemCarrito;
+import com.bugabuga.e_commerce.model.entity.ItemPedido;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.repository.CarritoRepository;
+import com.bugabuga.e_commerce.repository.PedidoRepository;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Convierte el carrito de un usuario en un pedido PENDIENTE en una sola transacción: copia los precios
+ * actuales en los items del pedido, vacía el carrito y descuenta el stock.
+ * <p>
+ * El stock se descuenta con UPDATE condicionales ({@link ProductoRepository#reservarStock}) y no leyendo y
+ * guardando el Producto, así que dos pedidos del mismo producto no pueden venderlo por encima de su stock.
+ * Los productos en modo de stock en memoria ({@link StockCalienteService}) no llegan a tocar su fila: sus
+ * unidades se apartan antes de abrir la transacción, que solo las consume.
+ * La reserva es lo último antes del commit: las filas de productos muy vendidos quedan bloqueadas solo ese
+ * instante, y los pedidos que no comparten productos no se esperan entre sí.
+ * <p>
+ * Las cachés del catálogo no se invalidan: el stock que muestran puede ir por detrás hasta que expiren,
+ * pero el checkout siempre decide con el valor de la base de datos.
+ */
+@Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
+public class CheckoutService {
+
+    @Autowired
+    private CarritoRepository carritoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private StockCalienteService stockCalienteService;
+
+    @Autowired
+    private MappingService mappingService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public PedidoDTO realizarCheckout(Long usuarioId, CheckoutDTO datos) {
+        StockCalienteService.Apartado apartado = apartarStockCaliente(usuarioId);
+        try {
+            return transactionTemplate.execute(estado -> crearPedido(usuarioId, datos, apartado));
+        } finally {
+            // Sin efecto si la transacción llegó a empezar: al terminar ya confirmó o devolvió el apartado
+            apartado.liberar();
+        }
+    }
+
+    /**
+     * Aparta, sin transacción abierta, las unidades de los productos del carrito que se venden desde memoria
+     */
+    private StockCalienteService.Apartado apartarStockCaliente(Long usuarioId) {
+        Set<Long> gestionados = stockCalienteService.productosGestionados();
+        SortedMap<Long, Integer> cantidades = new TreeMap<>();
+        if (!gestionados.isEmpty()) {
+            for (Object[] fila : carritoRepository.sumarCantidadesPorProducto(usuarioId, gestionados)) {
+                cantidades.put((Long) fila[0], ((Number) fila[1]).intValue());
+            }
+        }
+        return stockCalienteService.apartar(cantidades);
+    }
+
+    private PedidoDTO crearPedido(Long usuarioId, CheckoutDTO datos, StockCalienteService.Apartado apartado) {
+        apartado.vincular();
+        Carrito carrito = carritoRepository.findConItemsByUsuarioId(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Carrito no encontrado para el usuario con id: " + usuarioId));
+
+        if (carrito.getItems().isEmpty()) {
+            throw new IllegalArgumentException("El carrito está vacío");
+        }
+
+        Pedido pedido = new Pedido();
+        pedido.setUsuario(carrito.getUsuario());
+        pedido.setFechaCreacion(LocalDateTime.now());
+        pedido.setDireccionEnvio(datos.getDireccionEnvio());
+        pedido.setTelefonoContacto(datos.getTelefonoContacto());
+
+        // Cantidades por producto ordenadas por id, el orden en que se bloquearán las filas
+        SortedMap<Long, Integer> cantidades = new TreeMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (ItemCarrito itemCarrito : carrito.getItems()) {
+            Producto producto = itemCarrito.getProducto();
+            if (!producto.isActivo()) {
+                throw new IllegalArgumentException("El producto " + producto.getId() + " ya no está disponible");
+            }
+
+            // El precio se congela en el pedido: cambios posteriores del producto no le afectan
+            ItemPedido itemPedido = new ItemPedido();
+            itemPedido.setPedido(pedido);
+            itemPedido.setProducto(producto);
+            itemPedido.setCantidad(itemCarrito.getCantidad());
+            itemPedido.setPrecioUnitario(producto.getPrecio());
+            itemPedido.setSubtotal(producto.getPrecio().multiply(new BigDecimal(itemCarrito.getCantidad())));
+            pedido.getItems().add(itemPedido);
+
+            total = total.add(itemPedido.getSubtotal());
+            cantidades.merge(producto.getId(), itemCarrito.getCantidad(), Integer::sum);
+        }
+        pedido.setTotal(total);
+
+        pedidoRepository.save(pedido);
+        outboxService.registrarPedido(pedido);
+        carrito.getItems().clear();
+        carrito.setTotal(BigDecimal.ZERO);
+
+        // Escribir pedido, items y carrito antes de reservar, para que los bloqueos de stock duren solo hasta el commit
+        pedidoRepository.flush();
+
+        List<Long> sinStock = reservarStock(cantidades, apartado);
+        if (!sinStock.isEmpty()) {
+            // Deshace el pedido, el vaciado del carrito y las reservas que sí se hicieron
+            throw new StockInsuficienteException(sinStock);
+        }
+
+        return mappingService.mapToPedidoDTO(pedido);
+    }
+
+    /**
+     * Consume primero las unidades apartadas en memoria, que no bloquean filas, y reserva el resto
+     * en un solo lote contra la base de datos
+     *
+     * @return ids de los productos sin stock suficiente
+     */
+    private List<Long> reservarStock(SortedMap<Long, Integer> cantidades, StockCalienteService.Apartado apartado) {
+        SortedMap<Long, Integer> enBaseDeDatos = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            if (!apartado.gestiona(entrada.getKey())) {
+                enBaseDeDatos.put(entrada.getKey(), entrada.getValue());
+            } else if (!apartado.usar(entrada.getKey(), entrada.getValue())) {
+                return List.of(entrada.getKey());
+            }
+        }
+        return enBaseDeDatos.isEmpty() ? List.of() : productoRepository.reservarStock(enBaseDeDatos);
+    }
+}
@@ -0,0 +1,297 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.ColaPagosProperties;
+import com.bugabuga.e_commerce.event.PagoActualizadoEvent;
+import com.bugabuga.e_commerce.event.PagoEncoladoEvent;
+import com.bugabuga.e_commerce.model.entity.Pago;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import com.bugabuga.e_commerce.model.entity.TareaPago;
+import com.bugabuga.e_commerce.repository.PagoRepository;
+import com.bugabuga.e_commerce.repository.TareaPagoRepository;
+import com.bugabuga.e_commerce.service.PasarelaPago.ResultadoCobro;
+import com.bugabuga.e_commerce.service.PasarelaPago.SolicitudCobro;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trabajadores de la cola de pagos ({@code cola_pagos}). Un hilo despachador reclama tantas tareas como
+ * trabajadores libres haya ({@code SELECT ... FOR UPDATE SKIP LOCKED}, así varias instancias reparten la
+ * cola sin esperarse) y las entrega a un pool de {@code app.pagos.cola.hilos} hilos. Cada trabajador llama
+ * a la {@link PasarelaPago} sin transacción ni conexión abierta y después, en una transacción corta, pasa
+ * el pago a COMPLETADO (y su pedido a PAGADO) o a FALLIDO.
+ * <p>
+ * Si la instancia cae con tareas en curso, otra las reclama cuando vence su bloqueo y vuelve a cobrarlas
+ * con la misma clave de idempotencia; el resultado solo se aplica si el pago sigue PENDIENTE.
+ * <p>
+ * La métrica {@code pagos.cola.pendientes} se recalcula cada {@code app.pagos.cola.intervalo-metricas}, no en
+ * cada lectura.
+ */
+@Service
+public class ColaPagosService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColaPagosService.class);
+
+    private final ColaPagosProperties propiedades;
+    private final TareaPagoRepository tareaPagoRepository;
+    private final PagoRepository pagoRepository;
+    private final PasarelaPago pasarela;
+    private final MappingService mappingService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    // Trabajadores libres; el despachador no reclama más tareas que estos
+    private final Semaphore libres;
+    // Avisos de pagos encolados para no esperar al siguiente intervalo
+    private final Semaphore avisos = new Semaphore(0);
+    // Último recuento de tareas sin resolver, para no contar la tabla en cada lectura de la métrica
+    private final AtomicLong pendientes = new AtomicLong();
+    private ExecutorService trabajadores;
+    private Thread despachador;
+    private volatile boolean running;
+
+    public ColaPagosService(ColaPagosProperties propiedades,
+                            TareaPagoRepository tareaPagoRepository,
+                            PagoRepository pagoRepository,
+                            PasarelaPago pasarela,
+                            MappingService mappingService,
+                            OutboxService outboxService,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.propiedades = propiedades;
+        this.tareaPagoRepository = tareaPagoRepository;
+        this.pagoRepository = pagoRepository;
+        this.pasarela = pasarela;
+        this.mappingService = mappingService;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.libres = new Semaphore(propiedades.getHilos());
+
+        Gauge.builder("pagos.cola.pendientes", pendientes, AtomicLong::get)
+                .description("Pagos en la cola sin resolver")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.pagos.cola.intervalo-metricas:15s}")
+    public void contarPendientes() {
+        try {
+            pendientes.set(tareaPagoRepository.countByEstadoIn(
+                    List.of(TareaPago.Estado.PENDIENTE, TareaPago.Estado.EN_PROCESO)));
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron contar los pagos pendientes de la cola: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alEncolarPago(PagoEncoladoEvent evento) {
+        avisos.release();
+    }
+
+    @Override
+    public void start() {
+        if (!propiedades.isEnabled()) {
+            return;
+        }
+        AtomicInteger contador = new AtomicInteger();
+        trabajadores = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(propiedades.getHilos(), tarea -> {
+                    Thread hilo = new Thread(tarea, "pagos-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }), "pagos", List.of());
+        running = true;
+        despachador = Thread.ofPlatform().name("pagos-despachador").daemon().start(this::despachar);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (despachador != null) {
+            despachador.interrupt();
+        }
+        if (trabajadores != null) {
+            // Las tareas que no terminen a tiempo quedan bloqueadas hasta que venza su plazo
+            trabajadores.shutdown();
+            try {
+                trabajadores.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void despachar() {
+        while (running) {
+            try {
+                libres.acquire();
+                int capacidad = 1 + libres.drainPermits();
+                List<Long> tareas = List.of();
+                try {
+                    tareas = reclamar(capacidad);
+                } finally {
+                    // Los permisos de las tareas no reclamadas vuelven, también si la reclamación falla
+                    libres.release(capacidad - tareas.size());
+                }
+
+                if (tareas.isEmpty()) {
+                    avisos.tryAcquire(propiedades.getIntervalo().toMillis(), TimeUnit.MILLISECONDS);
+                    avisos.drainPermits();
+                    continue;
+                }
+                for (Long tareaId : tareas) {
+                    trabajadores.execute(() -> {
+                        try {
+                            procesar(tareaId);
+                        } catch (RuntimeException e) {
+                            // La tarea sigue bloqueada y se reintentará cuando venza su plazo
+                            logger.error("Error procesando la tarea de pago {}", tareaId, e);
+                        } finally {
+                            libres.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Error al reclamar pagos de la cola: {}", e.getMessage());
+                dormir();
+            }
+        }
+    }
+
+    /**
+     * Marca hasta {@code limite} tareas como EN_PROCESO durante el plazo de bloqueo
+     *
+     * @return ids de las tareas reclamadas
+     */
+    private List<Long> reclamar(int limite) {
+        return transactionTemplate.execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<TareaPago> tareas = tareaPagoRepository.reclamables(ahora, limite);
+            for (TareaPago tarea : tareas) {
+                tarea.setEstado(TareaPago.Estado.EN_PROCESO);
+                tarea.setIntentos(tarea.getIntentos() + 1);
+                tarea.setDisponibleDesde(ahora.plus(propiedades.getBloqueo()));
+            }
+            return tareas.stream().map(TareaPago::getId).toList();
+        });
+    }
+
+    private void procesar(Long tareaId) {
+        SolicitudCobro solicitud = transactionTemplate.execute(estado -> {
+            TareaPago tarea = tareaPagoRepository.findById(tareaId).orElseThrow();
+            Pago pago = pagoRepository.findById(tarea.getPagoId()).orElseThrow();
+            // Clave por envío: los reintentos de esta tarea la repiten, un nuevo envío tras un rechazo no
+            return new SolicitudCobro(pago.getId(), pago.getMonto(), pago.getMetodoPago(),
+                    "pago-" + pago.getId() + "-" + tarea.getId());
+        });
+
+        long inicio = System.nanoTime();
+        ResultadoCobro resultado;
+        try {
+            resultado = pasarela.cobrar(solicitud);
+        } catch (RuntimeException e) {
+            registrarLatencia(inicio, "error");
+            reintentarOFallar(tareaId, e);
+            return;
+        }
+        registrarLatencia(inicio, resultado.aprobado() ? "aprobado" : "rechazado");
+        resolver(tareaId, resultado);
+    }
+
+    private void resolver(Long tareaId, ResultadoCobro resultado) {
+        transactionTemplate.executeWithoutResult(estado -> {
+            TareaPago tarea = tareaPagoRepository.findById(tareaId).orElseThrow();
+            Pago pago = pagoRepository.findById(tarea.getPagoId()).orElseThrow();
+            tarea.setEstado(TareaPago.Estado.COMPLETADA);
+            if (pago.getEstado() != Pago.EstadoPago.PENDIENTE) {
+                // Otro trabajador lo resolvió tras vencer el bloqueo de esta tarea
+                return;
+            }
+
+            if (resultado.aprobado()) {
+                pago.setEstado(Pago.EstadoPago.COMPLETADO);
+                pago.setReferenciaPago(resultado.referencia());
+                pago.setFechaPago(LocalDateTime.now());
+                pago.getPedido().setEstado(Pedido.EstadoPedido.PAGADO);
+                outboxService.registrarPedido(pago.getPedido());
+            } else {
+                pago.setEstado(Pago.EstadoPago.FALLIDO);
+                pago.setMotivoRechazo(resultado.motivoRechazo());
+            }
+            outboxService.registrarPago(pago);
+            eventPublisher.publishEvent(new PagoActualizadoEvent(mappingService.mapToEstadoPagoDTO(pago)));
+        });
+    }
+
+    private void reintentarOFallar(Long tareaId, RuntimeException error) {
+        transactionTemplate.executeWithoutResult(estado -> {
+            TareaPago tarea = tareaPagoRepository.findById(tareaId).orElseThrow();
+            String mensaje = String.valueOf(error.getMessage());
+            tarea.setUltimoError(mensaje.length() > TareaPago.LONGITUD_ERROR
+                    ? mensaje.substring(0, TareaPago.LONGITUD_ERROR) : mensaje);
+            if (tarea.getIntentos() < propiedades.getMaxIntentos()) {
+                tarea.setEstado(TareaPago.Estado.PENDIENTE);
+                tarea.setDisponibleDesde(LocalDateTime.now()
+                        .plus(propiedades.getEsperaReintento().multipliedBy(1L << (tarea.getIntentos() - 1))));
+                logger.warn("Fallo transitorio cobrando el pago {} (intento {}): {}",
+                        tarea.getPagoId(), tarea.getIntentos(), error.getMessage());
+                return;
+            }
+
+            tarea.setEstado(TareaPago.Estado.FALLIDA);
+            Pago pago = pagoRepository.findById(tarea.getPagoId()).orElseThrow();
+            if (pago.getEstado() == Pago.EstadoPago.PENDIENTE) {
+                pago.setEstado(Pago.EstadoPago.FALLIDO);
+                pago.setMotivoRechazo("La pasarela no respondió tras " + tarea.getIntentos() + " intentos");
+                outboxService.registrarPago(pago);
+                eventPublisher.publishEvent(new PagoActualizadoEvent(mappingService.mapToEstadoPagoDTO(pago)));
+            }
+            logger.error("Pago {} fallido tras {} intentos: {}", tarea.getPagoId(), tarea.getIntentos(), error.getMessage());
+        });
+    }
+
+    private void registrarLatencia(long inicio, String resultado) {
+        Timer.builder("pagos.pasarela")
+                .description("Duración de los cobros en la pasarela")
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private void dormir() {
+        try {
+            Thread.sleep(propiedades.getIntervalo().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bugabuga.e_commerce.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Unidades disponibles de un producto repartidas en varias franjas, cada una decrementada con CAS.
+ * Cada hilo empieza por su propia franja, así que las ventas concurrentes de un mismo producto rara vez
+ * compiten por la misma celda; solo cuando su franja no alcanza recorre las demás.
+ * <p>
+ * Las franjas están separadas por {@link #SEPARACION} posiciones para que no compartan línea de caché.
+ */
+final class ContadorStockRayado {
+
+    // 16 longs = 128 bytes, dos líneas de caché de 64 bytes (el prefetcher de x86 trae pares)
+    private static final int SEPARACION = 16;
+
+    private final int franjas;
+    private final AtomicLongArray celdas;
+
+    ContadorStockRayado(int franjas) {
+        this.franjas = Math.max(1, franjas);
+        this.celdas = new AtomicLongArray(this.franjas * SEPARACION);
+    }
+
+    /**
+     * Toma {@code unidades} si hay suficientes. Si ninguna franja las tiene enteras las reúne de varias,
+     * y si aun así no alcanzan devuelve lo tomado. Con hilos reponiendo a la vez puede fallar aunque
+     * el total alcance por un instante; quien llama lo trata como falta de unidades y repone.
+     */
+    boolean tomar(int unidades) {
+        int inicio = franjaDelHilo();
+        for (int i = 0; i < franjas; i++) {
+            int celda = ((inicio + i) % franjas) * SEPARACION;
+            long actual;
+            while ((actual = celdas.get(celda)) >= unidades) {
+                if (celdas.compareAndSet(celda, actual, actual - unidades)) {
+                    return true;
+                }
+            }
+        }
+        return reunir(unidades, inicio);
+    }
+
+    /**
+     * Reparte las unidades entre las franjas; el resto de la división va a la franja del hilo
+     */
+    void agregar(long unidades) {
+        long porFranja = unidades / franjas;
+        if (porFranja > 0) {
+            for (int i = 0; i < franjas; i++) {
+                celdas.addAndGet(i * SEPARACION, porFranja);
+            }
+        }
+        celdas.addAndGet(franjaDelHilo() * SEPARACION, unidades - porFranja * franjas);
+    }
+
+    /**
+     * Vacía todas las franjas
+     *
+     * @return unidades retiradas
+     */
+    long vaciar() {
+        long total = 0;
+        for (int i = 0; i < franjas; i++) {
+            total += celdas.getAndSet(i * SEPARACION, 0);
+        }
+        return total;
+    }
+
+    long disponibles() {
+        long total = 0;
+        for (int i = 0; i < franjas; i++) {
+            total += celdas.get(i * SEPARACION);
+        }
+        return total;
+    }
+
+    private boolean reunir(int unidades, int inicio) {
+        long pendientes = unidades;
+        for (int i = 0; i < franjas && pendientes > 0; i++) {
+            int celda = ((inicio + i) % franjas) * SEPARACION;
+            long actual;
+            while ((actual = celdas.get(celda)) > 0) {
+                long tomadas = Math.min(actual, pendientes);
+                if (celdas.compareAndSet(celda, actual, actual - tomadas)) {
+                    pendientes -= tomadas;
+                    break;
+                }
+            }
+        }
+        if (pendientes == 0) {
+            return true;
+        }
+        agregar(unidades - pendientes);
+        return false;
+    }
+
+    private int franjaDelHilo() {
+        return (int) (Thread.currentThread().threadId() % franjas);
+    }
+}
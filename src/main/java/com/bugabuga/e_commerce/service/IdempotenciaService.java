@@ -0,0 +1,179 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.model.entity.ClaveIdempotencia;
+import com.bugabuga.e_commerce.repository.ClaveIdempotenciaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de las respuestas a solicitudes con {@code Idempotency-Key}. La tabla {@code claves_idempotencia}
+ * es la fuente de verdad y decide qué reintento ejecuta la solicitud; delante hay una caché Caffeine con
+ * las respuestas ya completadas, que no cambian, para responder los reintentos sin ir a la base de datos.
+ * Cada operación usa su propia transacción, independiente de la de la solicitud.
+ * <p>
+ * La clave EN_CURSO queda bloqueada durante {@code app.idempotencia.bloqueo}. Si la instancia que la ejecuta cae,
+ * al caducar el bloqueo el siguiente reintento con los mismos datos toma la clave con un UPDATE condicional y
+ * ejecuta la solicitud. El bloqueo debe superar la duración máxima de una solicitud: una ejecución lenta a la que
+ * otro reintento quitó la clave ya no puede completarla ni liberarla.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private final ClaveIdempotenciaRepository repository;
+    private final TransactionTemplate transaccionPropia;
+    private final Duration retencion;
+    private final Duration bloqueo;
+    private final Cache<String, Respuesta> respuestas;
+
+    public IdempotenciaService(ClaveIdempotenciaRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.idempotencia.retencion:24h}") Duration retencion,
+                               @Value("${app.idempotencia.bloqueo:1m}") Duration bloqueo,
+                               @Value("${app.idempotencia.cache.maximum-size:10000}") long tamanoMaximo) {
+        this.repository = repository;
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retencion = retencion;
+        this.bloqueo = bloqueo;
+        this.respuestas = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(retencion)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, respuestas, "idempotencia");
+    }
+
+    /**
+     * Respuesta guardada de una solicitud ya ejecutada
+     */
+    public record Respuesta(String huella, int estadoHttp, String tipoContenido, byte[] cuerpo) {
+    }
+
+    public enum Tipo {
+        // La solicitud no se había recibido: ejecutarla y después completar o liberar la clave
+        NUEVA,
+        // Ya se ejecutó: devolver la respuesta guardada
+        REPETIDA,
+        // Otro reintento con la misma clave se está ejecutando
+        EN_CURSO,
+        // La clave ya se usó con una solicitud distinta
+        CONFLICTO
+    }
+
+    /**
+     * @param propietario en una decisión NUEVA, identifica la ejecución para {@link #completar} y {@link #liberar}
+     */
+    public record Decision(Tipo tipo, Respuesta respuesta, String propietario) {
+
+        Decision(Tipo tipo, Respuesta respuesta) {
+            this(tipo, respuesta, null);
+        }
+    }
+
+    /**
+     * Decide qué hacer con una solicitud. Si devuelve NUEVA, la clave queda reservada EN_CURSO
+     * y quien llama debe terminar con {@link #completar} o {@link #liberar}.
+     */
+    public Decision iniciar(String clave, String huella) {
+        Respuesta guardada = respuestas.getIfPresent(clave);
+        if (guardada != null) {
+            return repetir(guardada, huella);
+        }
+
+        String propietario = UUID.randomUUID().toString();
+        Optional<ClaveIdempotencia> existente = repository.findByClave(clave);
+        if (existente.isEmpty()) {
+            try {
+                transaccionPropia.executeWithoutResult(estado -> {
+                    ClaveIdempotencia nueva = new ClaveIdempotencia();
+                    nueva.setClave(clave);
+                    nueva.setHuella(huella);
+                    nueva.setPropietario(propietario);
+                    nueva.setBloqueadaHasta(LocalDateTime.now().plus(bloqueo));
+                    repository.saveAndFlush(nueva);
+                });
+                return new Decision(Tipo.NUEVA, null, propietario);
+            } catch (DataIntegrityViolationException e) {
+                // Otro reintento la insertó primero
+                existente = repository.findByClave(clave);
+                if (existente.isEmpty()) {
+                    return new Decision(Tipo.EN_CURSO, null);
+                }
+            }
+        }
+
+        ClaveIdempotencia registro = existente.get();
+        if (registro.getEstado() == ClaveIdempotencia.Estado.EN_CURSO) {
+            if (!registro.getHuella().equals(huella)) {
+                return new Decision(Tipo.CONFLICTO, null);
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            if (registro.getBloqueadaHasta() == null || registro.getBloqueadaHasta().isBefore(ahora)) {
+                Integer tomadas = transaccionPropia.execute(estado -> repository.tomarCaducada(
+                        clave, huella, propietario, ahora.plus(bloqueo), ahora));
+                if (tomadas != null && tomadas == 1) {
+                    logger.warn("Clave de idempotencia {} tomada tras caducar su bloqueo", clave);
+                    return new Decision(Tipo.NUEVA, null, propietario);
+                }
+            }
+            return new Decision(Tipo.EN_CURSO, null);
+        }
+        Respuesta respuesta = new Respuesta(registro.getHuella(), registro.getEstadoHttp(),
+                registro.getTipoContenido(), registro.getCuerpo());
+        respuestas.put(clave, respuesta);
+        return repetir(respuesta, huella);
+    }
+
+    public void completar(String clave, String propietario, Respuesta respuesta) {
+        Integer completadas = transaccionPropia.execute(estado -> repository.completar(
+                clave, propietario, respuesta.estadoHttp(), respuesta.tipoContenido(), respuesta.cuerpo()));
+        if (completadas == null || completadas == 0) {
+            // Otro reintento tomó la clave al caducar el bloqueo; su respuesta es la que se guarda
+            logger.warn("La clave de idempotencia {} se completó después de perder su bloqueo", clave);
+            return;
+        }
+        respuestas.put(clave, respuesta);
+    }
+
+    /**
+     * Borra una clave EN_CURSO cuya solicitud falló sin resultado definitivo, para que el reintento se ejecute
+     */
+    public void liberar(String clave, String propietario) {
+        transaccionPropia.executeWithoutResult(estado -> repository.liberar(clave, propietario));
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
+    public void purgarCaducadas() {
+        Integer borradas = transaccionPropia.execute(estado ->
+                repository.deleteByFechaCreacionBefore(LocalDateTime.now().minus(retencion)));
+        if (borradas != null && borradas > 0) {
+            logger.info("Purgadas {} claves de idempotencia caducadas", borradas);
+        }
+    }
+
+    private static Decision repetir(Respuesta respuesta, String huella) {
+        return respuesta.huella().equals(huella)
+                ? new Decision(Tipo.REPETIDA, respuesta)
+                : new Decision(Tipo.CONFLICTO, null);
+    }
+}
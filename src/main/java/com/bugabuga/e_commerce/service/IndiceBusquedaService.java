@@ -0,0 +1,379 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.MetricsConfig;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria para la búsqueda de productos del catálogo.
+ * Indexa nombre y descripción de los productos activos (en minúsculas y sin acentos),
+ * ordena los resultados con BM25 y pagina en memoria; la base de datos solo
+ * hidrata los ids de la página solicitada.
+ * <p>
+ * Cada instancia tiene su propio índice. Los cambios hechos en esta instancia se aplican al confirmar su
+ * transacción; los de otras instancias, cada {@code app.search.index.sincronizacion-intervalo}, reindexando
+ * los productos cuyo {@code updated_at} es posterior a la sincronización anterior.
+ */
+@Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
+public class IndiceBusquedaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBusquedaService.class);
+
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    // Un término del nombre pesa como tres de la descripción
+    private static final int PESO_NOMBRE = 3;
+    // Parámetros estándar de BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Los términos de la consulta con esta longitud o más también buscan por prefijo
+    private static final int LONGITUD_MINIMA_PREFIJO = 3;
+    private static final double DESCUENTO_PREFIJO = 0.5;
+    private static final int TAMANO_LOTE_CARGA = 1000;
+    // Solapamiento entre sincronizaciones, para no perder un cambio cuya transacción tardó en confirmarse
+    // o que se hizo en una instancia con el reloj algo atrasado
+    private static final Duration MARGEN_SINCRONIZACION = Duration.ofMinutes(1);
+
+    private final ProductoRepository productoRepository;
+    private final boolean habilitado;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final Set<Long> eliminadosDuranteCarga = new HashSet<>();
+    private long longitudTotal;
+    private volatile boolean listo;
+    private volatile LocalDateTime ultimaSincronizacion;
+
+    public IndiceBusquedaService(ProductoRepository productoRepository,
+                                 @Value("${app.search.index.enabled:true}") boolean habilitado) {
+        this.productoRepository = productoRepository;
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Resultado de una búsqueda: ids de la página en orden de relevancia y total de coincidencias
+     */
+    public record ResultadoBusqueda(List<Long> ids, long total) {
+    }
+
+    private record Documento(Long tiendaId, int longitud, Map<String, Integer> frecuencias) {
+    }
+
+    /**
+     * Construye el índice a partir de los productos activos al arrancar la aplicación.
+     * Mientras no termine, las búsquedas se resuelven contra la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirIndice() {
+        if (!habilitado) {
+            logger.info("Índice de búsqueda deshabilitado, se usará la consulta en base de datos");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        // Lo que cambie durante la carga lo recoge la primera sincronización
+        ultimaSincronizacion = LocalDateTime.now();
+        long ultimoId = 0L;
+        int cargados = 0;
+        List<Object[]> lote;
+        do {
+            lote = productoRepository.findIndexablesDespuesDe(ultimoId, PageRequest.of(0, TAMANO_LOTE_CARGA));
+            lock.writeLock().lock();
+            try {
+                for (Object[] fila : lote) {
+                    Long id = (Long) fila[0];
+                    ultimoId = id;
+                    // Lo indexado o eliminado durante la carga es más reciente que la fila leída
+                    if (documentos.containsKey(id) || eliminadosDuranteCarga.contains(id)) {
+                        continue;
+                    }
+                    agregar(id, (String) fila[1], (String) fila[2], (Long) fila[3]);
+                    cargados++;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (lote.size() == TAMANO_LOTE_CARGA);
+
+        lock.writeLock().lock();
+        try {
+            eliminadosDuranteCarga.clear();
+            listo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Índice de búsqueda construido: {} productos, {} términos en {} ms",
+                cargados, postings.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Reindexa los productos modificados desde la sincronización anterior, incluidos los cambios hechos
+     * en otras instancias. Los productos desactivados se eliminan del índice.
+     */
+    @Scheduled(fixedDelayString = "${app.search.index.sincronizacion-intervalo:30s}")
+    public void sincronizar() {
+        if (!isListo()) {
+            return;
+        }
+
+        LocalDateTime inicio = LocalDateTime.now();
+        try {
+            List<Object[]> modificados = productoRepository.findModificadosDesde(
+                    ultimaSincronizacion.minus(MARGEN_SINCRONIZACION));
+            for (Object[] fila : modificados) {
+                if ((Boolean) fila[4]) {
+                    indexar((Long) fila[0], (String) fila[1], (String) fila[2], (Long) fila[3]);
+                } else {
+                    eliminar((Long) fila[0]);
+                }
+            }
+            ultimaSincronizacion = inicio;
+            logger.debug("Índice de búsqueda sincronizado: {} productos modificados", modificados.size());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo sincronizar el índice de búsqueda: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si el índice está cargado y puede atender búsquedas
+     */
+    public boolean isListo() {
+        return habilitado && listo;
+    }
+
+    /**
+     * Indexa (o reindexa) un producto cuando confirme la transacción en curso.
+     * Los productos inactivos se eliminan del índice.
+     */
+    public void indexarTrasCommit(Producto producto) {
+        if (!habilitado) {
+            return;
+        }
+
+        // Copiar los valores ahora: la entidad puede quedar desconectada tras el commit
+        Long id = producto.getId();
+        String nombre = producto.getNombre();
+        String descripcion = producto.getDescripcion();
+        Long tiendaId = producto.getTienda() != null ? producto.getTienda().getId() : null;
+        boolean activo = producto.isActivo();
+
+        ejecutarTrasCommit(() -> {
+            if (activo) {
+                indexar(id, nombre, descripcion, tiendaId);
+            } else {
+                eliminar(id);
+            }
+        });
+    }
+
+    /**
+     * Indexa (o reindexa) un producto inmediatamente
+     */
+    public void indexar(Long id, String nombre, String descripcion, Long tiendaId) {
+        lock.writeLock().lock();
+        try {
+            quitar(id);
+            agregar(id, nombre, descripcion, tiendaId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina un producto del índice inmediatamente
+     */
+    public void eliminar(Long id) {
+        lock.writeLock().lock();
+        try {
+            quitar(id);
+            if (!listo) {
+                eliminadosDuranteCarga.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos que contengan todos los términos de la consulta.
+     *
+     * @param keyword  texto de búsqueda
+     * @param tiendaId tienda por la que filtrar, o null para todo el catálogo
+     * @param offset   posición del primer resultado de la página
+     * @param limite   tamaño de la página
+     */
+    public ResultadoBusqueda buscar(String keyword, Long tiendaId, long offset, int limite) {
+        List<String> terminos = new ArrayList<>(new LinkedHashSet<>(tokenizar(keyword)));
+        if (terminos.isEmpty()) {
+            return new ResultadoBusqueda(List.of(), 0);
+        }
+
+        List<Map.Entry<Long, Double>> ordenados;
+        lock.readLock().lock();
+        try {
+            int totalDocumentos = documentos.size();
+            double longitudMedia = totalDocumentos == 0 ? 0 : (double) longitudTotal / totalDocumentos;
+
+            Map<Long, Double> puntajes = null;
+            for (String termino : terminos) {
+                Map<Long, Double> parcial = puntuarTermino(termino, tiendaId, totalDocumentos, longitudMedia);
+                if (puntajes == null) {
+                    puntajes = parcial;
+                } else {
+                    // Semántica AND: solo sobreviven los productos que contienen todos los términos
+                    puntajes.keySet().retainAll(parcial.keySet());
+                    puntajes.replaceAll((id, puntaje) -> puntaje + parcial.get(id));
+                }
+                if (puntajes.isEmpty()) {
+                    break;
+                }
+            }
+            ordenados = new ArrayList<>(puntajes.entrySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ordenados.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey(Comparator.reverseOrder())));
+
+        int desde = (int) Math.min(offset, ordenados.size());
+        int hasta = (int) Math.min((long) desde + limite, ordenados.size());
+        List<Long> ids = new ArrayList<>(hasta - desde);
+        for (Map.Entry<Long, Double> entrada : ordenados.subList(desde, hasta)) {
+            ids.add(entrada.getKey());
+        }
+
+        return new ResultadoBusqueda(ids, ordenados.size());
+    }
+
+    /**
+     * Normaliza un texto a términos indexables: sin acentos, en minúsculas y separado por
+     * cualquier carácter que no sea letra o dígito
+     */
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADOR.split(normalizado)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Long, Double> puntuarTermino(String termino, Long tiendaId, int totalDocumentos, double longitudMedia) {
+        Map<String, Map<Long, Integer>> coincidencias;
+        if (termino.length() >= LONGITUD_MINIMA_PREFIJO) {
+            coincidencias = postings.subMap(termino, true, termino + Character.MAX_VALUE, false);
+        } else if (postings.containsKey(termino)) {
+            coincidencias = Map.of(termino, postings.get(termino));
+        } else {
+            return new HashMap<>();
+        }
+
+        Map<Long, Double> parcial = new HashMap<>();
+        coincidencias.forEach((token, lista) -> {
+            double peso = token.length() == termino.length() ? 1.0 : DESCUENTO_PREFIJO;
+            double idf = Math.log(1 + (totalDocumentos - lista.size() + 0.5) / (lista.size() + 0.5));
+
+            lista.forEach((id, frecuencia) -> {
+                Documento documento = documentos.get(id);
+                if (tiendaId != null && !tiendaId.equals(documento.tiendaId())) {
+                    return;
+                }
+                double normalizacion = K1 * (1 - B + B * documento.longitud() / longitudMedia);
+                double puntaje = peso * idf * frecuencia * (K1 + 1) / (frecuencia + normalizacion);
+                parcial.merge(id, puntaje, Double::sum);
+            });
+        });
+        return parcial;
+    }
+
+    // Debe llamarse con el lock de escritura tomado
+    private void agregar(Long id, String nombre, String descripcion, Long tiendaId) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        List<String> tokensNombre = tokenizar(nombre);
+        List<String> tokensDescripcion = tokenizar(descripcion);
+        tokensNombre.forEach(token -> frecuencias.merge(token, PESO_NOMBRE, Integer::sum));
+        tokensDescripcion.forEach(token -> frecuencias.merge(token, 1, Integer::sum));
+
+        int longitud = tokensNombre.size() * PESO_NOMBRE + tokensDescripcion.size();
+        documentos.put(id, new Documento(tiendaId, longitud, frecuencias));
+        longitudTotal += longitud;
+
+        frecuencias.forEach((token, frecuencia) ->
+                postings.computeIfAbsent(token, t -> new HashMap<>()).put(id, frecuencia));
+    }
+
+    // Debe llamarse con el lock de escritura tomado
+    private void quitar(Long id) {
+        Documento documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+
+        longitudTotal -= documento.longitud();
+        documento.frecuencias().keySet().forEach(token -> {
+            Map<Long, Integer> lista = postings.get(token);
+            if (lista != null) {
+                lista.remove(id);
+                if (lista.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        });
+    }
+
+    private void ejecutarTrasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
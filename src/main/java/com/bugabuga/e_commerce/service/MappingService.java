@@ -1,17 +1,23 @@
 package com.bugabuga.e_commerce.service;
 
+import com.bugabuga.e_commerce.model.dto.EstadoPagoDTO;
+import com.bugabuga.e_commerce.model.dto.PedidoDTO;
 import com.bugabuga.e_commerce.model.dto.ProductoActualizacionDTO;
 import com.bugabuga.e_commerce.model.dto.ProductoCreacionDTO;
 import com.bugabuga.e_commerce.model.dto.ProductoDTO;
+import com.bugabuga.e_commerce.model.dto.ProductoResumen;
 import com.bugabuga.e_commerce.model.dto.UsuarioDTO;
 import com.bugabuga.e_commerce.model.dto.UsuarioRegistroDTO;
 import com.bugabuga.e_commerce.model.entity.Categoria;
+import com.bugabuga.e_commerce.model.entity.Pago;
+import com.bugabuga.e_commerce.model.entity.Pedido;
 import com.bugabuga.e_commerce.model.entity.Producto;
 import com.bugabuga.e_commerce.model.entity.Rol;
 import com.bugabuga.e_commerce.model.entity.Tienda;
 import com.bugabuga.e_commerce.model.entity.Usuario;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -97,23 +103,45 @@ public class MappingService {
             dto.setCategoriaNombre(categoria.getNombre());
         }
         
-        // Calcular calificación promedio y cantidad de reseñas
-        if (producto.getReseñas() != null && !producto.getReseñas().isEmpty()) {
-            double promedio = producto.getReseñas().stream()
-                    .mapToInt(r -> r.getCalificacion())
-                    .average()
-                    .orElse(0.0);
-            
-            dto.setCalificacionPromedio(promedio);
-            dto.setCantidadReseñas(producto.getReseñas().size());
-        } else {
-            dto.setCalificacionPromedio(0.0);
-            dto.setCantidadReseñas(0);
+        // Calificación a partir de los agregados desnormalizados, sin cargar las reseñas
+        dto.setCalificacionPromedio(calcularPromedio(producto.getSumaCalificaciones(), producto.getCantidadCalificaciones()));
+        dto.setCantidadReseñas(producto.getCantidadCalificaciones());
+        
+        return dto;
+    }
+    
+    /**
+     * Convierte una proyección ProductoResumen a ProductoDTO
+     */
+    public ProductoDTO mapToProductoDTO(ProductoResumen resumen) {
+        if (resumen == null) {
+            return null;
         }
         
+        ProductoDTO dto = new ProductoDTO();
+        dto.setId(resumen.id());
+        dto.setNombre(resumen.nombre());
+        dto.setDescripcion(resumen.descripcion());
+        dto.setPrecio(resumen.precio());
+        dto.setStock(resumen.stock());
+        dto.setImagenUrl(resumen.imagenUrl());
+        dto.setTiendaId(resumen.tiendaId());
+        dto.setTiendaNombre(resumen.tiendaNombre());
+        dto.setCategoriaId(resumen.categoriaId());
+        dto.setCategoriaNombre(resumen.categoriaNombre());
+        dto.setCalificacionPromedio(calcularPromedio(resumen.sumaCalificaciones(), resumen.cantidadCalificaciones()));
+        dto.setCantidadReseñas(resumen.cantidadCalificaciones());
+        
         return dto;
     }
     
+    /**
+     * Calcula la calificación promedio a partir de la suma y la cantidad de calificaciones
+     */
+    public static double calcularPromedio(long suma, int cantidad) {
+        return cantidad > 0 ? (double) suma / cantidad : 0.0;
+    }
+    
     /**
      * Convierte una lista de Productos a lista de ProductoDTO
      */
@@ -167,9 +195,7 @@ public class MappingService {
             producto.setPrecio(dto.getPrecio());
         }
         
-        if (dto.getStock() != null) {
-            producto.setStock(dto.getStock());
-        }
+        // El stock no se copia: ProductoService lo ajusta con un UPDATE para no pisar los checkouts concurrentes
         
         if (dto.getImagenUrl() != null) {
             producto.setImagenUrl(dto.getImagenUrl());
@@ -177,4 +203,67 @@ public class MappingService {
         
         // Categoría se actualiza en el servicio
     }
+    
+    /**
+     * Convierte un Pedido a PedidoDTO, con sus items y el pago si lo tiene
+     */
+    public PedidoDTO mapToPedidoDTO(Pedido pedido) {
+        if (pedido == null) {
+            return null;
+        }
+        
+        PedidoDTO pedidoDTO = new PedidoDTO();
+        pedidoDTO.setId(pedido.getId());
+        pedidoDTO.setUsuarioId(pedido.getUsuario().getId());
+        pedidoDTO.setUsuarioNombre(pedido.getUsuario().getNombre() + " " + pedido.getUsuario().getApellido());
+        pedidoDTO.setTotal(pedido.getTotal());
+        pedidoDTO.setFechaCreacion(pedido.getFechaCreacion());
+        pedidoDTO.setEstado(pedido.getEstado());
+        pedidoDTO.setDireccionEnvio(pedido.getDireccionEnvio());
+        pedidoDTO.setTelefonoContacto(pedido.getTelefonoContacto());
+        
+        // Convertir items del pedido
+        List<PedidoDTO.ItemPedidoDTO> itemsDTO = new ArrayList<>();
+        pedido.getItems().forEach(item -> {
+            PedidoDTO.ItemPedidoDTO itemDTO = new PedidoDTO.ItemPedidoDTO();
+            itemDTO.setId(item.getId());
+            itemDTO.setProductoId(item.getProducto().getId());
+            itemDTO.setProductoNombre(item.getProducto().getNombre());
+            itemDTO.setProductoImagen(item.getProducto().getImagenUrl());
+            itemDTO.setCantidad(item.getCantidad());
+            itemDTO.setPrecioUnitario(item.getPrecioUnitario());
+            itemDTO.setSubtotal(item.getSubtotal());
+            
+            itemsDTO.add(itemDTO);
+        });
+        pedidoDTO.setItems(itemsDTO);
+        
+        // Convertir información de pago si existe
+        if (pedido.getPago() != null) {
+            Pago pago = pedido.getPago();
+            PedidoDTO.PagoDTO pagoDTO = new PedidoDTO.PagoDTO();
+            pagoDTO.setId(pago.getId());
+            pagoDTO.setMonto(pago.getMonto());
+            pagoDTO.setMetodoPago(pago.getMetodoPago().toString());
+            pagoDTO.setFechaPago(pago.getFechaPago());
+            pagoDTO.setReferenciaPago(pago.getReferenciaPago());
+            pagoDTO.setEstado(pago.getEstado().toString());
+            
+            pedidoDTO.setPago(pagoDTO);
+        }
+        
+        return pedidoDTO;
+    }
+    
+    /**
+     * Convierte un Pago al estado que se consulta y se envía en el flujo de eventos del pago
+     */
+    public EstadoPagoDTO mapToEstadoPagoDTO(Pago pago) {
+        if (pago == null) {
+            return null;
+        }
+        
+        return new EstadoPagoDTO(pago.getId(), pago.getPedido().getId(), pago.getEstado(),
+                pago.getPedido().getEstado(), pago.getReferenciaPago(), pago.getMotivoRechazo());
+    }
 }
@@ -0,0 +1,92 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.event.PagoActualizadoEvent;
+import com.bugabuga.e_commerce.model.dto.EstadoPagoDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Flujos Server-Sent Events por pago: el cliente recibe el estado actual al suscribirse y el definitivo
+ * cuando la cola lo resuelve, y el flujo se cierra. Las suscripciones son de esta instancia; con varias
+ * instancias, un cliente cuyo pago resuelve otra recibe el cierre por timeout y debe consultar el estado.
+ */
+@Component
+public class NotificadorPagos {
+
+    static final String EVENTO = "pago";
+
+    private final Map<Long, List<SseEmitter>> suscripciones = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+
+    public NotificadorPagos(@Value("${app.pagos.eventos.timeout:60s}") Duration timeout) {
+        this.timeoutMs = timeout.toMillis();
+    }
+
+    /**
+     * Abre un flujo para el pago. Se registra antes de leer el estado actual para no perder una
+     * resolución que llegue entre ambos pasos.
+     *
+     * @param estadoActual lectura del estado; si lanza excepción la suscripción se descarta
+     */
+    public SseEmitter suscribir(Long pagoId, Supplier<EstadoPagoDTO> estadoActual) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // Se añade dentro de compute: si no, quitar() podría borrar la lista vacía entre obtenerla y añadir,
+        // y el emisor quedaría en una lista fuera del mapa que nunca recibe el estado definitivo
+        suscripciones.compute(pagoId, (id, emisores) -> {
+            List<SseEmitter> lista = emisores != null ? emisores : new CopyOnWriteArrayList<>();
+            lista.add(emitter);
+            return lista;
+        });
+        Runnable quitar = () -> quitar(pagoId, emitter);
+        emitter.onCompletion(quitar);
+        emitter.onTimeout(quitar);
+        emitter.onError(error -> quitar.run());
+
+        EstadoPagoDTO estado;
+        try {
+            estado = estadoActual.get();
+        } catch (RuntimeException e) {
+            quitar.run();
+            throw e;
+        }
+        enviar(emitter, estado);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void alActualizarPago(PagoActualizadoEvent evento) {
+        List<SseEmitter> emisores = suscripciones.get(evento.estado().getPagoId());
+        if (emisores != null) {
+            emisores.forEach(emitter -> enviar(emitter, evento.estado()));
+        }
+    }
+
+    private void enviar(SseEmitter emitter, EstadoPagoDTO estado) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENTO).data(estado));
+            if (estado.isDefinitivo()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o flujo ya cerrado
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void quitar(Long pagoId, SseEmitter emitter) {
+        suscripciones.computeIfPresent(pagoId, (id, emisores) -> {
+            emisores.remove(emitter);
+            return emisores.isEmpty() ? null : emisores;
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.model.entity.EventoOutbox;
+import com.bugabuga.e_commerce.model.entity.Pago;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import com.bugabuga.e_commerce.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registra en el outbox los cambios de estado de pedidos y pagos. Exige una transacción en curso: el
+ * evento se inserta junto al cambio y se descarta con él si se deshace. La entrega la hace después
+ * {@link PublicadorOutbox}.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    static final String PEDIDO = "PEDIDO";
+    static final String PAGO = "PAGO";
+
+    private final EventoOutboxRepository repository;
+    private final MappingService mappingService;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(EventoOutboxRepository repository, MappingService mappingService, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.mappingService = mappingService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Estado actual del pedido; llamar después de asignarle el estado nuevo
+     */
+    public void registrarPedido(Pedido pedido) {
+        Map<String, Object> carga = new LinkedHashMap<>();
+        carga.put("pedidoId", pedido.getId());
+        carga.put("usuarioId", pedido.getUsuario().getId());
+        carga.put("estado", pedido.getEstado());
+        carga.put("total", pedido.getTotal());
+        registrar(PEDIDO, pedido.getId(), pedido.getEstado().name(), carga);
+    }
+
+    /**
+     * Estado actual del pago, con el de su pedido; llamar después de asignarle el estado nuevo
+     */
+    public void registrarPago(Pago pago) {
+        registrar(PAGO, pago.getId(), pago.getEstado().name(), mappingService.mapToEstadoPagoDTO(pago));
+    }
+
+    private void registrar(String agregado, Long agregadoId, String estado, Object carga) {
+        EventoOutbox evento = new EventoOutbox();
+        evento.setAgregado(agregado);
+        evento.setAgregadoId(agregadoId);
+        evento.setTipo(agregado + "_" + estado);
+        try {
+            evento.setCarga(objectMapper.writeValueAsString(carga));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + evento.getTipo(), e);
+        }
+        repository.save(evento);
+    }
+}
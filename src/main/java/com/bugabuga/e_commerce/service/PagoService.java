@@ -1,25 +1,31 @@
 package com.bugabuga.e_commerce.service;
 
+import com.bugabuga.e_commerce.config.MetricsConfig;
+import com.bugabuga.e_commerce.event.PagoEncoladoEvent;
 import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
+import com.bugabuga.e_commerce.model.dto.EstadoPagoDTO;
 import com.bugabuga.e_commerce.model.dto.PedidoDTO;
 import com.bugabuga.e_commerce.model.entity.Pago;
 import com.bugabuga.e_commerce.model.entity.Pedido;
-import com.bugabuga.e_commerce.model.entity.Usuario;
+import com.bugabuga.e_commerce.model.entity.TareaPago;
 import com.bugabuga.e_commerce.repository.PagoRepository;
 import com.bugabuga.e_commerce.repository.PedidoRepository;
+import com.bugabuga.e_commerce.repository.TareaPagoRepository;
 import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
 public class PagoService {
 
     @Autowired
@@ -31,10 +37,27 @@ public class PagoService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private TareaPagoRepository tareaPagoRepository;
+
+    @Autowired
+    private MappingService mappingService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Registra el pago PENDIENTE y lo deja en la cola de cobro; la pasarela se llama después, fuera de esta
+     * transacción ({@link ColaPagosService}). Un pedido con un pago FALLIDO puede volver a pagarse: se reutiliza
+     * el mismo Pago, porque cada pedido tiene uno solo.
+     */
     @Transactional
     public PedidoDTO procesarPago(Long usuarioId, Long pedidoId, Pago.MetodoPago metodoPago, Map<String, String> datosPago) {
         // Verificar que el usuario existe
-        Usuario usuario = usuarioRepository.findById(usuarioId)
+        usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + usuarioId));
         
         // Verificar que el pedido existe y pertenece al usuario
@@ -50,28 +73,42 @@ public class PagoService {
             throw new IllegalArgumentException("El pedido ya ha sido procesado o cancelado");
         }
         
-        // Crear un nuevo pago
-        Pago pago = new Pago();
-        pago.setPedido(pedido);
+        Pago pago = pedido.getPago();
+        if (pago != null && pago.getEstado() != Pago.EstadoPago.FALLIDO) {
+            throw new IllegalArgumentException("El pedido ya tiene un pago en curso");
+        }
+        
+        // Los datos del medio de pago se validan aquí y no se guardan en la cola
+        validarDatosPago(metodoPago, datosPago);
+        
+        if (pago == null) {
+            pago = new Pago();
+            pago.setPedido(pedido);
+            pedido.setPago(pago);
+        }
         pago.setMonto(pedido.getTotal());
         pago.setMetodoPago(metodoPago);
         pago.setFechaPago(LocalDateTime.now());
-        pago.setEstado(Pago.EstadoPago.COMPLETADO);
-        
-        // Procesar los datos de pago según el método
-        String referenciaPago = procesarDatosPago(metodoPago, datosPago);
-        pago.setReferenciaPago(referenciaPago);
-        
-        // Guardar el pago
+        pago.setEstado(Pago.EstadoPago.PENDIENTE);
+        pago.setReferenciaPago(null);
+        pago.setMotivoRechazo(null);
         pagoRepository.save(pago);
+        outboxService.registrarPago(pago);
         
-        // Actualizar el estado del pedido
-        pedido.setEstado(Pedido.EstadoPedido.PAGADO);
-        pedido.setPago(pago);
-        pedidoRepository.save(pedido);
+        TareaPago tarea = new TareaPago();
+        tarea.setPagoId(pago.getId());
+        tareaPagoRepository.save(tarea);
+        eventPublisher.publishEvent(new PagoEncoladoEvent(pago.getId()));
+        
+        return mappingService.mapToPedidoDTO(pedido);
+    }
+
+    @Transactional(readOnly = true)
+    public EstadoPagoDTO obtenerEstadoPago(Long pagoId) {
+        Pago pago = pagoRepository.findById(pagoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Pago no encontrado con id: " + pagoId));
         
-        // Convertir el pedido a DTO y devolverlo
-        return convertirPedidoADTO(pedido);
+        return mappingService.mapToEstadoPagoDTO(pago);
     }
 
     @Transactional(readOnly = true)
@@ -149,6 +186,8 @@ public class PagoService {
         Pedido pedido = pago.getPedido();
         pedido.setEstado(Pedido.EstadoPedido.CANCELADO);
         pedidoRepository.save(pedido);
+        outboxService.registrarPago(pago);
+        outboxService.registrarPedido(pedido);
         
         // Preparar la respuesta
         Map<String, Object> resultado = new HashMap<>();
@@ -161,12 +200,7 @@ public class PagoService {
         return resultado;
     }
 
-    private String procesarDatosPago(Pago.MetodoPago metodoPago, Map<String, String> datosPago) {
-        // Aquí se implementaría la lógica para procesar el pago con un gateway de pagos real
-        // Por ahora, simplemente generamos una referencia de pago ficticia
-        
-        String referencia = "REF-" + System.currentTimeMillis();
-        
+    private void validarDatosPago(Pago.MetodoPago metodoPago, Map<String, String> datosPago) {
         switch (metodoPago) {
             case TARJETA_CREDITO:
             case TARJETA_DEBITO:
@@ -174,65 +208,13 @@ public class PagoService {
                 if (!datosPago.containsKey("numeroTarjeta") || !datosPago.containsKey("cvv")) {
                     throw new IllegalArgumentException("Datos de tarjeta incompletos");
                 }
-                referencia = "CARD-" + referencia;
                 break;
             case TRANSFERENCIA:
-                referencia = "TRANS-" + referencia;
-                break;
             case PAYPAL:
-                referencia = "PP-" + referencia;
-                break;
             case EFECTIVO:
-                referencia = "CASH-" + referencia;
                 break;
             default:
                 throw new IllegalArgumentException("Método de pago no soportado");
         }
-        
-        return referencia;
-    }
-
-    private PedidoDTO convertirPedidoADTO(Pedido pedido) {
-        PedidoDTO pedidoDTO = new PedidoDTO();
-        pedidoDTO.setId(pedido.getId());
-        pedidoDTO.setUsuarioId(pedido.getUsuario().getId());
-        pedidoDTO.setUsuarioNombre(pedido.getUsuario().getNombre() + " " + pedido.getUsuario().getApellido());
-        pedidoDTO.setTotal(pedido.getTotal());
-        pedidoDTO.setFechaCreacion(pedido.getFechaCreacion());
-        pedidoDTO.setEstado(pedido.getEstado());
-        pedidoDTO.setDireccionEnvio(pedido.getDireccionEnvio());
-        pedidoDTO.setTelefonoContacto(pedido.getTelefonoContacto());
-        
-        // Convertir items del pedido
-        List<PedidoDTO.ItemPedidoDTO> itemsDTO = new ArrayList<>();
-        pedido.getItems().forEach(item -> {
-            PedidoDTO.ItemPedidoDTO itemDTO = new PedidoDTO.ItemPedidoDTO();
-            itemDTO.setId(item.getId());
-            itemDTO.setProductoId(item.getProducto().getId());
-            itemDTO.setProductoNombre(item.getProducto().getNombre());
-            itemDTO.setProductoImagen(item.getProducto().getImagenUrl());
-            itemDTO.setCantidad(item.getCantidad());
-            itemDTO.setPrecioUnitario(item.getPrecioUnitario());
-            itemDTO.setSubtotal(item.getSubtotal());
-            
-            itemsDTO.add(itemDTO);
-        });
-        pedidoDTO.setItems(itemsDTO);
-        
-        // Convertir información de pago si existe
-        if (pedido.getPago() != null) {
-            Pago pago = pedido.getPago();
-            PedidoDTO.PagoDTO pagoDTO = new PedidoDTO.PagoDTO();
-            pagoDTO.setId(pago.getId());
-            pagoDTO.setMonto(pago.getMonto());
-            pagoDTO.setMetodoPago(pago.getMetodoPago().toString());
-            pagoDTO.setFechaPago(pago.getFechaPago());
-            pagoDTO.setReferenciaPago(pago.getReferenciaPago());
-            pagoDTO.setEstado(pago.getEstado().toString());
-            
-            pedidoDTO.setPago(pagoDTO);
-        }
-        
-        return pedidoDTO;
     }
 }
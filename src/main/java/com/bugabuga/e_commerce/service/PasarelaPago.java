@@ -0,0 +1,35 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.model.entity.Pago;
+
+import java.math.BigDecimal;
+
+/**
+ * Pasarela externa que cobra los pagos de la cola. La implementación por defecto es
+ * {@link PasarelaPagoSimulada}; para usar otra se declara su bean y se cambia {@code app.pagos.pasarela}.
+ */
+public interface PasarelaPago {
+
+    /**
+     * Cobra un pago. Puede tardar segundos: se llama desde los trabajadores de la cola, sin transacción.
+     *
+     * @return resultado definitivo (aprobado o rechazado)
+     * @throws RuntimeException ante un fallo transitorio (red, timeout); el cobro se reintentará con la
+     * misma {@code claveIdempotencia}, que la pasarela debe usar para no cobrar dos veces
+     */
+    ResultadoCobro cobrar(SolicitudCobro solicitud);
+
+    record SolicitudCobro(Long pagoId, BigDecimal monto, Pago.MetodoPago metodoPago, String claveIdempotencia) {
+    }
+
+    record ResultadoCobro(boolean aprobado, String referencia, String motivoRechazo) {
+
+        public static ResultadoCobro aprobado(String referencia) {
+            return new ResultadoCobro(true, referencia, null);
+        }
+
+        public static ResultadoCobro rechazado(String motivo) {
+            return new ResultadoCobro(false, null, motivo);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bugabuga.e_commerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pasarela local para desarrollo y pruebas de carga: espera {@code app.pagos.simulada.latencia} y aprueba
+ * el cobro, salvo una fracción {@code app.pagos.simulada.tasa-rechazo} que rechaza. Se desactiva con
+ * cualquier otro valor de {@code app.pagos.pasarela}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.pagos.pasarela", havingValue = "simulada", matchIfMissing = true)
+public class PasarelaPagoSimulada implements PasarelaPago {
+
+    private final Duration latencia;
+    private final double tasaRechazo;
+
+    public PasarelaPagoSimulada(@Value("${app.pagos.simulada.latencia:800ms}") Duration latencia,
+                                @Value("${app.pagos.simulada.tasa-rechazo:0.0}") double tasaRechazo) {
+        this.latencia = latencia;
+        this.tasaRechazo = tasaRechazo;
+    }
+
+    @Override
+    public ResultadoCobro cobrar(SolicitudCobro solicitud) {
+        try {
+            Thread.sleep(latencia);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cobro interrumpido", e);
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < tasaRechazo) {
+            return ResultadoCobro.rechazado("Pago rechazado por la entidad emisora");
+        }
+        return ResultadoCobro.aprobado(prefijo(solicitud) + "REF-" + UUID.randomUUID());
+    }
+
+    private static String prefijo(SolicitudCobro solicitud) {
+        return switch (solicitud.metodoPago()) {
+            case TARJETA_CREDITO, TARJETA_DEBITO -> "CARD-";
+            case TRANSFERENCIA -> "TRANS-";
+            case PAYPAL -> "PP-";
+            case EFECTIVO -> "CASH-";
+        };
+    }
+}
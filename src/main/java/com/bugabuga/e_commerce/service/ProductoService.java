@@ -1,10 +1,16 @@
 package com.bugabuga.e_commerce.service;
 
 import com.bugabuga.e_commerce.config.CacheConfig;
+import com.bugabuga.e_commerce.config.ClaveCatalogo;
+import com.bugabuga.e_commerce.config.EtiquetasCache;
+import com.bugabuga.e_commerce.config.EtiquetasCacheManager;
+import com.bugabuga.e_commerce.config.MetricsConfig;
 import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
+import com.bugabuga.e_commerce.model.dto.CursorProducto;
 import com.bugabuga.e_commerce.model.dto.ProductoActualizacionDTO;
 import com.bugabuga.e_commerce.model.dto.ProductoCreacionDTO;
 import com.bugabuga.e_commerce.model.dto.ProductoDTO;
+import com.bugabuga.e_commerce.model.dto.ProductoResumen;
 import com.bugabuga.e_commerce.model.entity.Categoria;
 import com.bugabuga.e_commerce.model.entity.Producto;
 import com.bugabuga.e_commerce.model.entity.Tienda;
@@ -12,22 +18,29 @@ import com.bugabuga.e_commerce.repository.CategoriaRepository;
 import com.bugabuga.e_commerce.repository.ProductoRepository;
 import com.bugabuga.e_commerce.repository.ReseñaRepository;
 import com.bugabuga.e_commerce.repository.TiendaRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
 public class ProductoService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductoService.class);
@@ -37,54 +50,99 @@ public class ProductoService {
     private final CategoriaRepository categoriaRepository;
     private final ReseñaRepository reseñaRepository;
     private final MappingService mappingService;
+    private final IndiceBusquedaService indiceBusquedaService;
+    private final EtiquetasCacheManager cacheManager;
+    private final CargadorCatalogo cargadorCatalogo;
 
     @Autowired
     public ProductoService(ProductoRepository productoRepository,
                           TiendaRepository tiendaRepository,
                           CategoriaRepository categoriaRepository,
                           ReseñaRepository reseñaRepository,
-                          MappingService mappingService) {
+                          MappingService mappingService,
+                          IndiceBusquedaService indiceBusquedaService,
+                          EtiquetasCacheManager cacheManager,
+                          CargadorCatalogo cargadorCatalogo) {
         this.productoRepository = productoRepository;
         this.tiendaRepository = tiendaRepository;
         this.categoriaRepository = categoriaRepository;
         this.reseñaRepository = reseñaRepository;
         this.mappingService = mappingService;
+        this.indiceBusquedaService = indiceBusquedaService;
+        this.cacheManager = cacheManager;
+        this.cargadorCatalogo = cargadorCatalogo;
+    }
+
+    /**
+     * Registra cómo recargar en segundo plano cada caché del catálogo (refresh-ahead).
+     * Las recargas no pasan por la caché: llaman directamente al {@link CargadorCatalogo}, que abre su transacción.
+     */
+    @PostConstruct
+    void registrarRecargas() {
+        cacheManager.registrarRecarga(CacheConfig.CACHE_PRODUCTOS,
+                clave -> cargadorCatalogo.cargarProductos(((ClaveCatalogo) clave).pageable()));
+        cacheManager.registrarRecarga(CacheConfig.CACHE_PRODUCTO,
+                clave -> cargadorCatalogo.cargarProducto((Long) clave));
+        cacheManager.registrarRecarga(CacheConfig.CACHE_PRODUCTOS_POR_TIENDA,
+                clave -> cargadorCatalogo.cargarProductosPorTienda(((ClaveCatalogo) clave).ambitoId(), ((ClaveCatalogo) clave).pageable()));
+        cacheManager.registrarRecarga(CacheConfig.CACHE_PRODUCTOS_POR_CATEGORIA,
+                clave -> cargadorCatalogo.cargarProductosPorCategoria(((ClaveCatalogo) clave).ambitoId(), ((ClaveCatalogo) clave).pageable()));
+        cacheManager.registrarRecarga(CacheConfig.CACHE_PRODUCTOS_RECIENTES,
+                clave -> cargadorCatalogo.cargarProductosRecientes());
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS, key = "#pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort")
+    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS, key = "T(com.bugabuga.e_commerce.config.ClaveCatalogo).deCatalogo(#pageable)", sync = true)
     public Page<ProductoDTO> obtenerTodosLosProductos(Pageable pageable) {
         logger.debug("Obteniendo todos los productos, página: {}, tamaño: {}", pageable.getPageNumber(), pageable.getPageSize());
+        return cargadorCatalogo.cargarProductos(pageable);
+    }
 
-        Page<Producto> productos = productoRepository.findByActivoTrue(pageable);
+    /**
+     * Obtiene la página de productos activos que sigue al cursor indicado (paginación por clave).
+     * El coste es constante con la profundidad de la página y no ejecuta consulta COUNT.
+     *
+     * @param cursor cursor del último producto recibido, o null para la primera página
+     * @param sort campo de ordenación: id, nombre o precio
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> obtenerProductosDespuesDe(CursorProducto cursor, String sort, int size) {
+        logger.debug("Obteniendo productos por cursor, orden: {}, tamaño: {}", sort, size);
+
+        String campo = CursorProducto.validarCampo(sort);
+        Pageable limite = PageRequest.of(0, size);
+
+        Slice<ProductoResumen> productos;
+        if (cursor == null && !CursorProducto.CAMPO_ID.equals(campo)) {
+            productos = productoRepository.findActivos(PageRequest.of(0, size, Sort.by(campo).and(Sort.by("id"))));
+        } else if (CursorProducto.CAMPO_NOMBRE.equals(campo)) {
+            productos = productoRepository.findActivosDespuesDeNombre(cursor.valor(), cursor.id(), limite);
+        } else if (CursorProducto.CAMPO_PRECIO.equals(campo)) {
+            productos = productoRepository.findActivosDespuesDePrecio(cursor.valorComoPrecio(), cursor.id(), limite);
+        } else {
+            productos = productoRepository.findActivosDespuesDeId(ultimoId(cursor), limite);
+        }
 
-        logger.debug("Encontrados {} productos", productos.getTotalElements());
         return productos.map(mappingService::mapToProductoDTO);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.CACHE_PRODUCTO, key = "#id")
+    @Cacheable(value = CacheConfig.CACHE_PRODUCTO, key = "#id", sync = true)
     public ProductoDTO obtenerProductoPorId(Long id) {
         logger.debug("Buscando producto con id: {}", id);
 
-        Producto producto = productoRepository.findById(id)
+        ProductoResumen producto = productoRepository.findResumenActivoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
 
-        if (!producto.isActivo()) {
-            throw new ResourceNotFoundException("Producto no encontrado con id: " + id);
-        }
-
-        logger.debug("Producto encontrado: {}", producto.getNombre());
+        logger.debug("Producto encontrado: {}", producto.nombre());
         return mappingService.mapToProductoDTO(producto);
     }
 
+    /**
+     * Un producto nuevo desplaza todas las páginas del catálogo general y los recientes;
+     * de las páginas por tienda y categoría solo se invalidan las de su tienda y su categoría.
+     */
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_RECIENTES, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_POR_TIENDA, key = "#productoDTO.tiendaId"),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_POR_CATEGORIA, key = "#productoDTO.categoriaId")
-    })
     public ProductoDTO crearProducto(ProductoCreacionDTO productoDTO) {
         logger.debug("Creando nuevo producto: {}", productoDTO.getNombre());
 
@@ -104,20 +162,23 @@ public class ProductoService {
         producto.setActivo(true);
 
         Producto productoGuardado = productoRepository.save(producto);
+        indiceBusquedaService.indexarTrasCommit(productoGuardado);
+        cacheManager.vaciarTrasCommit(CacheConfig.CACHE_PRODUCTOS, CacheConfig.CACHE_PRODUCTOS_RECIENTES);
+        if (categoria != null) {
+            cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.tienda(tienda.getId()), EtiquetasCache.categoria(categoria.getId()));
+        } else {
+            cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.tienda(tienda.getId()));
+        }
         logger.debug("Producto creado con id: {}", productoGuardado.getId());
 
         return mappingService.mapToProductoDTO(productoGuardado);
     }
 
+    /**
+     * Invalida solo las entradas de caché que contienen el producto y, si cambia de categoría,
+     * las páginas de la categoría nueva
+     */
     @Transactional
-    @Caching(put = {
-        @CachePut(value = CacheConfig.CACHE_PRODUCTO, key = "#id")
-    }, evict = {
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_RECIENTES, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_POR_TIENDA, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_POR_CATEGORIA, allEntries = true)
-    })
     public ProductoDTO actualizarProducto(Long id, ProductoActualizacionDTO productoDTO) {
         logger.debug("Actualizando producto con id: {}", id);
 
@@ -128,26 +189,34 @@ public class ProductoService {
         if (productoDTO.getCategoriaId() != null) {
             Categoria categoria = categoriaRepository.findById(productoDTO.getCategoriaId())
                     .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con id: " + productoDTO.getCategoriaId()));
+            if (producto.getCategoria() == null || !categoria.getId().equals(producto.getCategoria().getId())) {
+                cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.categoria(categoria.getId()));
+            }
             producto.setCategoria(categoria);
         }
 
         // Usar el servicio de mapeo para actualizar la entidad
         mappingService.updateProductoFromDTO(producto, productoDTO);
 
+        if (productoDTO.getStock() != null && !productoDTO.getStock().equals(producto.getStock())) {
+            int leido = producto.getStock() == null ? 0 : producto.getStock();
+            productoRepository.ajustarStock(id, productoDTO.getStock() - leido);
+            producto.setStock(productoRepository.findStockById(id).orElse(productoDTO.getStock()));
+        }
+
         Producto productoActualizado = productoRepository.save(producto);
+        indiceBusquedaService.indexarTrasCommit(productoActualizado);
+        cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.producto(id));
         logger.debug("Producto actualizado: {}", productoActualizado.getNombre());
 
         return mappingService.mapToProductoDTO(productoActualizado);
     }
 
+    /**
+     * Quitar el producto desplaza las páginas del catálogo general, los recientes y las de su tienda y
+     * su categoría, como al crearlo; el resto de entradas solo se invalidan si lo contienen
+     */
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTO, key = "#id"),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_RECIENTES, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_POR_TIENDA, allEntries = true),
-        @CacheEvict(value = CacheConfig.CACHE_PRODUCTOS_POR_CATEGORIA, allEntries = true)
-    })
     public void eliminarProducto(Long id) {
         logger.debug("Eliminando producto con id: {}", id);
 
@@ -156,6 +225,14 @@ public class ProductoService {
 
         producto.setActivo(false);
         productoRepository.save(producto);
+        indiceBusquedaService.indexarTrasCommit(producto);
+        cacheManager.vaciarTrasCommit(CacheConfig.CACHE_PRODUCTOS, CacheConfig.CACHE_PRODUCTOS_RECIENTES);
+        if (producto.getCategoria() != null) {
+            cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.producto(id),
+                    EtiquetasCache.tienda(producto.getTienda().getId()), EtiquetasCache.categoria(producto.getCategoria().getId()));
+        } else {
+            cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.producto(id), EtiquetasCache.tienda(producto.getTienda().getId()));
+        }
 
         logger.debug("Producto marcado como inactivo: {}", producto.getNombre());
     }
@@ -164,44 +241,83 @@ public class ProductoService {
     public Page<ProductoDTO> buscarProductos(String keyword, Pageable pageable) {
         logger.debug("Buscando productos con keyword: {}, página: {}", keyword, pageable.getPageNumber());
 
-        Page<Producto> productos = productoRepository.buscarProductos(keyword, pageable);
+        if (!indiceBusquedaService.isListo()) {
+            // El índice aún se está construyendo: resolver la búsqueda en la base de datos
+            Page<Producto> productos = productoRepository.buscarProductos(keyword, pageable);
+            logger.debug("Encontrados {} productos para la búsqueda: {}", productos.getTotalElements(), keyword);
+            return productos.map(mappingService::mapToProductoDTO);
+        }
 
-        logger.debug("Encontrados {} productos para la búsqueda: {}", productos.getTotalElements(), keyword);
-        return productos.map(mappingService::mapToProductoDTO);
+        IndiceBusquedaService.ResultadoBusqueda resultado =
+                indiceBusquedaService.buscar(keyword, null, pageable.getOffset(), pageable.getPageSize());
+
+        logger.debug("Encontrados {} productos para la búsqueda: {}", resultado.total(), keyword);
+        return new PageImpl<>(hidratarEnOrden(resultado.ids()), pageable, resultado.total());
+    }
+
+    /**
+     * Carga los productos de una página de resultados respetando el orden de relevancia
+     */
+    private List<ProductoDTO> hidratarEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductoResumen> porId = productoRepository.findResumenesActivosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductoResumen::id, Function.identity()));
+
+        // Un producto puede haberse desactivado entre la búsqueda y la carga
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .map(mappingService::mapToProductoDTO)
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS_POR_TIENDA, key = "#tiendaId + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS_POR_TIENDA, key = "T(com.bugabuga.e_commerce.config.ClaveCatalogo).deTienda(#tiendaId, #pageable)", sync = true)
     public Page<ProductoDTO> obtenerProductosPorTienda(Long tiendaId, Pageable pageable) {
         logger.debug("Obteniendo productos de la tienda con id: {}, página: {}", tiendaId, pageable.getPageNumber());
+        return cargadorCatalogo.cargarProductosPorTienda(tiendaId, pageable);
+    }
 
-        Page<Producto> productos = productoRepository.findByTiendaIdAndActivoTrue(tiendaId, pageable);
+    /**
+     * Obtiene los productos de una tienda que siguen al cursor indicado, ordenados por id
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> obtenerProductosPorTiendaDespuesDe(Long tiendaId, CursorProducto cursor, int size) {
+        logger.debug("Obteniendo productos de la tienda con id: {} por cursor", tiendaId);
 
-        logger.debug("Encontrados {} productos para la tienda: {}", productos.getTotalElements(), tiendaId);
-        return productos.map(mappingService::mapToProductoDTO);
+        return productoRepository.findActivosPorTiendaDespuesDeId(tiendaId, ultimoId(cursor), PageRequest.of(0, size))
+                .map(mappingService::mapToProductoDTO);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS_POR_CATEGORIA, key = "#categoriaId + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS_POR_CATEGORIA, key = "T(com.bugabuga.e_commerce.config.ClaveCatalogo).deCategoria(#categoriaId, #pageable)", sync = true)
     public Page<ProductoDTO> obtenerProductosPorCategoria(Long categoriaId, Pageable pageable) {
         logger.debug("Obteniendo productos de la categoría con id: {}, página: {}", categoriaId, pageable.getPageNumber());
+        return cargadorCatalogo.cargarProductosPorCategoria(categoriaId, pageable);
+    }
 
-        Page<Producto> productos = productoRepository.findByCategoriaIdAndActivoTrue(categoriaId, pageable);
+    /**
+     * Obtiene los productos de una categoría que siguen al cursor indicado, ordenados por id
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> obtenerProductosPorCategoriaDespuesDe(Long categoriaId, CursorProducto cursor, int size) {
+        logger.debug("Obteniendo productos de la categoría con id: {} por cursor", categoriaId);
 
-        logger.debug("Encontrados {} productos para la categoría: {}", productos.getTotalElements(), categoriaId);
-        return productos.map(mappingService::mapToProductoDTO);
+        return productoRepository.findActivosPorCategoriaDespuesDeId(categoriaId, ultimoId(cursor), PageRequest.of(0, size))
+                .map(mappingService::mapToProductoDTO);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS_RECIENTES)
+    @Cacheable(value = CacheConfig.CACHE_PRODUCTOS_RECIENTES, sync = true)
     public List<ProductoDTO> obtenerProductosRecientes() {
         logger.debug("Obteniendo productos recientes");
-
-        List<Producto> productos = productoRepository.findTop10ByActivoTrueOrderByIdDesc();
-
-        logger.debug("Encontrados {} productos recientes", productos.size());
-        return mappingService.mapToProductoDTOList(productos);
+        return cargadorCatalogo.cargarProductosRecientes();
     }
 
-
+    private Long ultimoId(CursorProducto cursor) {
+        return cursor != null ? cursor.id() : 0L;
+    }
 }
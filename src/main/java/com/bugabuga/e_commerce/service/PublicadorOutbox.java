@@ -0,0 +1,268 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.OutboxProperties;
+import com.bugabuga.e_commerce.event.EventoDominio;
+import com.bugabuga.e_commerce.model.entity.EventoOutbox;
+import com.bugabuga.e_commerce.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lee el outbox en lotes y entrega los eventos a los {@link SumideroEventos}. Cada lote se bloquea con
+ * {@code FOR UPDATE SKIP LOCKED}, se entrega y se marca publicado en la misma transacción. Cada sumidero
+ * recibe el lote por separado: si uno falla, se le entregan los eventos uno a uno y solo los que fallan
+ * quedan pendientes, con los sumideros que ya los recibieron anotados para no repetirles la entrega. Un evento
+ * que falla espera {@code app.outbox.espera-reintento} (el doble en cada intento) y se descarta tras
+ * {@code app.outbox.max-intentos}, sin bloquear al resto. Con varias instancias, cada una publica lotes
+ * distintos y entrega a sus propios sumideros.
+ * <p>
+ * El orden entre eventos no está garantizado (los ids se reservan por bloques en cada instancia, los
+ * lotes de instancias distintas se solapan y los reintentos se publican después); un consumidor que lo
+ * necesite debe comparar {@code fechaCreacion} y descartar los ids ya vistos.
+ * <p>
+ * Métricas: {@code outbox.eventos.publicados}, {@code outbox.eventos.por.segundo} (medido entre pasadas),
+ * {@code outbox.eventos.retraso} (de la inserción a la publicación), {@code outbox.retraso} (antigüedad en
+ * segundos del evento pendiente más antiguo), {@code outbox.pendientes}, {@code outbox.eventos.fallidos}
+ * y {@code outbox.descartados}. Los recuentos de pendientes y descartados se recalculan cada
+ * {@code app.outbox.intervalo-metricas}, no en cada lectura.
+ */
+@Service
+public class PublicadorOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicadorOutbox.class);
+
+    private final OutboxProperties propiedades;
+    private final EventoOutboxRepository repository;
+    private final List<SumideroEventos> sumideros;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publicados;
+    private final Counter fallidos;
+    private final Timer retraso;
+    private volatile double eventosPorSegundo;
+    private volatile long ultimaPasada = System.nanoTime();
+    // Creación del evento pendiente más antiguo en la última pasada; null si no quedaba ninguno
+    private volatile LocalDateTime pendienteMasAntiguo;
+    // Últimos recuentos, para no contar la tabla en cada lectura de las métricas
+    private final AtomicLong pendientes = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+
+    public PublicadorOutbox(OutboxProperties propiedades,
+                            EventoOutboxRepository repository,
+                            List<SumideroEventos> sumideros,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.propiedades = propiedades;
+        this.repository = repository;
+        this.sumideros = sumideros;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publicados = Counter.builder("outbox.eventos.publicados")
+                .description("Eventos del outbox entregados a los sumideros")
+                .register(meterRegistry);
+        this.fallidos = Counter.builder("outbox.eventos.fallidos")
+                .description("Entregas de eventos del outbox que fallaron en algún sumidero")
+                .register(meterRegistry);
+        this.retraso = Timer.builder("outbox.eventos.retraso")
+                .description("Tiempo desde que se registra un evento hasta que se publica")
+                .register(meterRegistry);
+        Gauge.builder("outbox.eventos.por.segundo", this, publicador -> publicador.eventosPorSegundo)
+                .description("Eventos publicados por segundo entre las dos últimas pasadas")
+                .register(meterRegistry);
+        // Se calcula al leer la métrica: si el publicador se detiene, el retraso sigue creciendo
+        Gauge.builder("outbox.retraso", this, PublicadorOutbox::segundosDeRetraso)
+                .description("Antigüedad del evento pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pendientes", pendientes, AtomicLong::get)
+                .description("Eventos del outbox sin publicar")
+                .register(meterRegistry);
+        Gauge.builder("outbox.descartados", descartados, AtomicLong::get)
+                .description("Eventos del outbox descartados tras agotar los intentos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica lotes hasta vaciar el outbox o hasta que falle la base de datos
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo:500ms}")
+    public void publicarPendientes() {
+        if (!propiedades.isEnabled()) {
+            return;
+        }
+
+        long eventos = 0;
+        try {
+            int lote;
+            do {
+                lote = publicarLote();
+                eventos += lote;
+            } while (lote == propiedades.getLote());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo publicar un lote del outbox, se reintentará: {}", e.getMessage());
+        }
+
+        long ahora = System.nanoTime();
+        eventosPorSegundo = eventos * 1e9 / Math.max(1, ahora - ultimaPasada);
+        ultimaPasada = ahora;
+        try {
+            pendienteMasAntiguo = repository.fechaPendienteMasAntiguo();
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo consultar el retraso del outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-metricas:15s}")
+    public void contarEventos() {
+        try {
+            pendientes.set(repository.countByFechaPublicacionIsNullAndFechaDescarteIsNull());
+            descartados.set(repository.countByFechaDescarteIsNotNull());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron contar los eventos del outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
+    public void purgarPublicados() {
+        Integer borrados = transactionTemplate.execute(estado ->
+                repository.deleteByFechaPublicacionBefore(LocalDateTime.now().minus(propiedades.getRetencion())));
+        if (borrados != null && borrados > 0) {
+            logger.info("Purgados {} eventos publicados del outbox", borrados);
+        }
+    }
+
+    /**
+     * @return eventos leídos, se hayan publicado o no
+     */
+    private int publicarLote() {
+        Lote lote = transactionTemplate.execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<EventoOutbox> pendientes = repository.pendientes(ahora, propiedades.getLote());
+            if (pendientes.isEmpty()) {
+                return new Lote(0, 0);
+            }
+
+            Map<Long, Set<String>> entregados = new HashMap<>();
+            Map<Long, RuntimeException> errores = new HashMap<>();
+            pendientes.forEach(evento -> entregados.put(evento.getId(), sumiderosEntregados(evento)));
+            for (SumideroEventos sumidero : sumideros) {
+                String nombre = sumidero.nombre();
+                List<EventoDominio> eventos = pendientes.stream()
+                        .filter(evento -> !entregados.get(evento.getId()).contains(nombre))
+                        .map(PublicadorOutbox::eventoDominio)
+                        .toList();
+                entregar(sumidero, eventos, errores).forEach(evento -> entregados.get(evento.id()).add(nombre));
+            }
+
+            List<Long> publicadosLote = new ArrayList<>();
+            for (EventoOutbox evento : pendientes) {
+                Set<String> recibidos = entregados.get(evento.getId());
+                if (sumideros.stream().allMatch(sumidero -> recibidos.contains(sumidero.nombre()))) {
+                    publicadosLote.add(evento.getId());
+                    retraso.record(Duration.between(evento.getFechaCreacion(), ahora));
+                } else {
+                    registrarFallo(evento, recibidos, errores.get(evento.getId()), ahora);
+                }
+            }
+            if (!publicadosLote.isEmpty()) {
+                repository.marcarPublicados(publicadosLote, ahora);
+            }
+            return new Lote(pendientes.size(), publicadosLote.size());
+        });
+        if (lote == null) {
+            return 0;
+        }
+        publicados.increment(lote.publicados());
+        fallidos.increment(lote.leidos() - lote.publicados());
+        return lote.leidos();
+    }
+
+    /**
+     * Entrega los eventos al sumidero; si falla, uno a uno para que solo queden pendientes los que fallan
+     *
+     * @return eventos entregados
+     */
+    private List<EventoDominio> entregar(SumideroEventos sumidero, List<EventoDominio> eventos,
+                                         Map<Long, RuntimeException> errores) {
+        if (eventos.isEmpty()) {
+            return eventos;
+        }
+        try {
+            sumidero.entregar(eventos);
+            return eventos;
+        } catch (RuntimeException e) {
+            if (eventos.size() == 1) {
+                errores.put(eventos.get(0).id(), e);
+                return List.of();
+            }
+            logger.warn("El sumidero {} falló con un lote de {} eventos, se entregan uno a uno: {}",
+                    sumidero.nombre(), eventos.size(), e.getMessage());
+        }
+
+        List<EventoDominio> entregados = new ArrayList<>();
+        for (EventoDominio evento : eventos) {
+            try {
+                sumidero.entregar(List.of(evento));
+                entregados.add(evento);
+            } catch (RuntimeException e) {
+                errores.put(evento.id(), e);
+            }
+        }
+        return entregados;
+    }
+
+    private void registrarFallo(EventoOutbox evento, Set<String> recibidos, RuntimeException error, LocalDateTime ahora) {
+        evento.setIntentos(evento.getIntentos() + 1);
+        evento.setSumiderosEntregados(recibidos.isEmpty() ? null : String.join(",", recibidos));
+        String mensaje = error == null ? "Sin error" : String.valueOf(error.getMessage());
+        evento.setUltimoError(mensaje.length() > EventoOutbox.LONGITUD_ERROR
+                ? mensaje.substring(0, EventoOutbox.LONGITUD_ERROR) : mensaje);
+        if (evento.getIntentos() >= propiedades.getMaxIntentos()) {
+            evento.setFechaDescarte(ahora);
+            logger.error("Evento {} del outbox ({}) descartado tras {} intentos: {}",
+                    evento.getId(), evento.getTipo(), evento.getIntentos(), mensaje);
+            return;
+        }
+        evento.setDisponibleDesde(ahora.plus(
+                propiedades.getEsperaReintento().multipliedBy(1L << (evento.getIntentos() - 1))));
+        logger.warn("No se pudo publicar el evento {} del outbox (intento {}): {}",
+                evento.getId(), evento.getIntentos(), mensaje);
+    }
+
+    private static Set<String> sumiderosEntregados(EventoOutbox evento) {
+        return evento.getSumiderosEntregados() == null
+                ? new TreeSet<>()
+                : new TreeSet<>(Arrays.asList(evento.getSumiderosEntregados().split(",")));
+    }
+
+    private static EventoDominio eventoDominio(EventoOutbox evento) {
+        return new EventoDominio(evento.getId(), evento.getAgregado(), evento.getAgregadoId(),
+                evento.getTipo(), evento.getCarga(), evento.getFechaCreacion());
+    }
+
+    private double segundosDeRetraso() {
+        LocalDateTime masAntiguo = pendienteMasAntiguo;
+        return masAntiguo == null ? 0 : Duration.between(masAntiguo, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private record Lote(int leidos, int publicados) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de peticiones en memoria con una cubeta de tokens por cliente y grupo de rutas.
+ * Cada cubeta es un único AtomicLong con el instante teórico en que volverá a estar llena
+ * (algoritmo GCRA, equivalente a la cubeta de tokens), así que admitir una petición es un bucle
+ * de compareAndSet sin bloqueos. Las cubetas de clientes inactivos se descartan solas.
+ */
+@Service
+public class RateLimiterService {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Grupo> grupos;
+    private final Cache<String, AtomicLong> cubetas;
+
+    public RateLimiterService(RateLimitProperties properties) {
+        this.grupos = properties.isEnabled()
+                ? properties.getGrupos().stream().map(Grupo::new).toList()
+                : List.of();
+        this.cubetas = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximoClientes())
+                .expireAfterAccess(properties.getInactividad())
+                .build();
+    }
+
+    /**
+     * Resultado de admitir una petición: si se rechaza, los nanosegundos hasta que haya un token
+     */
+    public record Decision(boolean admitida, long esperaNanos) {
+
+        static final Decision ADMITIDA = new Decision(true, 0);
+    }
+
+    /**
+     * Consume un token del cliente en el grupo que corresponde a la ruta
+     * @param ruta    ruta de la petición, sin el contexto de la aplicación
+     * @param cliente identificador del cliente (usuario o IP)
+     */
+    public Decision admitir(String ruta, String cliente) {
+        Grupo grupo = buscarGrupo(ruta);
+        if (grupo == null) {
+            return Decision.ADMITIDA;
+        }
+
+        AtomicLong llenaEn = cubetas.get(grupo.nombre + ":" + cliente, clave -> new AtomicLong(Long.MIN_VALUE));
+        long ahora = System.nanoTime();
+        while (true) {
+            long actual = llenaEn.get();
+            long base = actual == Long.MIN_VALUE || actual - ahora < 0 ? ahora : actual;
+            long siguiente = base + grupo.intervaloNanos;
+            long exceso = siguiente - ahora - grupo.toleranciaNanos;
+            if (exceso > 0) {
+                grupo.rechazadas.increment();
+                return new Decision(false, exceso);
+            }
+            if (llenaEn.compareAndSet(actual, siguiente)) {
+                grupo.admitidas.increment();
+                return Decision.ADMITIDA;
+            }
+        }
+    }
+
+    private Grupo buscarGrupo(String ruta) {
+        for (Grupo grupo : grupos) {
+            for (String patron : grupo.rutas) {
+                if (pathMatcher.match(patron, ruta)) {
+                    return grupo;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Peticiones admitidas y rechazadas por grupo desde el arranque, con su presupuesto
+     */
+    public Map<String, Map<String, Object>> getEstadisticas() {
+        Map<String, Map<String, Object>> estadisticas = new LinkedHashMap<>();
+        for (Grupo grupo : grupos) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("admitidas", grupo.admitidas.sum());
+            datos.put("rechazadas", grupo.rechazadas.sum());
+            datos.put("capacidad", grupo.capacidad);
+            datos.put("porSegundo", grupo.porSegundo);
+            estadisticas.put(grupo.nombre, datos);
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Cantidad aproximada de cubetas activas (cliente y grupo)
+     */
+    public long getClientesActivos() {
+        return cubetas.estimatedSize();
+    }
+
+    private static final class Grupo {
+
+        private final String nombre;
+        private final List<String> rutas;
+        private final int capacidad;
+        private final double porSegundo;
+        // Tiempo que tarda en reponerse un token
+        private final long intervaloNanos;
+        // Adelanto máximo permitido sobre el instante actual: una ráfaga de capacidad peticiones
+        private final long toleranciaNanos;
+        private final LongAdder admitidas = new LongAdder();
+        private final LongAdder rechazadas = new LongAdder();
+
+        private Grupo(RateLimitProperties.Grupo configuracion) {
+            this.nombre = configuracion.getNombre();
+            this.rutas = List.copyOf(configuracion.getRutas());
+            this.capacidad = configuracion.getCapacidad();
+            this.porSegundo = configuracion.getPorSegundo();
+            this.intervaloNanos = (long) (1_000_000_000L / porSegundo);
+            this.toleranciaNanos = intervaloNanos * capacidad;
+        }
+    }
+}
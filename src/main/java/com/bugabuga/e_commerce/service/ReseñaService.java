@@ -1,5 +1,8 @@
 package com.bugabuga.e_commerce.service;
 
+import com.bugabuga.e_commerce.config.EtiquetasCache;
+import com.bugabuga.e_commerce.config.EtiquetasCacheManager;
+import com.bugabuga.e_commerce.config.MetricsConfig;
 import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
 import com.bugabuga.e_commerce.model.entity.Producto;
 import com.bugabuga.e_commerce.model.entity.Reseña;
@@ -7,6 +10,7 @@ import com.bugabuga.e_commerce.model.entity.Usuario;
 import com.bugabuga.e_commerce.repository.ProductoRepository;
 import com.bugabuga.e_commerce.repository.ReseñaRepository;
 import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 
 @Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
 public class ReseñaService {
 
     @Autowired
@@ -27,6 +32,9 @@ public class ReseñaService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private EtiquetasCacheManager cacheManager;
+
     @Transactional(readOnly = true)
     public Page<Reseña> obtenerReseñasPorProducto(Long productoId, Pageable pageable) {
         // Verificar que el producto existe
@@ -69,14 +77,18 @@ public class ReseñaService {
         // Establecer la fecha de creación
         reseña.setFechaCreacion(LocalDateTime.now());
         
-        // Guardar la reseña
-        return reseñaRepository.save(reseña);
+        // Guardar la reseña y actualizar los agregados del producto en la misma transacción
+        Reseña reseñaGuardada = reseñaRepository.save(reseña);
+        productoRepository.ajustarCalificaciones(producto.getId(), reseña.getCalificacion(), 1);
+        cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.producto(producto.getId()));
+        
+        return reseñaGuardada;
     }
 
     @Transactional
     public Reseña actualizarReseña(Long id, Reseña reseñaActualizada) {
-        // Verificar que la reseña existe
-        Reseña reseña = reseñaRepository.findById(id)
+        // Verificar que la reseña existe y bloquearla hasta el commit
+        Reseña reseña = reseñaRepository.findByIdParaActualizar(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reseña no encontrada con id: " + id));
         
         // Validar la calificación (1-5 estrellas)
@@ -84,6 +96,14 @@ public class ReseñaService {
             throw new IllegalArgumentException("La calificación debe estar entre 1 y 5 estrellas");
         }
         
+        // Ajustar la suma de calificaciones del producto con la diferencia, calculada en SQL a partir de la
+        // calificación guardada. Va antes de modificar la entidad: el auto-flush de la consulta escribiría
+        // ya la nueva calificación y la diferencia saldría 0
+        if (!reseñaActualizada.getCalificacion().equals(reseña.getCalificacion())) {
+            productoRepository.cambiarCalificacion(id, reseñaActualizada.getCalificacion());
+            cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.producto(reseña.getProducto().getId()));
+        }
+        
         // Actualizar los campos de la reseña
         reseña.setCalificacion(reseñaActualizada.getCalificacion());
         reseña.setComentario(reseñaActualizada.getComentario());
@@ -98,16 +118,22 @@ public class ReseñaService {
         Reseña reseña = reseñaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reseña no encontrada con id: " + id));
         
-        // Eliminar la reseña
+        // Eliminar la reseña y descontarla de los agregados del producto
         reseñaRepository.delete(reseña);
+        productoRepository.ajustarCalificaciones(reseña.getProducto().getId(), -reseña.getCalificacion(), -1);
+        cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.producto(reseña.getProducto().getId()));
     }
 
     @Transactional(readOnly = true)
     public Double calcularCalificacionPromedio(Long productoId) {
         // Verificar que el producto existe
-        productoRepository.findById(productoId)
+        Producto producto = productoRepository.findById(productoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productoId));
         
-        return reseñaRepository.calcularCalificacionPromedio(productoId);
+        // Leer los agregados desnormalizados en lugar de calcular AVG sobre las reseñas
+        if (producto.getCantidadCalificaciones() == 0) {
+            return null;
+        }
+        return MappingService.calcularPromedio(producto.getSumaCalificaciones(), producto.getCantidadCalificaciones());
     }
 }
@@ -0,0 +1,383 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.StockCalienteProperties;
+import com.bugabuga.e_commerce.exception.StockInsuficienteException;
+import com.bugabuga.e_commerce.model.entity.AsignacionStock;
+import com.bugabuga.e_commerce.repository.AsignacionStockRepository;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock en memoria para los productos de {@code app.stock.caliente.productos}. En lugar de un UPDATE
+ * por venta sobre la misma fila de {@code productos}, la instancia descuenta de la base de datos bloques
+ * de {@code lote} unidades (asignaciones) y vende desde un {@link ContadorStockRayado}. Las ventas se
+ * anotan cada {@code volcado} en el libro {@code asignaciones_stock}, así que la base de datos recibe unas
+ * pocas escrituras por segundo y producto en lugar de una por venta.
+ * <p>
+ * El checkout aparta las unidades ({@link #apartar}) antes de abrir su transacción: si el contador no basta,
+ * la asignación de un bloque nuevo usa la conexión del propio hilo en lugar de pedir una segunda mientras
+ * retiene la del checkout, que en una venta flash agotaría el pool con hilos esperando el cerrojo de reposición.
+ * El apartado se liga después a la transacción: si se deshace, las unidades vuelven al contador.
+ * Al detenerse la instancia devuelve al producto lo que le queda en memoria; si cae sin detenerse, lo
+ * devuelve al arrancar a partir del libro. Como las ventas de los últimos instantes pueden no estar
+ * anotadas, la recuperación descuenta además todas las unidades pedidas desde la última anotación (de
+ * cualquier instancia): puede dejar unidades sin vender, nunca vender de más.
+ */
+@Service
+public class StockCalienteService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockCalienteService.class);
+
+    // Una venta anotada después del volcado puede venir de un pedido creado algo antes
+    private static final Duration MARGEN_RECUPERACION = Duration.ofMinutes(1);
+
+    private final StockCalienteProperties propiedades;
+    private final ProductoRepository productoRepository;
+    private final AsignacionStockRepository asignacionRepository;
+    private final TransactionTemplate transaccionPropia;
+    private final MeterRegistry meterRegistry;
+    private final Counter asignaciones;
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public StockCalienteService(StockCalienteProperties propiedades,
+                                ProductoRepository productoRepository,
+                                AsignacionStockRepository asignacionRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.propiedades = propiedades;
+        this.productoRepository = productoRepository;
+        this.asignacionRepository = asignacionRepository;
+        // Las asignaciones y anotaciones se confirman aunque el checkout que las provoca se deshaga
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.asignaciones = Counter.builder("stock.caliente.asignaciones")
+                .description("Bloques de stock descontados de la base de datos para venderse en memoria")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Unidades vendibles desde memoria de un producto
+     */
+    private static final class Stock {
+        final ContadorStockRayado disponibles;
+        final LongAdder vendidasSinAnotar = new LongAdder();
+        final ReentrantLock reposicion = new ReentrantLock();
+        volatile Long asignacionId;
+        // Tras una asignación sin stock suficiente no se vuelve a consultar la base de datos hasta este instante
+        volatile long agotadoHasta;
+
+        Stock(int franjas) {
+            this.disponibles = new ContadorStockRayado(franjas);
+            this.agotadoHasta = System.nanoTime();
+        }
+    }
+
+    public boolean gestiona(Long productoId) {
+        return running && propiedades.isEnabled() && propiedades.getProductos().contains(productoId);
+    }
+
+    /**
+     * Productos que se venden desde memoria en este momento; vacío si el modo está desactivado
+     */
+    public Set<Long> productosGestionados() {
+        return running && propiedades.isEnabled() ? Set.copyOf(propiedades.getProductos()) : Set.of();
+    }
+
+    /**
+     * Aparta las unidades de los productos gestionados, reponiendo desde la base de datos si hace falta.
+     * Debe llamarse sin transacción en curso (ver la descripción de la clase).
+     *
+     * @param cantidades unidades por producto; los no gestionados se ignoran
+     * @throws StockInsuficienteException si algún producto no tiene unidades ni en memoria ni en la base de
+     *                                    datos; lo ya apartado se devuelve al contador
+     */
+    public Apartado apartar(Map<Long, Integer> cantidades) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("El stock en memoria se aparta antes de abrir la transacción");
+        }
+
+        Apartado apartado = new Apartado();
+        for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+            Long productoId = entrada.getKey();
+            if (!gestiona(productoId)) {
+                continue;
+            }
+            Stock stock = stocks.computeIfAbsent(productoId, this::nuevoStock);
+            if (!stock.disponibles.tomar(entrada.getValue()) && !reponerYTomar(productoId, stock, entrada.getValue())) {
+                apartado.liberar();
+                throw new StockInsuficienteException(List.of(productoId));
+            }
+            apartado.apartadas.merge(productoId, entrada.getValue(), Integer::sum);
+        }
+        return apartado;
+    }
+
+    /**
+     * Unidades en memoria apartadas para un checkout. Dentro de la transacción se consumen con {@link #usar};
+     * al confirmarse, las usadas cuentan como vendidas y las sobrantes vuelven al contador, y al deshacerse
+     * (o con {@link #liberar} si la transacción no llegó a empezar) vuelven todas. Lo usa un solo hilo.
+     */
+    public final class Apartado {
+
+        private final Map<Long, Integer> apartadas = new HashMap<>();
+        private final Map<Long, Integer> usadas = new HashMap<>();
+        private boolean resuelto;
+
+        /**
+         * Liga el apartado a la transacción en curso
+         */
+        public void vincular() {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        confirmar();
+                    } else {
+                        liberar();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Indica si el producto se vende desde memoria en este checkout
+         */
+        public boolean gestiona(Long productoId) {
+            return apartadas.containsKey(productoId) || StockCalienteService.this.gestiona(productoId);
+        }
+
+        /**
+         * Consume unidades apartadas. Si el carrito cambió después de apartar y se necesitan más, se toman
+         * del contador sin reponer: dentro de la transacción no se asignan bloques nuevos.
+         *
+         * @return false si no hay unidades suficientes
+         */
+        public boolean usar(Long productoId, int cantidad) {
+            int faltan = usadas.getOrDefault(productoId, 0) + cantidad - apartadas.getOrDefault(productoId, 0);
+            if (faltan > 0) {
+                if (!stocks.computeIfAbsent(productoId, StockCalienteService.this::nuevoStock).disponibles.tomar(faltan)) {
+                    return false;
+                }
+                apartadas.merge(productoId, faltan, Integer::sum);
+            }
+            usadas.merge(productoId, cantidad, Integer::sum);
+            return true;
+        }
+
+        /**
+         * Devuelve al contador todas las unidades apartadas; sin efecto si ya se confirmó o liberó
+         */
+        public void liberar() {
+            if (resuelto) {
+                return;
+            }
+            resuelto = true;
+            apartadas.forEach((productoId, cantidad) -> stocks.get(productoId).disponibles.agregar(cantidad));
+        }
+
+        private void confirmar() {
+            if (resuelto) {
+                return;
+            }
+            resuelto = true;
+            apartadas.forEach((productoId, cantidad) -> {
+                Stock stock = stocks.get(productoId);
+                int vendidas = usadas.getOrDefault(productoId, 0);
+                stock.vendidasSinAnotar.add(vendidas);
+                if (cantidad > vendidas) {
+                    stock.disponibles.agregar(cantidad - vendidas);
+                }
+            });
+        }
+    }
+
+    /**
+     * Anota en el libro las ventas confirmadas desde la última anotación, todas en una transacción
+     */
+    @Scheduled(fixedDelayString = "${app.stock.caliente.volcado:1s}")
+    public void anotarVentas() {
+        Map<Stock, Long> ventas = new HashMap<>();
+        stocks.values().forEach(stock -> {
+            long vendidas = stock.vendidasSinAnotar.sumThenReset();
+            if (vendidas > 0) {
+                ventas.put(stock, vendidas);
+            }
+        });
+        if (ventas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        try {
+            transaccionPropia.executeWithoutResult(estado ->
+                    ventas.forEach((stock, vendidas) -> asignacionRepository.sumarVendidas(stock.asignacionId, vendidas, ahora)));
+        } catch (RuntimeException e) {
+            // Se reintentan en la siguiente anotación
+            ventas.forEach((stock, vendidas) -> stock.vendidasSinAnotar.add(vendidas));
+            logger.warn("No se pudieron anotar las ventas de stock en memoria: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        recuperarAsignaciones();
+        running = true;
+    }
+
+    /**
+     * Anota las ventas pendientes y devuelve a cada producto las unidades que quedan en memoria
+     */
+    @Override
+    public void stop() {
+        running = false;
+        anotarVentas();
+        stocks.forEach((productoId, stock) -> {
+            long sobrantes = stock.disponibles.vaciar();
+            if (sobrantes <= 0 || stock.asignacionId == null) {
+                return;
+            }
+            try {
+                transaccionPropia.executeWithoutResult(estado -> {
+                    productoRepository.devolverStock(productoId, Math.toIntExact(sobrantes));
+                    asignacionRepository.sumarAsignadas(stock.asignacionId, -sobrantes);
+                });
+                logger.info("Devueltas {} unidades en memoria al producto {}", sobrantes, productoId);
+            } catch (RuntimeException e) {
+                // Siguen en el libro: se devolverán al arrancar de nuevo
+                logger.warn("No se pudieron devolver {} unidades al producto {}: {}", sobrantes, productoId, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Arranca antes que el servidor web y se detiene después, sin peticiones en curso
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private Stock nuevoStock(Long productoId) {
+        Stock stock = new Stock(propiedades.getFranjas());
+        Gauge.builder("stock.caliente.disponibles", stock, s -> s.disponibles.disponibles())
+                .description("Unidades asignadas a esta instancia y aún sin vender")
+                .tag("producto", String.valueOf(productoId))
+                .register(meterRegistry);
+        return stock;
+    }
+
+    private boolean reponerYTomar(Long productoId, Stock stock, int cantidad) {
+        stock.reposicion.lock();
+        try {
+            // Otro hilo pudo reponer mientras se esperaba el cerrojo
+            if (stock.disponibles.tomar(cantidad)) {
+                return true;
+            }
+            if (System.nanoTime() - stock.agotadoHasta < 0) {
+                return false;
+            }
+
+            Integer asignadas = transaccionPropia.execute(estado -> asignar(productoId, stock, cantidad));
+            if (asignadas == null || asignadas == 0) {
+                stock.agotadoHasta = System.nanoTime() + propiedades.getVolcado().toNanos();
+                return false;
+            }
+            // La venta se queda su parte y el resto del bloque pasa al contador
+            stock.disponibles.agregar(asignadas - cantidad);
+            asignaciones.increment();
+            return true;
+        } finally {
+            stock.reposicion.unlock();
+        }
+    }
+
+    /**
+     * Descuenta del producto un bloque de al menos {@code cantidad} unidades y lo anota en el libro
+     *
+     * @return unidades asignadas, 0 si el producto no tiene {@code cantidad} unidades
+     */
+    private int asignar(Long productoId, Stock stock, int cantidad) {
+        int enBaseDeDatos = productoRepository.findStockById(productoId).orElse(0);
+        if (enBaseDeDatos < cantidad) {
+            return 0;
+        }
+        int bloque = Math.max(cantidad, Math.min(propiedades.getLote(), enBaseDeDatos));
+        if (!productoRepository.reservarStock(new TreeMap<>(Map.of(productoId, bloque))).isEmpty()) {
+            // El stock cambió entre la lectura y el descuento
+            return 0;
+        }
+
+        if (stock.asignacionId == null) {
+            AsignacionStock asignacion = asignacionRepository
+                    .findByProductoIdAndInstancia(productoId, propiedades.getInstancia())
+                    .orElseGet(() -> {
+                        AsignacionStock nueva = new AsignacionStock();
+                        nueva.setProductoId(productoId);
+                        nueva.setInstancia(propiedades.getInstancia());
+                        return asignacionRepository.saveAndFlush(nueva);
+                    });
+            stock.asignacionId = asignacion.getId();
+        }
+        asignacionRepository.sumarAsignadas(stock.asignacionId, bloque);
+        return bloque;
+    }
+
+    /**
+     * Devuelve a los productos lo que esta instancia tenía asignado y sin vender cuando se detuvo por última vez
+     */
+    private void recuperarAsignaciones() {
+        List<AsignacionStock> pendientes = new ArrayList<>();
+        for (AsignacionStock asignacion : asignacionRepository.findByInstancia(propiedades.getInstancia())) {
+            if (asignacion.getAsignadas() > asignacion.getVendidas()) {
+                pendientes.add(asignacion);
+            }
+        }
+
+        for (AsignacionStock asignacion : pendientes) {
+            transaccionPropia.executeWithoutResult(estado -> {
+                long sinAnotar = asignacionRepository.sumarUnidadesPedidasDesde(
+                        asignacion.getProductoId(), asignacion.getFechaVolcado().minus(MARGEN_RECUPERACION));
+                long vendidas = Math.min(asignacion.getAsignadas(), asignacion.getVendidas() + sinAnotar);
+                long sobrantes = asignacion.getAsignadas() - vendidas;
+                if (sobrantes > 0) {
+                    productoRepository.devolverStock(asignacion.getProductoId(), Math.toIntExact(sobrantes));
+                }
+
+                asignacion.setAsignadas(vendidas);
+                asignacion.setVendidas(vendidas);
+                asignacion.setFechaVolcado(LocalDateTime.now());
+                asignacionRepository.save(asignacion);
+                logger.info("Recuperada la asignación del producto {}: {} unidades devueltas", asignacion.getProductoId(), sobrantes);
+            });
+        }
+    }
+}
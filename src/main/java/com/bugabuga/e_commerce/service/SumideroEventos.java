@@ -0,0 +1,29 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.event.EventoDominio;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos del outbox. {@link PublicadorOutbox} entrega cada lote a todos los sumideros
+ * registrados como beans, cada uno por separado. Si un sumidero lanza excepción, se le entregan los eventos
+ * del lote uno a uno para aislar los que fallan; esos se reintentan más tarde solo en los sumideros que aún
+ * no los recibieron. Un sumidero que falla a mitad de lote vuelve a recibir los primeros eventos al
+ * entregárselos uno a uno, y cualquiera puede recibir de nuevo un evento si la transacción del publicador no
+ * llega a confirmarse: la entrega es al menos una vez.
+ */
+public interface SumideroEventos {
+
+    /**
+     * @param eventos lote en orden de id
+     */
+    void entregar(List<EventoDominio> eventos);
+
+    /**
+     * Nombre con el que se anota en cada evento que ya se le entregó; debe mantenerse entre versiones
+     */
+    default String nombre() {
+        return ClassUtils.getUserClass(this).getSimpleName();
+    }
+}
@@ -0,0 +1,36 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.event.EventoDominio;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Entrega cada evento a los {@code @EventListener(EventoDominio.class)} de esta instancia. Los oyentes se
+ * ejecutan en una transacción propia ({@code REQUIRES_NEW}), no en la del publicador: un oyente
+ * {@code @Transactional} que falla solo deshace la suya, y el publicador repite la entrega evento a evento y
+ * anota el intento en los que fallan. Lo que los oyentes escriben se confirma antes que el lote, así que un
+ * evento puede volver a entregarse si después no se llega a marcar publicado.
+ */
+@Component
+public class SumideroEventosAplicacion implements SumideroEventos {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public SumideroEventosAplicacion(ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager) {
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void entregar(List<EventoDominio> eventos) {
+        transactionTemplate.executeWithoutResult(estado -> eventos.forEach(eventPublisher::publishEvent));
+    }
+}
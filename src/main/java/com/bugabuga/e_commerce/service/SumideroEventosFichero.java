@@ -0,0 +1,101 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.OutboxProperties;
+import com.bugabuga.e_commerce.event.EventoDominio;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Añade los eventos a un fichero NDJSON ({@code app.outbox.fichero}), un objeto JSON por línea con la
+ * carga anidada. Cada lote se escribe y se cierra antes de confirmarlo. Antes de escribir, si el fichero supera
+ * {@code app.outbox.fichero-tamano-maximo} se renombra a {@code .1} (los anteriores pasan a {@code .2},
+ * {@code .3}, ...) y se conservan {@code app.outbox.ficheros-conservados}.
+ * Solo lo llama el hilo programado de {@link PublicadorOutbox}, así que escritura y rotación no se sincronizan.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "fichero")
+public class SumideroEventosFichero implements SumideroEventos {
+
+    private final Path fichero;
+    private final long tamanoMaximo;
+    private final int conservados;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SumideroEventosFichero(OutboxProperties propiedades, ObjectMapper objectMapper) {
+        this(Path.of(propiedades.getFichero()), propiedades.getFicheroTamanoMaximo().toBytes(),
+                propiedades.getFicherosConservados(), objectMapper);
+    }
+
+    SumideroEventosFichero(Path fichero, long tamanoMaximo, int conservados, ObjectMapper objectMapper) {
+        this.fichero = fichero;
+        this.tamanoMaximo = tamanoMaximo;
+        this.conservados = conservados;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void entregar(List<EventoDominio> eventos) {
+        try {
+            Path directorio = fichero.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            rotar();
+            try (Writer writer = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (EventoDominio evento : eventos) {
+                    writer.write(linea(evento));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en " + fichero, e);
+        }
+    }
+
+    private void rotar() throws IOException {
+        if (!Files.exists(fichero) || Files.size(fichero) < tamanoMaximo) {
+            return;
+        }
+        if (conservados < 1) {
+            Files.delete(fichero);
+            return;
+        }
+        Files.deleteIfExists(conservado(conservados));
+        for (int i = conservados - 1; i >= 1; i--) {
+            if (Files.exists(conservado(i))) {
+                Files.move(conservado(i), conservado(i + 1));
+            }
+        }
+        Files.move(fichero, conservado(1));
+    }
+
+    private Path conservado(int numero) {
+        return fichero.resolveSibling(fichero.getFileName() + "." + numero);
+    }
+
+    private String linea(EventoDominio evento) throws JsonProcessingException {
+        ObjectNode nodo = objectMapper.createObjectNode();
+        nodo.put("id", evento.id());
+        nodo.put("agregado", evento.agregado());
+        nodo.put("agregadoId", evento.agregadoId());
+        nodo.put("tipo", evento.tipo());
+        nodo.put("fechaCreacion", evento.fechaCreacion().toString());
+        nodo.set("carga", objectMapper.readTree(evento.carga()));
+        return objectMapper.writeValueAsString(nodo);
+    }
+}
@@ -1,5 +1,9 @@
 package com.bugabuga.e_commerce.service;
 
+import com.bugabuga.e_commerce.config.CacheConfig;
+import com.bugabuga.e_commerce.config.EtiquetasCache;
+import com.bugabuga.e_commerce.config.EtiquetasCacheManager;
+import com.bugabuga.e_commerce.config.MetricsConfig;
 import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
 import com.bugabuga.e_commerce.model.dto.ProductoDTO;
 import com.bugabuga.e_commerce.model.entity.Categoria;
@@ -8,9 +12,9 @@ import com.bugabuga.e_commerce.model.entity.Tienda;
 import com.bugabuga.e_commerce.model.entity.Usuario;
 import com.bugabuga.e_commerce.repository.CategoriaRepository;
 import com.bugabuga.e_commerce.repository.ProductoRepository;
-import com.bugabuga.e_commerce.repository.ReseñaRepository;
 import com.bugabuga.e_commerce.repository.TiendaRepository;
 import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
 public class TiendaService {
 
     @Autowired
@@ -35,7 +40,13 @@ public class TiendaService {
     private CategoriaRepository categoriaRepository;
 
     @Autowired
-    private ReseñaRepository reseñaRepository;
+    private MappingService mappingService;
+
+    @Autowired
+    private IndiceBusquedaService indiceBusquedaService;
+
+    @Autowired
+    private EtiquetasCacheManager cacheManager;
 
     @Transactional(readOnly = true)
     public Page<Tienda> obtenerTodasLasTiendas(Pageable pageable) {
@@ -93,6 +104,9 @@ public class TiendaService {
         tienda.setDescripcion(tiendaActualizada.getDescripcion());
         tienda.setLogoUrl(tiendaActualizada.getLogoUrl());
         
+        // Los productos cacheados llevan el nombre de la tienda
+        cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.tienda(id));
+        
         // Guardar la tienda actualizada
         return tiendaRepository.save(tienda);
     }
@@ -136,13 +150,17 @@ public class TiendaService {
             Categoria categoria = categoriaRepository.findById(productoDTO.getCategoriaId())
                     .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con id: " + productoDTO.getCategoriaId()));
             producto.setCategoria(categoria);
+            cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.categoria(categoria.getId()));
         }
         
         // Guardar el producto
         Producto productoGuardado = productoRepository.save(producto);
+        indiceBusquedaService.indexarTrasCommit(productoGuardado);
+        cacheManager.vaciarTrasCommit(CacheConfig.CACHE_PRODUCTOS, CacheConfig.CACHE_PRODUCTOS_RECIENTES);
+        cacheManager.invalidarEtiquetasTrasCommit(EtiquetasCache.tienda(tiendaId));
         
         // Convertir el producto guardado a DTO y devolverlo
-        return convertirADTO(productoGuardado);
+        return mappingService.mapToProductoDTO(productoGuardado);
     }
 
     @Transactional(readOnly = true)
@@ -155,35 +173,6 @@ public class TiendaService {
         Page<Producto> productos = productoRepository.findByTiendaIdAndActivoTrue(tiendaId, pageable);
         
         // Convertir los productos a DTOs
-        return productos.map(this::convertirADTO);
-    }
-
-    private ProductoDTO convertirADTO(Producto producto) {
-        ProductoDTO dto = new ProductoDTO();
-        dto.setId(producto.getId());
-        dto.setNombre(producto.getNombre());
-        dto.setDescripcion(producto.getDescripcion());
-        dto.setPrecio(producto.getPrecio());
-        dto.setStock(producto.getStock());
-        dto.setImagenUrl(producto.getImagenUrl());
-        
-        if (producto.getTienda() != null) {
-            dto.setTiendaId(producto.getTienda().getId());
-            dto.setTiendaNombre(producto.getTienda().getNombre());
-        }
-        
-        if (producto.getCategoria() != null) {
-            dto.setCategoriaId(producto.getCategoria().getId());
-            dto.setCategoriaNombre(producto.getCategoria().getNombre());
-        }
-        
-        // Obtener calificación promedio y cantidad de reseñas
-        Double calificacionPromedio = reseñaRepository.calcularCalificacionPromedio(producto.getId());
-        Integer cantidadReseñas = reseñaRepository.contarReseñasPorProducto(producto.getId());
-        
-        dto.setCalificacionPromedio(calificacionPromedio != null ? calificacionPromedio : 0.0);
-        dto.setCantidadReseñas(cantidadReseñas != null ? cantidadReseñas : 0);
-        
-        return dto;
+        return productos.map(mappingService::mapToProductoDTO);
     }
 }
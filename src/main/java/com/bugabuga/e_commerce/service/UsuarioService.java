@@ -1,38 +1,51 @@
 package com.bugabuga.e_commerce.service;
 
+import com.bugabuga.e_commerce.config.MetricsConfig;
+import com.bugabuga.e_commerce.event.UsuarioModificadoEvent;
 import com.bugabuga.e_commerce.exception.ResourceNotFoundException;
 import com.bugabuga.e_commerce.model.dto.UsuarioDTO;
 import com.bugabuga.e_commerce.model.entity.Rol;
 import com.bugabuga.e_commerce.model.entity.Usuario;
 import com.bugabuga.e_commerce.repository.RolRepository;
 import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.TIMER_SERVICIOS)
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public UsuarioService(UsuarioRepository usuarioRepository,
                          RolRepository rolRepository,
-                         PasswordEncoder passwordEncoder) {
+                         PasswordEncoder passwordEncoder,
+                         ApplicationEventPublisher eventPublisher) {
         this.usuarioRepository = usuarioRepository;
         this.rolRepository = rolRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Registra el usuario con la contraseña ya cifrada: el llamador calcula BCrypt fuera de la transacción,
+     * para no retener una conexión mientras tanto
+     */
     @Transactional
-    public UsuarioDTO registrarUsuario(UsuarioDTO usuarioDTO) {
+    public UsuarioDTO registrarUsuario(UsuarioDTO usuarioDTO, String passwordCifrada) {
         // Verificar que el email no esté en uso
         if (usuarioRepository.existsByEmail(usuarioDTO.getEmail())) {
             throw new IllegalArgumentException("El email ya está en uso");
@@ -43,7 +56,7 @@ public class UsuarioService {
         usuario.setEmail(usuarioDTO.getEmail());
         usuario.setNombre(usuarioDTO.getNombre());
         usuario.setApellido(usuarioDTO.getApellido());
-        usuario.setPassword(passwordEncoder.encode(usuarioDTO.getPassword())); // Encriptamos la contraseña
+        usuario.setPassword(passwordCifrada);
         usuario.setActivo(true);
 
         // Asignar roles
@@ -117,6 +130,10 @@ public class UsuarioService {
             throw new IllegalArgumentException("El email ya está en uso");
         }
 
+        // Los tokens emitidos llevan el email como subject: si cambia, dejan de ser válidos
+        String emailAnterior = usuario.getEmail();
+        boolean revocarTokens = !emailAnterior.equals(usuarioDTO.getEmail());
+
         // Actualizar los campos del usuario
         usuario.setEmail(usuarioDTO.getEmail());
         usuario.setNombre(usuarioDTO.getNombre());
@@ -125,11 +142,19 @@ public class UsuarioService {
         // Actualizar la contraseña si se proporciona
         if (usuarioDTO.getPassword() != null && !usuarioDTO.getPassword().isEmpty()) {
             usuario.setPassword(passwordEncoder.encode(usuarioDTO.getPassword())); // Encriptamos la contraseña
+            revocarTokens = true;
+        }
+
+        if (revocarTokens) {
+            usuario.setTokensRevocadosDesde(LocalDateTime.now());
         }
 
         // Guardar el usuario actualizado
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
 
+        // Invalidar la caché de usuarios y, si corresponde, los tokens emitidos
+        eventPublisher.publishEvent(new UsuarioModificadoEvent(id, emailAnterior, revocarTokens));
+
         // Convertir el usuario actualizado a DTO y devolverlo
         return convertirADTO(usuarioActualizado);
     }
@@ -142,9 +167,14 @@ public class UsuarioService {
 
         // Desactivar el usuario
         usuario.setActivo(false);
+        usuario.setTokensRevocadosDesde(LocalDateTime.now());
 
         // Guardar el usuario actualizado
         usuarioRepository.save(usuario);
+
+        // Invalidar la caché de usuarios y rechazar sus tokens ya emitidos,
+        // que en modo sin estado no consultan la base de datos
+        eventPublisher.publishEvent(new UsuarioModificadoEvent(id, usuario.getEmail(), true));
     }
 
     private UsuarioDTO convertirADTO(Usuario usuario) {
@@ -0,0 +1,3 @@
+-- Bloqueo de las claves EN_CURSO: si la instancia cae, un reintento toma la clave al caducar el bloqueo
+ALTER TABLE claves_idempotencia ADD COLUMN IF NOT EXISTS bloqueada_hasta TIMESTAMP;
+ALTER TABLE claves_idempotencia ADD COLUMN IF NOT EXISTS propietario VARCHAR(36);
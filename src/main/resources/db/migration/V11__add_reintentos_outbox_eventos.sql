@@ -0,0 +1,12 @@
+-- Reintentos del outbox: un evento que falla espera, recuerda a qué sumideros se entregó y se descarta tras
+-- agotar los intentos, sin bloquear a los demás
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS disponible_desde TIMESTAMP NOT NULL DEFAULT now();
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS intentos INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS ultimo_error VARCHAR(1000);
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS sumideros_entregados VARCHAR(500);
+ALTER TABLE outbox_eventos ADD COLUMN IF NOT EXISTS fecha_descarte TIMESTAMP;
+
+-- Los descartados dejan de contar como pendientes
+DROP INDEX IF EXISTS idx_outbox_eventos_pendientes;
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_pendientes ON outbox_eventos (id)
+    WHERE fecha_publicacion IS NULL AND fecha_descarte IS NULL;
@@ -0,0 +1,5 @@
+-- Revocación de tokens compartida entre instancias: cada una consulta los usuarios revocados recientemente
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS tokens_revocados_desde TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_usuarios_tokens_revocados ON usuarios (tokens_revocados_desde)
+    WHERE tokens_revocados_desde IS NOT NULL;
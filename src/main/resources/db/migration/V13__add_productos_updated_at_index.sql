@@ -0,0 +1,2 @@
+-- Sincronización del índice de búsqueda: cada instancia consulta los productos modificados recientemente
+CREATE INDEX IF NOT EXISTS idx_productos_updated_at ON productos (updated_at);
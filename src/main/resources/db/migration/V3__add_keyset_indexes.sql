@@ -0,0 +1,6 @@
+-- Índices compuestos para la paginación por clave (keyset) del catálogo
+CREATE INDEX IF NOT EXISTS idx_productos_activo_id ON productos(id) WHERE activo = true;
+CREATE INDEX IF NOT EXISTS idx_productos_activo_nombre_id ON productos(nombre, id) WHERE activo = true;
+CREATE INDEX IF NOT EXISTS idx_productos_activo_precio_id ON productos(precio, id) WHERE activo = true;
+CREATE INDEX IF NOT EXISTS idx_productos_tienda_activo_id ON productos(tienda_id, id) WHERE activo = true;
+CREATE INDEX IF NOT EXISTS idx_productos_categoria_activo_id ON productos(categoria_id, id) WHERE activo = true;
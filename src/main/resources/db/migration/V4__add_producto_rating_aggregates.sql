@@ -0,0 +1,14 @@
+-- Agregados de reseñas desnormalizados en productos
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE productos ADD COLUMN IF NOT EXISTS rating_count INTEGER NOT NULL DEFAULT 0;
+
+-- Poblar los agregados con las reseñas existentes
+UPDATE productos p
+SET rating_sum = r.suma,
+    rating_count = r.cantidad
+FROM (
+    SELECT producto_id, SUM(calificacion) AS suma, COUNT(*) AS cantidad
+    FROM reseñas
+    GROUP BY producto_id
+) r
+WHERE r.producto_id = p.id;
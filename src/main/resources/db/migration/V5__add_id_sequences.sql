@@ -0,0 +1,61 @@
+-- Secuencias para los identificadores (SEQUENCE con optimizador pooled, allocationSize = 50).
+-- Con IDENTITY Hibernate necesita el id de cada fila al insertarla y no puede agrupar los INSERT en lotes JDBC.
+-- El incremento debe coincidir con allocationSize: Hibernate reserva en memoria los 50 ids de cada nextval.
+-- setval deja el primer bloque (nextval - 49 .. nextval) por encima del mayor id existente.
+-- La columna deja de ser de identidad; su DEFAULT pasa a la nueva secuencia para los INSERT que no envían id.
+-- Aplicar antes de arrancar la versión que usa las secuencias.
+
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq INCREMENT BY 50;
+SELECT setval('usuarios_seq', COALESCE(MAX(id), 0) + 50, false) FROM usuarios;
+ALTER TABLE usuarios ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE usuarios ALTER COLUMN id SET DEFAULT nextval('usuarios_seq');
+
+CREATE SEQUENCE IF NOT EXISTS roles_seq INCREMENT BY 50;
+SELECT setval('roles_seq', COALESCE(MAX(id), 0) + 50, false) FROM roles;
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN id SET DEFAULT nextval('roles_seq');
+
+CREATE SEQUENCE IF NOT EXISTS tiendas_seq INCREMENT BY 50;
+SELECT setval('tiendas_seq', COALESCE(MAX(id), 0) + 50, false) FROM tiendas;
+ALTER TABLE tiendas ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tiendas ALTER COLUMN id SET DEFAULT nextval('tiendas_seq');
+
+CREATE SEQUENCE IF NOT EXISTS categorias_seq INCREMENT BY 50;
+SELECT setval('categorias_seq', COALESCE(MAX(id), 0) + 50, false) FROM categorias;
+ALTER TABLE categorias ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE categorias ALTER COLUMN id SET DEFAULT nextval('categorias_seq');
+
+CREATE SEQUENCE IF NOT EXISTS productos_seq INCREMENT BY 50;
+SELECT setval('productos_seq', COALESCE(MAX(id), 0) + 50, false) FROM productos;
+ALTER TABLE productos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE productos ALTER COLUMN id SET DEFAULT nextval('productos_seq');
+
+CREATE SEQUENCE IF NOT EXISTS carritos_seq INCREMENT BY 50;
+SELECT setval('carritos_seq', COALESCE(MAX(id), 0) + 50, false) FROM carritos;
+ALTER TABLE carritos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE carritos ALTER COLUMN id SET DEFAULT nextval('carritos_seq');
+
+CREATE SEQUENCE IF NOT EXISTS items_carrito_seq INCREMENT BY 50;
+SELECT setval('items_carrito_seq', COALESCE(MAX(id), 0) + 50, false) FROM items_carrito;
+ALTER TABLE items_carrito ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items_carrito ALTER COLUMN id SET DEFAULT nextval('items_carrito_seq');
+
+CREATE SEQUENCE IF NOT EXISTS pedidos_seq INCREMENT BY 50;
+SELECT setval('pedidos_seq', COALESCE(MAX(id), 0) + 50, false) FROM pedidos;
+ALTER TABLE pedidos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE pedidos ALTER COLUMN id SET DEFAULT nextval('pedidos_seq');
+
+CREATE SEQUENCE IF NOT EXISTS items_pedido_seq INCREMENT BY 50;
+SELECT setval('items_pedido_seq', COALESCE(MAX(id), 0) + 50, false) FROM items_pedido;
+ALTER TABLE items_pedido ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items_pedido ALTER COLUMN id SET DEFAULT nextval('items_pedido_seq');
+
+CREATE SEQUENCE IF NOT EXISTS pagos_seq INCREMENT BY 50;
+SELECT setval('pagos_seq', COALESCE(MAX(id), 0) + 50, false) FROM pagos;
+ALTER TABLE pagos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE pagos ALTER COLUMN id SET DEFAULT nextval('pagos_seq');
+
+CREATE SEQUENCE IF NOT EXISTS reseñas_seq INCREMENT BY 50;
+SELECT setval('reseñas_seq', COALESCE(MAX(id), 0) + 50, false) FROM reseñas;
+ALTER TABLE reseñas ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE reseñas ALTER COLUMN id SET DEFAULT nextval('reseñas_seq');
@@ -0,0 +1,16 @@
+-- Libro de asignaciones del stock en memoria (app.stock.caliente): unidades descontadas de productos.stock
+-- por cada instancia y cuántas de ellas se vendieron
+CREATE SEQUENCE IF NOT EXISTS asignaciones_stock_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS asignaciones_stock (
+    id BIGINT PRIMARY KEY DEFAULT nextval('asignaciones_stock_seq'),
+    producto_id BIGINT NOT NULL,
+    instancia VARCHAR(100) NOT NULL,
+    asignadas BIGINT NOT NULL DEFAULT 0,
+    vendidas BIGINT NOT NULL DEFAULT 0,
+    fecha_volcado TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT uk_asignaciones_stock_producto_instancia UNIQUE (producto_id, instancia)
+);
+
+-- La recuperación suma las unidades pedidas de un producto desde la última anotación
+CREATE INDEX IF NOT EXISTS idx_items_pedido_producto ON items_pedido (producto_id);
@@ -0,0 +1,16 @@
+-- Respuestas guardadas para las solicitudes con Idempotency-Key
+CREATE SEQUENCE IF NOT EXISTS claves_idempotencia_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS claves_idempotencia (
+    id BIGINT PRIMARY KEY DEFAULT nextval('claves_idempotencia_seq'),
+    clave VARCHAR(400) NOT NULL UNIQUE,
+    huella VARCHAR(64) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    estado_http INTEGER,
+    tipo_contenido VARCHAR(255),
+    cuerpo BYTEA,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Purga de las claves caducadas
+CREATE INDEX IF NOT EXISTS idx_claves_idempotencia_fecha ON claves_idempotencia (fecha_creacion);
@@ -0,0 +1,19 @@
+-- Cola de cobros pendientes de la pasarela de pago
+CREATE SEQUENCE IF NOT EXISTS cola_pagos_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS cola_pagos (
+    id BIGINT PRIMARY KEY DEFAULT nextval('cola_pagos_seq'),
+    pago_id BIGINT NOT NULL REFERENCES pagos (id),
+    estado VARCHAR(20) NOT NULL,
+    intentos INTEGER NOT NULL DEFAULT 0,
+    disponible_desde TIMESTAMP NOT NULL DEFAULT now(),
+    ultimo_error VARCHAR(1000),
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Reclamación de tareas (FOR UPDATE SKIP LOCKED): solo se indexan las que aún pueden reclamarse
+CREATE INDEX IF NOT EXISTS idx_cola_pagos_reclamables ON cola_pagos (disponible_desde, id)
+    WHERE estado IN ('PENDIENTE', 'EN_PROCESO');
+
+-- Motivo del rechazo de la pasarela, visible en el estado del pago
+ALTER TABLE pagos ADD COLUMN IF NOT EXISTS motivo_rechazo VARCHAR(255);
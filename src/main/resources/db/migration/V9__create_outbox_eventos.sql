@@ -0,0 +1,19 @@
+-- Cambios de estado de pedidos y pagos pendientes de publicar (outbox transaccional)
+CREATE SEQUENCE IF NOT EXISTS outbox_eventos_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id BIGINT PRIMARY KEY DEFAULT nextval('outbox_eventos_seq'),
+    agregado VARCHAR(20) NOT NULL,
+    agregado_id BIGINT NOT NULL,
+    tipo VARCHAR(50) NOT NULL,
+    carga VARCHAR(4000) NOT NULL,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT now(),
+    fecha_publicacion TIMESTAMP
+);
+
+-- Lectura de pendientes por el publicador: solo se indexan los que aún no se han publicado
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_pendientes ON outbox_eventos (id)
+    WHERE fecha_publicacion IS NULL;
+
+-- Purga de los eventos ya publicados
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_publicacion ON outbox_eventos (fecha_publicacion);
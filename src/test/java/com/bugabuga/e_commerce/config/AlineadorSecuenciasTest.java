@@ -0,0 +1,56 @@
+package com.bugabuga.e_commerce.config;
+
+import com.bugabuga.e_commerce.model.entity.Categoria;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Una secuencia recién creada por ddl-auto (empieza en 1) sobre una tabla con filas se recoloca al arrancar
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class AlineadorSecuenciasTest {
+
+    @Autowired
+    private AlineadorSecuencias alineadorSecuencias;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Test
+    void recolocaLaSecuenciaPorDebajoDelMayorId() {
+        Categoria categoria = datos.categoria();
+        jdbcTemplate.queryForObject("SELECT setval('categorias_seq', 1, false)", Long.class);
+
+        alineadorSecuencias.alinear();
+
+        // El próximo bloque (nextval - 49 .. nextval) empieza por encima del mayor id
+        long siguiente = jdbcTemplate.queryForObject("SELECT nextval('categorias_seq')", Long.class);
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM categorias", Long.class);
+        assertTrue(maxId >= categoria.getId());
+        assertEquals(maxId + 50, siguiente);
+    }
+
+    @Test
+    void noTocaUnaSecuenciaQueYaEstaPorEncima() {
+        datos.categoria();
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM categorias", Long.class);
+        jdbcTemplate.queryForObject("SELECT setval('categorias_seq', ?, false)", Long.class, maxId + 1000);
+
+        alineadorSecuencias.alinear();
+
+        assertEquals(maxId + 1000, jdbcTemplate.queryForObject("SELECT nextval('categorias_seq')", Long.class));
+    }
+}
@@ -0,0 +1,60 @@
+package com.bugabuga.e_commerce.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static com.bugabuga.e_commerce.support.ConsultasSql.assertConsultas;
+import static com.bugabuga.e_commerce.support.ConsultasSql.contar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ContadorConsultasTest {
+
+    private final ContadorConsultas contador = new ContadorConsultas();
+
+    @Test
+    void cuentaLasSentenciasDelHilo() throws Throwable {
+        assertConsultas(2, () -> {
+            contador.inspect("select 1");
+            contador.inspect("select 2");
+        });
+    }
+
+    @Test
+    void lasMedicionesAnidadasNoSePisan() throws Throwable {
+        long[] interna = new long[1];
+        long externa = contar(() -> {
+            contador.inspect("select 1");
+            interna[0] = contar(() -> contador.inspect("select 2"));
+        });
+
+        assertEquals(1, interna[0]);
+        assertEquals(2, externa);
+    }
+
+    @Test
+    void noCuentaLasSentenciasDeOtrosHilos() throws Throwable {
+        assertConsultas(0, () -> {
+            Thread hilo = new Thread(() -> contador.inspect("select 1"));
+            hilo.start();
+            hilo.join();
+        });
+    }
+
+    @Test
+    void laCuentaDeLaPeticionSeMantieneEnElMdc() {
+        contador.inspect("select 0");
+        ContadorConsultas.iniciarPeticion();
+        try {
+            assertEquals("0", MDC.get(ContadorConsultas.QUERIES_MDC_KEY));
+            contador.inspect("select 1");
+            contador.inspect("select 2");
+            assertEquals("2", MDC.get(ContadorConsultas.QUERIES_MDC_KEY));
+        } finally {
+            ContadorConsultas.terminarPeticion();
+        }
+
+        contador.inspect("select 3");
+        assertNull(MDC.get(ContadorConsultas.QUERIES_MDC_KEY));
+    }
+}
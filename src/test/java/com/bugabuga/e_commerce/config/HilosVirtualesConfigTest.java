@@ -0,0 +1,51 @@
+package com.bugabuga.e_commerce.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Perfil {@code virtual}: los métodos {@code @Async} se ejecutan en el applicationTaskExecutor, sobre hilos virtuales
+ */
+@SpringBootTest(properties = "app.virtual.pinning.enabled=false")
+@ActiveProfiles({"test", "virtual"})
+class HilosVirtualesConfigTest {
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        TareaAsincrona tareaAsincrona() {
+            return new TareaAsincrona();
+        }
+    }
+
+    static class TareaAsincrona {
+
+        @Async
+        public CompletableFuture<Thread> hiloActual() {
+            return CompletableFuture.completedFuture(Thread.currentThread());
+        }
+    }
+
+    @Autowired
+    private TareaAsincrona tareaAsincrona;
+
+    @Test
+    void losMetodosAsyncCorrenEnHilosVirtuales() throws Exception {
+        Thread hilo = tareaAsincrona.hiloActual().get(5, TimeUnit.SECONDS);
+
+        assertTrue(hilo.isVirtual());
+        assertNotSame(Thread.currentThread(), hilo);
+    }
+}
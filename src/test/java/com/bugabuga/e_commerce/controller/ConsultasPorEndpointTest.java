@@ -0,0 +1,68 @@
+package com.bugabuga.e_commerce.controller;
+
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.model.entity.Usuario;
+import com.bugabuga.e_commerce.service.CarritoService;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static com.bugabuga.e_commerce.support.ConsultasSql.assertConsultas;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sentencias SQL de los endpoints más llamados. Si una consulta pasa a cargar relaciones por elemento (N+1),
+ * la cuenta deja de cuadrar. La caché está desactivada en el perfil test, así que se mide la carga real.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ConsultasPorEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Test
+    void elListadoDeProductosHaceLaConsultaYElRecuento() throws Throwable {
+        for (int i = 0; i < 3; i++) {
+            datos.producto("Listado " + i, new BigDecimal("10.00"), 5);
+        }
+
+        // Con la página llena, Spring Data ejecuta también el COUNT
+        assertConsultas(2, () -> mockMvc.perform(get("/api/catalogo/productos").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.productos.length()").value(2)));
+    }
+
+    @Test
+    @WithMockUser
+    void elCarritoSeCargaEnUnaConsultaSinImportarLosItems() throws Throwable {
+        Producto primero = datos.producto("Carrito 1", new BigDecimal("10.00"), 5);
+        Usuario comprador = datos.compradores(primero, 1).get(0);
+        for (int i = 2; i <= 3; i++) {
+            Producto producto = datos.producto("Carrito " + i, new BigDecimal("10.00"), 5);
+            carritoService.agregarProductoAlCarrito(comprador.getId(), producto.getId(), 1);
+        }
+
+        assertConsultas(1, () -> mockMvc.perform(get("/api/carrito/{usuarioId}", comprador.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3)));
+    }
+}
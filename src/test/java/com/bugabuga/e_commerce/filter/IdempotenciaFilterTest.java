@@ -0,0 +1,201 @@
+package com.bugabuga.e_commerce.filter;
+
+import com.bugabuga.e_commerce.security.JwtAuthenticationFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El filtro con la tabla {@code claves_idempotencia} real: cada solicitud pasa por el filtro con el usuario
+ * ya identificado y una cadena que cuenta cuántas veces se ejecuta el controlador.
+ */
+@SpringBootTest(properties = {
+        "app.idempotencia.bloqueo=1s",
+        "app.idempotencia.cuerpo-maximo=1KB"
+})
+@ActiveProfiles("test")
+class IdempotenciaFilterTest {
+
+    private static final String RUTA = "/api/pedidos/checkout";
+    private static final long USUARIO_ID = 7L;
+
+    @Autowired
+    private IdempotenciaFilter idempotenciaFilter;
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    @Test
+    void elReintentoRecibeLaRespuestaGuardadaSinEjecutarse() throws Exception {
+        String clave = UUID.randomUUID().toString();
+
+        MockHttpServletResponse primera = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":1}"));
+        MockHttpServletResponse reintento = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":2}"));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(201, primera.getStatus());
+        assertNull(primera.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals(201, reintento.getStatus());
+        assertEquals("true", reintento.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals("{\"pedido\":1}", reintento.getContentAsString());
+    }
+
+    @Test
+    void laMismaClaveConOtrosDatosDevuelve422() throws Exception {
+        String clave = UUID.randomUUID().toString();
+
+        enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":1}"));
+        MockHttpServletResponse otra = enviar(clave, "{\"carrito\":2}", responder(201, "{\"pedido\":2}"));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), otra.getStatus());
+    }
+
+    @Test
+    void unCuerpoDemasiadoGrandeSeRechazaSinEjecutarse() throws Exception {
+        MockHttpServletResponse respuesta = enviar(UUID.randomUUID().toString(), "x".repeat(2048),
+                responder(201, "{\"pedido\":1}"));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), respuesta.getStatus());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void unReintentoMientrasLaPrimeraSigueEnCursoDevuelve409() throws Exception {
+        String clave = UUID.randomUUID().toString();
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> primera = hilo.submit(() ->
+                    enviar(clave, "{\"carrito\":1}", bloquear(dentro, terminar, "{\"pedido\":1}")));
+            assertTrue(dentro.await(10, TimeUnit.SECONDS));
+
+            MockHttpServletResponse reintento = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":2}"));
+            assertEquals(HttpStatus.CONFLICT.value(), reintento.getStatus());
+            assertEquals("1", reintento.getHeader("Retry-After"));
+
+            terminar.countDown();
+            assertEquals(201, primera.get(10, TimeUnit.SECONDS).getStatus());
+        } finally {
+            terminar.countDown();
+            hilo.shutdownNow();
+        }
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void trasCaducarElBloqueoElReintentoTomaLaClave() throws Exception {
+        String clave = UUID.randomUUID().toString();
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            // La primera ejecución se queda colgada, como si su instancia hubiera caído
+            Future<MockHttpServletResponse> colgada = hilo.submit(() ->
+                    enviar(clave, "{\"carrito\":1}", bloquear(dentro, terminar, "{\"pedido\":1}")));
+            assertTrue(dentro.await(10, TimeUnit.SECONDS));
+            Thread.sleep(1500);
+
+            MockHttpServletResponse reintento = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":2}"));
+            assertEquals(201, reintento.getStatus());
+            assertEquals("{\"pedido\":2}", reintento.getContentAsString());
+
+            // La ejecución desplazada termina después, pero ya no es la dueña de la clave
+            terminar.countDown();
+            colgada.get(10, TimeUnit.SECONDS);
+        } finally {
+            terminar.countDown();
+            hilo.shutdownNow();
+        }
+
+        MockHttpServletResponse repetida = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":3}"));
+        assertEquals(2, ejecuciones.get());
+        assertEquals("true", repetida.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals("{\"pedido\":2}", repetida.getContentAsString());
+    }
+
+    @Test
+    void unRechazoDeLaAutorizacionNoSeGuarda() throws Exception {
+        String clave = UUID.randomUUID().toString();
+
+        // AuthorizationFilter responde 403 sin llegar al controlador
+        MockHttpServletResponse denegada = enviar(clave, "{\"carrito\":1}", (request, response) ->
+                ((HttpServletResponse) response).sendError(HttpStatus.FORBIDDEN.value()));
+        MockHttpServletResponse reintento = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":1}"));
+
+        assertEquals(HttpStatus.FORBIDDEN.value(), denegada.getStatus());
+        assertEquals(201, reintento.getStatus());
+        assertNull(reintento.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void un429DelControladorNoSeGuarda() throws Exception {
+        String clave = UUID.randomUUID().toString();
+
+        enviar(clave, "{\"carrito\":1}", responder(429, "{}"));
+        MockHttpServletResponse reintento = enviar(clave, "{\"carrito\":1}", responder(201, "{\"pedido\":1}"));
+
+        assertEquals(201, reintento.getStatus());
+        assertEquals(2, ejecuciones.get());
+    }
+
+    private MockHttpServletResponse enviar(String clave, String cuerpo, FilterChain controlador) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", RUTA);
+        request.addHeader(IdempotenciaFilter.CABECERA, clave);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        request.setAttribute(JwtAuthenticationFilter.ATRIBUTO_USUARIO_ID, USUARIO_ID);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotenciaFilter.doFilter(request, response, controlador);
+        return response;
+    }
+
+    // El controlador: DispatcherServlet ya resolvió el handler
+    private FilterChain responder(int estado, String cuerpo) {
+        return (request, response) -> {
+            ejecuciones.incrementAndGet();
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, "controlador");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ((HttpServletResponse) response).setStatus(estado);
+            response.getWriter().write(cuerpo);
+            response.getWriter().flush();
+        };
+    }
+
+    private FilterChain bloquear(CountDownLatch dentro, CountDownLatch terminar, String cuerpo) {
+        FilterChain respuesta = responder(201, cuerpo);
+        return (request, response) -> {
+            dentro.countDown();
+            try {
+                terminar.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respuesta.doFilter(request, response);
+        };
+    }
+}
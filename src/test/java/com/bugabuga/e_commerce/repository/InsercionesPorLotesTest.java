@@ -0,0 +1,119 @@
+package com.bugabuga.e_commerce.repository;
+
+import com.bugabuga.e_commerce.model.entity.Carrito;
+import com.bugabuga.e_commerce.model.entity.Categoria;
+import com.bugabuga.e_commerce.model.entity.ItemCarrito;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.model.entity.Tienda;
+import com.bugabuga.e_commerce.model.entity.Usuario;
+import com.bugabuga.e_commerce.support.ContadorLotesJdbc;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Con ids de secuencia (optimizador pooled) Hibernate agrupa los INSERT en lotes de
+ * {@code hibernate.jdbc.batch_size}; con IDENTITY cada fila sería una sentencia aparte.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session.events.auto=com.bugabuga.e_commerce.support.ContadorLotesJdbc")
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class InsercionesPorLotesTest {
+
+    private static final int TAMANO_LOTE = 50;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CarritoRepository carritoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private Usuario usuario;
+    private Tienda tienda;
+    private Categoria categoria;
+
+    private record Medicion(long lotes, long individuales) {
+    }
+
+    @BeforeEach
+    void crearDatos() {
+        usuario = datos.usuario("lotes");
+        tienda = datos.tienda(usuario);
+        categoria = datos.categoria();
+    }
+
+    @Test
+    void guardarUnCarritoConCincuentaItemsAgrupaLosInsert() {
+        List<Producto> productos = productoRepository.saveAll(productos(50));
+
+        Carrito carrito = new Carrito();
+        carrito.setUsuario(usuario);
+        for (Producto producto : productos) {
+            ItemCarrito item = new ItemCarrito();
+            item.setCarrito(carrito);
+            item.setProducto(producto);
+            item.setCantidad(1);
+            carrito.getItems().add(item);
+        }
+        carrito.calcularTotal();
+
+        Medicion medicion = medir(() -> carritoRepository.save(carrito));
+
+        // Un lote con el carrito y otro con sus 50 items
+        assertEquals(2, medicion.lotes());
+        // Fuera de lote solo van las llamadas a las secuencias, como mucho dos por secuencia
+        assertTrue(medicion.individuales() <= 4, "Sentencias fuera de lote: " + medicion.individuales());
+    }
+
+    @Test
+    void importarDiezMilProductosUsaLotesDeCincuenta() {
+        List<Producto> productos = productos(10_000);
+
+        Medicion medicion = medir(() -> productoRepository.saveAll(productos));
+
+        assertEquals(10_000 / TAMANO_LOTE, medicion.lotes());
+        // Un nextval por cada bloque de 50 ids (más uno la primera vez que se usa la secuencia)
+        assertTrue(medicion.individuales() <= 10_000 / TAMANO_LOTE + 1, "Sentencias fuera de lote: " + medicion.individuales());
+    }
+
+    private Medicion medir(Runnable accion) {
+        long lotes = ContadorLotesJdbc.lotesEnHilo();
+        long individuales = ContadorLotesJdbc.sentenciasIndividualesEnHilo();
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> accion.run());
+        return new Medicion(ContadorLotesJdbc.lotesEnHilo() - lotes,
+                ContadorLotesJdbc.sentenciasIndividualesEnHilo() - individuales);
+    }
+
+    private List<Producto> productos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setPrecio(BigDecimal.TEN);
+            producto.setStock(100);
+            producto.setTienda(tienda);
+            producto.setCategoria(categoria);
+            productos.add(producto);
+        }
+        return productos;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.exception.StockInsuficienteException;
+import com.bugabuga.e_commerce.model.dto.CheckoutDTO;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.model.entity.Usuario;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import com.bugabuga.e_commerce.support.CheckoutsConcurrentes;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checkouts concurrentes del mismo producto no venden más unidades que su stock
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class CheckoutServiceTest {
+
+    private static final int STOCK = 5;
+    private static final int COMPRADORES = 20;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private Producto producto;
+
+    @BeforeEach
+    void crearProducto() {
+        producto = datos.producto("Producto escaso", new BigDecimal("19.99"), STOCK);
+    }
+
+    @Test
+    void checkoutsConcurrentesNoSuperanElStock() throws Exception {
+        CheckoutsConcurrentes.Resultado resultado =
+                CheckoutsConcurrentes.ejecutar(checkoutService, datos.compradores(producto, COMPRADORES));
+
+        assertEquals(STOCK, resultado.confirmados());
+        assertEquals(COMPRADORES - STOCK, resultado.sinStock());
+        assertEquals(0, productoRepository.findById(producto.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void sinStockElCarritoQuedaIntacto() {
+        Usuario comprador = datos.usuario("checkout");
+        carritoService.agregarProductoAlCarrito(comprador.getId(), producto.getId(), STOCK + 1);
+
+        assertThrows(StockInsuficienteException.class,
+                () -> checkoutService.realizarCheckout(comprador.getId(), new CheckoutDTO("Calle 1", null)));
+
+        assertEquals(1, carritoService.obtenerCarritoPorUsuarioId(comprador.getId()).getItems().size());
+        assertEquals(STOCK, productoRepository.findById(producto.getId()).orElseThrow().getStock());
+    }
+}
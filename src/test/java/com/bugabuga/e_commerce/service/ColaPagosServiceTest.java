@@ -0,0 +1,164 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.model.entity.Pago;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import com.bugabuga.e_commerce.model.entity.TareaPago;
+import com.bugabuga.e_commerce.repository.PagoRepository;
+import com.bugabuga.e_commerce.repository.PedidoRepository;
+import com.bugabuga.e_commerce.repository.TareaPagoRepository;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Cola de pagos con sus trabajadores arrancados y una pasarela de prueba que falla las primeras
+ * {@code fallos} llamadas con un error transitorio y aprueba las demás.
+ */
+@SpringBootTest(properties = {
+        "app.pagos.cola.enabled=true",
+        "app.pagos.cola.hilos=2",
+        "app.pagos.cola.intervalo=100ms",
+        "app.pagos.cola.max-intentos=3",
+        "app.pagos.cola.espera-reintento=200ms",
+        "app.pagos.pasarela=prueba"
+})
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class ColaPagosServiceTest {
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        PasarelaDePrueba pasarelaDePrueba() {
+            return new PasarelaDePrueba();
+        }
+    }
+
+    static class PasarelaDePrueba implements PasarelaPago {
+
+        final AtomicInteger fallos = new AtomicInteger();
+        final List<SolicitudCobro> solicitudes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public ResultadoCobro cobrar(SolicitudCobro solicitud) {
+            solicitudes.add(solicitud);
+            if (fallos.getAndUpdate(pendientes -> Math.max(0, pendientes - 1)) > 0) {
+                throw new IllegalStateException("Timeout simulado");
+            }
+            return ResultadoCobro.aprobado("ref-" + solicitud.claveIdempotencia());
+        }
+    }
+
+    @Autowired
+    private PagoService pagoService;
+
+    @Autowired
+    private PasarelaDePrueba pasarela;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    @Autowired
+    private TareaPagoRepository tareaPagoRepository;
+
+    @BeforeEach
+    void reiniciarPasarela() {
+        pasarela.fallos.set(0);
+        pasarela.solicitudes.clear();
+    }
+
+    @Test
+    void cobroAprobadoCompletaElPagoYElPedido() {
+        Pedido pedido = datos.pedido(new BigDecimal("25.00"));
+
+        pagoService.procesarPago(pedido.getUsuario().getId(), pedido.getId(), Pago.MetodoPago.EFECTIVO, Map.of());
+        Pago pago = esperarResolucion(pedido.getId());
+
+        assertEquals(Pago.EstadoPago.COMPLETADO, pago.getEstado());
+        assertEquals("ref-pago-" + pago.getId() + "-" + tarea(pago.getId()).getId(), pago.getReferenciaPago());
+        assertEquals(Pedido.EstadoPedido.PAGADO, pedidoRepository.findById(pedido.getId()).orElseThrow().getEstado());
+        assertEquals(1, pasarela.solicitudes.size());
+        TareaPago tarea = tarea(pago.getId());
+        assertEquals(TareaPago.Estado.COMPLETADA, tarea.getEstado());
+        assertEquals(1, tarea.getIntentos());
+    }
+
+    @Test
+    void falloTransitorioSeReintentaConLaMismaClave() {
+        pasarela.fallos.set(1);
+        Pedido pedido = datos.pedido(new BigDecimal("25.00"));
+
+        pagoService.procesarPago(pedido.getUsuario().getId(), pedido.getId(), Pago.MetodoPago.EFECTIVO, Map.of());
+        Pago pago = esperarResolucion(pedido.getId());
+
+        assertEquals(Pago.EstadoPago.COMPLETADO, pago.getEstado());
+        assertEquals(2, pasarela.solicitudes.size());
+        assertEquals(pasarela.solicitudes.get(0).claveIdempotencia(), pasarela.solicitudes.get(1).claveIdempotencia());
+        TareaPago tarea = tarea(pago.getId());
+        assertEquals(TareaPago.Estado.COMPLETADA, tarea.getEstado());
+        assertEquals(2, tarea.getIntentos());
+        assertEquals("Timeout simulado", tarea.getUltimoError());
+    }
+
+    @Test
+    void trasAgotarLosIntentosElPagoFalla() {
+        pasarela.fallos.set(3);
+        Pedido pedido = datos.pedido(new BigDecimal("25.00"));
+
+        pagoService.procesarPago(pedido.getUsuario().getId(), pedido.getId(), Pago.MetodoPago.EFECTIVO, Map.of());
+        Pago pago = esperarResolucion(pedido.getId());
+
+        assertEquals(Pago.EstadoPago.FALLIDO, pago.getEstado());
+        assertTrue(pago.getMotivoRechazo().contains("3 intentos"));
+        assertEquals(Pedido.EstadoPedido.PENDIENTE, pedidoRepository.findById(pedido.getId()).orElseThrow().getEstado());
+        assertEquals(3, pasarela.solicitudes.size());
+        assertEquals(TareaPago.Estado.FALLIDA, tarea(pago.getId()).getEstado());
+    }
+
+    private Pago esperarResolucion(Long pedidoId) {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite) {
+            Pago pago = pagoRepository.findByPedidoId(pedidoId).get(0);
+            if (pago.getEstado() != Pago.EstadoPago.PENDIENTE) {
+                return pago;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("El pago del pedido " + pedidoId + " sigue pendiente");
+    }
+
+    private TareaPago tarea(Long pagoId) {
+        return tareaPagoRepository.findAll().stream()
+                .filter(tarea -> tarea.getPagoId().equals(pagoId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
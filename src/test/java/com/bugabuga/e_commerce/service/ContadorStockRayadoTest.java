@@ -0,0 +1,52 @@
+package com.bugabuga.e_commerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContadorStockRayadoTest {
+
+    @Test
+    void reuneUnidadesDeVariasFranjas() {
+        ContadorStockRayado contador = new ContadorStockRayado(4);
+        contador.agregar(10);
+
+        // Ninguna franja tiene 7 unidades (10 repartidas en 4), pero entre todas sí
+        assertTrue(contador.tomar(7));
+        assertFalse(contador.tomar(4));
+        assertEquals(3, contador.disponibles());
+    }
+
+    @Test
+    void hilosConcurrentesNoTomanMasDeLoDisponible() throws Exception {
+        ContadorStockRayado contador = new ContadorStockRayado(8);
+        contador.agregar(1_000);
+
+        AtomicInteger tomadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        try (ExecutorService hilos = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                hilos.submit(() -> {
+                    salida.await();
+                    for (int intento = 0; intento < 200; intento++) {
+                        if (contador.tomar(1)) {
+                            tomadas.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            salida.countDown();
+        }
+
+        assertEquals(1_000, tomadas.get() + contador.disponibles());
+        assertTrue(tomadas.get() <= 1_000);
+    }
+}
@@ -0,0 +1,224 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.event.EventoDominio;
+import com.bugabuga.e_commerce.model.entity.EventoOutbox;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import com.bugabuga.e_commerce.repository.EventoOutboxRepository;
+import com.bugabuga.e_commerce.repository.PedidoRepository;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Outbox con la base de datos real. El publicador se llama a mano; además de {@link SumideroEventosAplicacion}
+ * hay un sumidero de prueba que rechaza los eventos de los pedidos de {@code rechazados}.
+ */
+@SpringBootTest(properties = {
+        "app.outbox.enabled=true",
+        "app.outbox.intervalo=1h",
+        "app.outbox.max-intentos=2",
+        "app.outbox.espera-reintento=0s"
+})
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class PublicadorOutboxTest {
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        SumideroDePrueba sumideroDePrueba() {
+            return new SumideroDePrueba();
+        }
+
+        @Bean
+        OyenteDePrueba oyenteDePrueba() {
+            return new OyenteDePrueba();
+        }
+
+        @Bean
+        OyenteTransaccional oyenteTransaccional() {
+            return new OyenteTransaccional();
+        }
+    }
+
+    static class SumideroDePrueba implements SumideroEventos {
+
+        final Set<Long> rechazados = ConcurrentHashMap.newKeySet();
+        final Map<Long, AtomicInteger> intentos = new ConcurrentHashMap<>();
+        final Set<Long> recibidos = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void entregar(List<EventoDominio> eventos) {
+            for (EventoDominio evento : eventos) {
+                intentos.computeIfAbsent(evento.agregadoId(), id -> new AtomicInteger()).incrementAndGet();
+                if (rechazados.contains(evento.agregadoId())) {
+                    throw new IllegalStateException("Evento rechazado");
+                }
+            }
+            eventos.forEach(evento -> recibidos.add(evento.agregadoId()));
+        }
+    }
+
+    // Cuenta los eventos que entrega SumideroEventosAplicacion, por pedido
+    static class OyenteDePrueba {
+
+        final Map<Long, AtomicInteger> recibidos = new ConcurrentHashMap<>();
+
+        @EventListener
+        public void alRecibir(EventoDominio evento) {
+            recibidos.computeIfAbsent(evento.agregadoId(), id -> new AtomicInteger()).incrementAndGet();
+        }
+
+        int veces(Long pedidoId) {
+            AtomicInteger veces = recibidos.get(pedidoId);
+            return veces == null ? 0 : veces.get();
+        }
+    }
+
+    // Oyente @Transactional que falla con los eventos de los pedidos de "rechazados"
+    static class OyenteTransaccional {
+
+        final Set<Long> rechazados = ConcurrentHashMap.newKeySet();
+
+        @EventListener
+        @Transactional
+        public void alRecibir(EventoDominio evento) {
+            if (rechazados.contains(evento.agregadoId())) {
+                throw new IllegalStateException("Oyente rechazado");
+            }
+        }
+    }
+
+    @Autowired
+    private PublicadorOutbox publicadorOutbox;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SumideroDePrueba sumidero;
+
+    @Autowired
+    private OyenteDePrueba oyente;
+
+    @Autowired
+    private OyenteTransaccional oyenteTransaccional;
+
+    @Test
+    void elEventoSeConfirmaOSeDeshaceConElCambio() {
+        Long confirmado = transactionTemplate.execute(estado -> crearPedidoConEvento());
+        Long deshecho = transactionTemplate.execute(estado -> {
+            Long pedidoId = crearPedidoConEvento();
+            estado.setRollbackOnly();
+            return pedidoId;
+        });
+
+        assertEquals(1, eventos(confirmado).size());
+        assertTrue(pedidoRepository.findById(deshecho).isEmpty());
+        assertTrue(eventos(deshecho).isEmpty());
+    }
+
+    @Test
+    void elPublicadorEntregaYMarcaPublicados() {
+        Long pedidoId = transactionTemplate.execute(estado -> crearPedidoConEvento());
+
+        publicadorOutbox.publicarPendientes();
+
+        EventoOutbox evento = eventos(pedidoId).get(0);
+        assertNotNull(evento.getFechaPublicacion());
+        assertTrue(sumidero.recibidos.contains(pedidoId));
+        assertEquals(1, oyente.veces(pedidoId));
+
+        // Una segunda pasada no lo vuelve a entregar
+        publicadorOutbox.publicarPendientes();
+        assertEquals(1, oyente.veces(pedidoId));
+    }
+
+    @Test
+    void unEventoQueFallaNoBloqueaNiSeRepiteEnLosDemasSumideros() {
+        Long rechazado = transactionTemplate.execute(estado -> crearPedidoConEvento());
+        Long aceptado = transactionTemplate.execute(estado -> crearPedidoConEvento());
+        sumidero.rechazados.add(rechazado);
+
+        publicadorOutbox.publicarPendientes();
+
+        assertNotNull(eventos(aceptado).get(0).getFechaPublicacion());
+        EventoOutbox fallido = eventos(rechazado).get(0);
+        assertNull(fallido.getFechaPublicacion());
+        assertEquals(1, fallido.getIntentos());
+        assertEquals("Evento rechazado", fallido.getUltimoError());
+        assertEquals("SumideroEventosAplicacion", fallido.getSumiderosEntregados());
+
+        // El reintento solo va al sumidero que falló; al agotar los intentos el evento se descarta
+        publicadorOutbox.publicarPendientes();
+        fallido = eventos(rechazado).get(0);
+        assertEquals(2, fallido.getIntentos());
+        assertNotNull(fallido.getFechaDescarte());
+        assertEquals(1, oyente.veces(rechazado));
+
+        int intentosAlDescartar = sumidero.intentos.get(rechazado).get();
+        publicadorOutbox.publicarPendientes();
+        assertEquals(intentosAlDescartar, sumidero.intentos.get(rechazado).get());
+    }
+
+    @Test
+    void unOyenteTransaccionalQueFallaNoDeshaceElLote() {
+        Long rechazado = transactionTemplate.execute(estado -> crearPedidoConEvento());
+        Long aceptado = transactionTemplate.execute(estado -> crearPedidoConEvento());
+        oyenteTransaccional.rechazados.add(rechazado);
+
+        publicadorOutbox.publicarPendientes();
+
+        // Sin transacción propia, el oyente marcaba la del publicador para deshacer y el lote se repetía sin anotar nada
+        assertNotNull(eventos(aceptado).get(0).getFechaPublicacion());
+        EventoOutbox fallido = eventos(rechazado).get(0);
+        assertNull(fallido.getFechaPublicacion());
+        assertEquals(1, fallido.getIntentos());
+        assertEquals("Oyente rechazado", fallido.getUltimoError());
+    }
+
+    private Long crearPedidoConEvento() {
+        Pedido pedido = datos.pedido(new BigDecimal("10.00"));
+        outboxService.registrarPedido(pedido);
+        return pedido.getId();
+    }
+
+    private List<EventoOutbox> eventos(Long pedidoId) {
+        return eventoOutboxRepository.findAll().stream()
+                .filter(evento -> evento.getAgregado().equals(OutboxService.PEDIDO) && evento.getAgregadoId().equals(pedidoId))
+                .toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.config.StockCalienteProperties;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import com.bugabuga.e_commerce.support.CheckoutsConcurrentes;
+import com.bugabuga.e_commerce.support.DatosPrueba;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Venta flash de un producto con stock en memoria, con muchos más compradores que conexiones en el pool
+ * y bloques pequeños para que haya reposiciones continuas. Si la reposición pidiera una segunda conexión
+ * dentro de la transacción del checkout, los checkouts agotarían el pool y fallarían por timeout.
+ */
+@SpringBootTest(properties = {
+        "app.stock.caliente.enabled=true",
+        "app.stock.caliente.lote=2",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=3000"
+})
+@ActiveProfiles("test")
+@Import(DatosPrueba.class)
+class StockCalienteCheckoutTest {
+
+    private static final int STOCK = 10;
+    private static final int COMPRADORES = 24;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private StockCalienteProperties stockCalienteProperties;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private DatosPrueba datos;
+
+    private Producto producto;
+
+    @BeforeEach
+    void crearProducto() {
+        producto = datos.producto("Producto flash", new BigDecimal("9.99"), STOCK);
+        stockCalienteProperties.getProductos().add(producto.getId());
+    }
+
+    @AfterEach
+    void quitarProducto() {
+        stockCalienteProperties.getProductos().remove(producto.getId());
+    }
+
+    @Test
+    void ventaFlashConPoolPequenoNoAgotaConexiones() throws Exception {
+        CheckoutsConcurrentes.Resultado resultado =
+                CheckoutsConcurrentes.ejecutar(checkoutService, datos.compradores(producto, COMPRADORES));
+
+        assertEquals(STOCK, resultado.confirmados());
+        assertEquals(COMPRADORES - STOCK, resultado.sinStock());
+        // Todo el stock se asignó a memoria en bloques y se vendió
+        assertEquals(0, productoRepository.findById(producto.getId()).orElseThrow().getStock());
+    }
+}
@@ -0,0 +1,60 @@
+package com.bugabuga.e_commerce.service;
+
+import com.bugabuga.e_commerce.event.EventoDominio;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SumideroEventosFicheroTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void anadeUnaLineaJsonPorEventoEntreLotes(@TempDir Path directorio) throws Exception {
+        Path fichero = directorio.resolve("eventos/outbox.ndjson");
+        SumideroEventosFichero sumidero = new SumideroEventosFichero(fichero, Long.MAX_VALUE, 0, objectMapper);
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        sumidero.entregar(List.of(
+                new EventoDominio(1L, "PEDIDO", 10L, "PEDIDO_PENDIENTE", "{\"pedidoId\":10}", fecha),
+                new EventoDominio(2L, "PAGO", 20L, "PAGO_COMPLETADO", "{\"pagoId\":20,\"pedidoId\":10}", fecha)));
+        sumidero.entregar(List.of(
+                new EventoDominio(3L, "PEDIDO", 10L, "PEDIDO_PAGADO", "{\"pedidoId\":10}", fecha)));
+
+        List<String> lineas = Files.readAllLines(fichero);
+        assertEquals(3, lineas.size());
+
+        JsonNode pago = objectMapper.readTree(lineas.get(1));
+        assertEquals(2, pago.path("id").asLong());
+        assertEquals("PAGO_COMPLETADO", pago.path("tipo").asText());
+        // La carga va anidada como objeto, no como texto
+        assertEquals(10, pago.path("carga").path("pedidoId").asLong());
+        assertEquals("PEDIDO_PAGADO", objectMapper.readTree(lineas.get(2)).path("tipo").asText());
+    }
+
+    @Test
+    void rotaElFicheroAlSuperarElTamanoMaximo(@TempDir Path directorio) throws Exception {
+        Path fichero = directorio.resolve("outbox.ndjson");
+        SumideroEventosFichero sumidero = new SumideroEventosFichero(fichero, 1, 2, objectMapper);
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        for (long id = 1; id <= 4; id++) {
+            sumidero.entregar(List.of(new EventoDominio(id, "PEDIDO", 10L, "PEDIDO_PENDIENTE", "{}", fecha)));
+        }
+
+        // Cada lote empieza un fichero nuevo y solo se conservan los dos anteriores
+        assertEquals(4, objectMapper.readTree(Files.readAllLines(fichero).get(0)).path("id").asLong());
+        assertEquals(3, objectMapper.readTree(Files.readAllLines(directorio.resolve("outbox.ndjson.1")).get(0)).path("id").asLong());
+        assertEquals(2, objectMapper.readTree(Files.readAllLines(directorio.resolve("outbox.ndjson.2")).get(0)).path("id").asLong());
+        assertFalse(Files.exists(directorio.resolve("outbox.ndjson.3")));
+    }
+}
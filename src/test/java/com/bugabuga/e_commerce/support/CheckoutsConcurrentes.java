@@ -0,0 +1,58 @@
+package com.bugabuga.e_commerce.support;
+
+import com.bugabuga.e_commerce.exception.StockInsuficienteException;
+import com.bugabuga.e_commerce.model.dto.CheckoutDTO;
+import com.bugabuga.e_commerce.model.entity.Usuario;
+import com.bugabuga.e_commerce.service.CheckoutService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lanza a la vez el checkout de varios compradores, cada uno en su hilo, para las pruebas de sobreventa
+ */
+public final class CheckoutsConcurrentes {
+
+    public record Resultado(int confirmados, int sinStock) {
+    }
+
+    private CheckoutsConcurrentes() {
+    }
+
+    /**
+     * Falla si algún checkout termina con un error distinto de {@link StockInsuficienteException}
+     */
+    public static Resultado ejecutar(CheckoutService checkoutService, List<Usuario> compradores) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        int confirmados = 0;
+        int sinStock = 0;
+        try (ExecutorService hilos = Executors.newFixedThreadPool(compradores.size())) {
+            List<Future<?>> checkouts = new ArrayList<>();
+            for (Usuario comprador : compradores) {
+                checkouts.add(hilos.submit(() -> {
+                    salida.await();
+                    return checkoutService.realizarCheckout(comprador.getId(), new CheckoutDTO("Calle 1", null));
+                }));
+            }
+            salida.countDown();
+
+            for (Future<?> checkout : checkouts) {
+                try {
+                    checkout.get();
+                    confirmados++;
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof StockInsuficienteException, () -> "Fallo inesperado: " + e.getCause());
+                    sinStock++;
+                }
+            }
+        }
+        return new Resultado(confirmados, sinStock);
+    }
+}
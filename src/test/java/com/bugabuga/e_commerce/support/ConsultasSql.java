@@ -0,0 +1,38 @@
+package com.bugabuga.e_commerce.support;
+
+import com.bugabuga.e_commerce.config.ContadorConsultas;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aserciones sobre la cantidad de sentencias SQL que ejecuta una acción en el hilo del test.
+ * Con MockMvc la solicitud corre en ese mismo hilo, así que sirve para fijar las consultas de un endpoint:
+ * <pre>
+ * assertConsultas(2, () -> mockMvc.perform(get("/api/carrito/1")).andExpect(status().isOk()));
+ * </pre>
+ */
+public final class ConsultasSql {
+
+    private ConsultasSql() {
+    }
+
+    /**
+     * Sentencias SQL ejecutadas por la acción
+     */
+    public static long contar(Executable accion) throws Throwable {
+        long inicio = ContadorConsultas.consultasEnHilo();
+        accion.execute();
+        return ContadorConsultas.consultasEnHilo() - inicio;
+    }
+
+    public static void assertConsultas(long esperadas, Executable accion) throws Throwable {
+        assertEquals(esperadas, contar(accion), "Cantidad de sentencias SQL");
+    }
+
+    public static void assertConsultasMaximas(long maximas, Executable accion) throws Throwable {
+        long consultas = contar(accion);
+        assertTrue(consultas <= maximas, "Se esperaban como mucho " + maximas + " sentencias SQL y hubo " + consultas);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bugabuga.e_commerce.support;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * SessionEventListener de Hibernate que cuenta, por hilo, los lotes JDBC ejecutados (executeBatch)
+ * y las sentencias ejecutadas fuera de lote. Se registra en los tests con
+ * {@code spring.jpa.properties.hibernate.session.events.auto}; como {@link ConsultasSql}, los
+ * contadores son acumulativos y se mide por diferencia.
+ */
+public class ContadorLotesJdbc implements SessionEventListener {
+
+    private static final ThreadLocal<long[]> CONTADORES = ThreadLocal.withInitial(() -> new long[2]);
+    private static final int LOTES = 0;
+    private static final int INDIVIDUALES = 1;
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        CONTADORES.get()[LOTES]++;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        CONTADORES.get()[INDIVIDUALES]++;
+    }
+
+    public static long lotesEnHilo() {
+        return CONTADORES.get()[LOTES];
+    }
+
+    /**
+     * Sentencias ejecutadas una a una (consultas y, sin lotes, cada INSERT)
+     */
+    public static long sentenciasIndividualesEnHilo() {
+        return CONTADORES.get()[INDIVIDUALES];
+    }
+}
@@ -0,0 +1,110 @@
+package com.bugabuga.e_commerce.support;
+
+import com.bugabuga.e_commerce.model.entity.Categoria;
+import com.bugabuga.e_commerce.model.entity.Pedido;
+import com.bugabuga.e_commerce.model.entity.Producto;
+import com.bugabuga.e_commerce.model.entity.Tienda;
+import com.bugabuga.e_commerce.model.entity.Usuario;
+import com.bugabuga.e_commerce.repository.CategoriaRepository;
+import com.bugabuga.e_commerce.repository.PedidoRepository;
+import com.bugabuga.e_commerce.repository.ProductoRepository;
+import com.bugabuga.e_commerce.repository.TiendaRepository;
+import com.bugabuga.e_commerce.repository.UsuarioRepository;
+import com.bugabuga.e_commerce.service.CarritoService;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Crea datos en la base de datos de pruebas con emails y nombres únicos, para que los tests no choquen entre
+ * sí ni con los de otros contextos. Se usa con {@code @Import(DatosPrueba.class)}; dentro de una transacción
+ * del test, los datos se confirman o se deshacen con ella.
+ */
+@TestComponent
+public class DatosPrueba {
+
+    private final UsuarioRepository usuarioRepository;
+    private final TiendaRepository tiendaRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ProductoRepository productoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final CarritoService carritoService;
+
+    public DatosPrueba(UsuarioRepository usuarioRepository,
+                       TiendaRepository tiendaRepository,
+                       CategoriaRepository categoriaRepository,
+                       ProductoRepository productoRepository,
+                       PedidoRepository pedidoRepository,
+                       CarritoService carritoService) {
+        this.usuarioRepository = usuarioRepository;
+        this.tiendaRepository = tiendaRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.productoRepository = productoRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.carritoService = carritoService;
+    }
+
+    /**
+     * @param alias prefijo del email, para reconocer los datos de cada test
+     */
+    public Usuario usuario(String alias) {
+        Usuario usuario = new Usuario();
+        usuario.setEmail(alias + "-" + UUID.randomUUID() + "@example.com");
+        usuario.setNombre("Prueba");
+        usuario.setApellido("Prueba");
+        usuario.setPassword("x");
+        return usuarioRepository.save(usuario);
+    }
+
+    public Tienda tienda(Usuario propietario) {
+        Tienda tienda = new Tienda();
+        tienda.setNombre("Tienda " + UUID.randomUUID());
+        tienda.setPropietario(propietario);
+        return tiendaRepository.save(tienda);
+    }
+
+    public Categoria categoria() {
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoría " + UUID.randomUUID());
+        return categoriaRepository.save(categoria);
+    }
+
+    /**
+     * Producto en una tienda y una categoría nuevas
+     */
+    public Producto producto(String nombre, BigDecimal precio, int stock) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setPrecio(precio);
+        producto.setStock(stock);
+        producto.setTienda(tienda(usuario("propietario")));
+        producto.setCategoria(categoria());
+        return productoRepository.save(producto);
+    }
+
+    /**
+     * Usuarios nuevos con una unidad del producto en el carrito
+     */
+    public List<Usuario> compradores(Producto producto, int cantidad) {
+        List<Usuario> compradores = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Usuario comprador = usuario("comprador" + i);
+            carritoService.agregarProductoAlCarrito(comprador.getId(), producto.getId(), 1);
+            compradores.add(comprador);
+        }
+        return compradores;
+    }
+
+    /**
+     * Pedido PENDIENTE, sin items, de un usuario nuevo
+     */
+    public Pedido pedido(BigDecimal total) {
+        Pedido pedido = new Pedido();
+        pedido.setUsuario(usuario("pedido"));
+        pedido.setTotal(total);
+        return pedidoRepository.save(pedido);
+    }
+}